@@ -0,0 +1,139 @@
+package benchmark;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.carteira.Carteira;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Chave do Ativo: hash/ticker normalizado guardados na construção x cálculo a cada chamada
+// (ChaveLegada reproduz o equals/hashCode antigo, com trim().toUpperCase() em todo acesso).
+// A compra na carteira roda o mesmo adicionarAtivo com os dois tipos de chave: AcaoChaveLegada é
+// uma Acao com o equals/hashCode antigo.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AtivoChaveBenchmark {
+
+    @Param({"10", "1000"})
+    public int posicoes;
+
+    private Ativo[] ativos;
+    private ChaveLegada[] legadas;
+    private Map<Ativo, BigDecimal> mapaAtivos;
+    private Map<ChaveLegada, BigDecimal> mapaLegado;
+    private AcaoChaveLegada[] ativosLegados;
+    private Carteira carteira;
+    private Carteira carteiraLegada;
+    private int cursor;
+
+    @Setup
+    public void preparar() {
+        ativos = new Ativo[posicoes];
+        legadas = new ChaveLegada[posicoes];
+        mapaAtivos = new HashMap<>();
+        mapaLegado = new HashMap<>();
+        ativosLegados = new AcaoChaveLegada[posicoes];
+        carteira = new Carteira();
+        carteiraLegada = new Carteira();
+        for (int i = 0; i < posicoes; i++) {
+            ativos[i] = new Acao("Empresa " + i, "TK" + i + "3", BigDecimal.TEN, false);
+            legadas[i] = new ChaveLegada(ativos[i].getTicker());
+            mapaAtivos.put(ativos[i], BigDecimal.ONE);
+            mapaLegado.put(legadas[i], BigDecimal.ONE);
+            carteira.adicionarAtivo(ativos[i], BigDecimal.ONE);
+            ativosLegados[i] = new AcaoChaveLegada("Empresa " + i, "TK" + i + "3");
+            carteiraLegada.adicionarAtivo(ativosLegados[i], BigDecimal.ONE);
+        }
+    }
+
+    private int proximo() {
+        int i = cursor++;
+        if (cursor == posicoes) cursor = 0;
+        return i;
+    }
+
+    @Benchmark
+    public BigDecimal buscaChaveCalculadaNaConstrucao() {
+        return mapaAtivos.get(ativos[proximo()]);
+    }
+
+    @Benchmark
+    public BigDecimal buscaChaveLegada() {
+        return mapaLegado.get(legadas[proximo()]);
+    }
+
+    // compra numa posição existente: merge nos mapas de quantidade, custo e valor atual
+    @Benchmark
+    public Carteira adicionarAtivo() {
+        carteira.adicionarAtivo(ativos[proximo()], BigDecimal.ONE, BigDecimal.TEN);
+        return carteira;
+    }
+
+    @Benchmark
+    public Carteira adicionarAtivoChaveLegada() {
+        carteiraLegada.adicionarAtivo(ativosLegados[proximo()], BigDecimal.ONE, BigDecimal.TEN);
+        return carteiraLegada;
+    }
+
+    static final class AcaoChaveLegada extends Acao {
+
+        AcaoChaveLegada(String nome, String ticker) {
+            super(nome, ticker, BigDecimal.TEN, false);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            String t1 = getTicker().trim().toUpperCase();
+            String t2 = ((AcaoChaveLegada) o).getTicker().trim().toUpperCase();
+            return t1.equals(t2);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * getClass().hashCode() + getTicker().trim().toUpperCase().hashCode();
+        }
+    }
+
+    static final class ChaveLegada {
+        private final String ticker;
+
+        ChaveLegada(String ticker) {
+            this.ticker = ticker;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            String t1 = ticker == null ? "" : ticker.trim().toUpperCase();
+            String t2 = ((ChaveLegada) o).ticker == null ? "" : ((ChaveLegada) o).ticker.trim().toUpperCase();
+            return t1.equals(t2);
+        }
+
+        @Override
+        public int hashCode() {
+            String t = ticker == null ? "" : ticker.trim().toUpperCase();
+            return 31 * getClass().hashCode() + t.hashCode();
+        }
+    }
+}
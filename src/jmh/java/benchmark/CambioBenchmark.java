@@ -0,0 +1,80 @@
+package benchmark;
+
+import model.ativo.Ativo;
+import model.ativo.Moeda;
+import model.ativo.Stock;
+import model.ativo.TabelaCambio;
+import model.carteira.Carteira;
+import model.carteira.LivroColunar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Tabela de câmbio: uma troca do dólar reavalia todas as posições em stocks (carteiras e livro
+// colunar) e a conversão de um preço para real, que agora passa pela tabela.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CambioBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pontoFixo;
+
+    @Param({"100"})
+    public int stocks;
+
+    @Param({"10"})
+    public int detentorasPorStock;
+
+    private TabelaCambio cambio;
+    private Ativo[] ativos;
+    private Carteira[] carteiras;
+    private BigDecimal[] taxas;
+    private int cursor;
+
+    @Setup
+    public void preparar() {
+        cambio = new TabelaCambio();
+        LivroColunar livro = new LivroColunar();
+        ativos = new Ativo[stocks];
+        carteiras = new Carteira[stocks * detentorasPorStock];
+        for (int i = 0; i < stocks; i++) {
+            ativos[i] = new Stock("Company " + i, "S" + i, BigDecimal.valueOf(10_000 + i, 2), false,
+                    "NASDAQ", "Tech", Moeda.USD, cambio);
+        }
+        for (int c = 0; c < carteiras.length; c++) {
+            carteiras[c] = new Carteira(null, pontoFixo);
+            carteiras[c].adicionarAtivo(ativos[c % stocks], BigDecimal.valueOf(1 + c % 50));
+            carteiras[c].anexarLivro(livro);
+        }
+        taxas = new BigDecimal[64];
+        for (int i = 0; i < taxas.length; i++) taxas[i] = BigDecimal.valueOf(480 + i, 2);
+    }
+
+    // uma chamada: troca a cotação e reavalia stocks x detentorasPorStock posições
+    @Benchmark
+    public BigDecimal trocaCambio() {
+        cambio.atualizar(Map.of(Moeda.USD, taxas[cursor++ & 63]));
+        return carteiras[0].valorTotalAtual();
+    }
+
+    @Benchmark
+    public BigDecimal converterParaReal() {
+        return ativos[cursor++ % stocks].converterParaReal();
+    }
+}
@@ -0,0 +1,139 @@
+package benchmark;
+
+import data.AtivoData;
+import data.AtivoManager;
+import data.GeradorDados;
+import data.ModoCarga;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Leitura de CSV e loaders de catálogo sobre arquivos sintéticos de 10^3 a 10^7 linhas.
+// Os tamanhos grandes demoram para gerar; para uma rodada rápida use -p linhas=1000,100000
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class CargaCsvBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int linhas;
+
+    private Path dir;
+    private String acoes;
+    private String fiis;
+    private String tesouros;
+    private String stocks;
+    private String criptos;
+
+    @Setup(Level.Trial)
+    public void gerarArquivos() throws IOException {
+        dir = Files.createTempDirectory("bench-csv");
+        GeradorDados gerador = new GeradorDados(42, 0);
+        acoes = dir.resolve("acao.csv").toString();
+        fiis = dir.resolve("fii.csv").toString();
+        tesouros = dir.resolve("tesouro.csv").toString();
+        stocks = dir.resolve("stock.csv").toString();
+        criptos = dir.resolve("criptoativo.csv").toString();
+        gerador.gerarAcoes(Path.of(acoes), linhas);
+        gerador.gerarFiis(Path.of(fiis), linhas);
+        gerador.gerarTesouros(Path.of(tesouros), linhas);
+        gerador.gerarStocks(Path.of(stocks), linhas);
+        gerador.gerarCriptos(Path.of(criptos), linhas);
+    }
+
+    @TearDown(Level.Trial)
+    public void apagarArquivos() throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (var arquivos = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) arquivos::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    // API antiga: arquivo inteiro numa List<String[]>
+    @Benchmark
+    public List<String[]> lerCsvEmLista() {
+        return CsvReader.lerCsv(acoes);
+    }
+
+    // API em streaming: só percorre as linhas
+    @Benchmark
+    public long lerCsvStreaming(Blackhole bh) {
+        return new CsvReader().processar(acoes, linha -> bh.consume(linha.campo(2)));
+    }
+
+    @Benchmark
+    public int carregarAcoes() {
+        return AtivoData.carregarAcoes(acoes).size();
+    }
+
+    @Benchmark
+    public int carregarAcoesMapeadoParalelo() {
+        return AtivoData.carregarAcoes(acoes, ModoCarga.MAPEADO_PARALELO).size();
+    }
+
+    @Benchmark
+    public int carregarFiis() {
+        return AtivoData.carregarFiis(fiis).size();
+    }
+
+    @Benchmark
+    public int carregarTesouros() {
+        return AtivoData.carregarTesouros(tesouros).size();
+    }
+
+    @Benchmark
+    public int carregarStocks() {
+        return AtivoData.carregarStocks(stocks).size();
+    }
+
+    @Benchmark
+    public int carregarCriptos() {
+        return AtivoData.carregarCriptos(criptos).size();
+    }
+
+    // Catálogo inteiro: os cinco arquivos em sequência x sob demanda (as cinco cargas em paralelo)
+    @Benchmark
+    public int catalogoCompletoSequencial() {
+        AtivoManager manager = new AtivoManager();
+        manager.carregarCatalogos(dir.toString(), ModoCarga.SEQUENCIAL, false);
+        return manager.getAtivos().size();
+    }
+
+    @Benchmark
+    public int catalogoCompletoSobDemanda() {
+        AtivoManager manager = new AtivoManager();
+        manager.carregarSobDemanda(dir.toString(), ModoCarga.SEQUENCIAL, false);
+        return manager.getAtivos().size();
+    }
+
+    // Serviço que só usa Tesouro: o primeiro ticker espera acao, fii e tesouro.csv (lidos em paralelo);
+    // stock e criptoativo.csv seguem em segundo plano
+    @Benchmark
+    public Object primeiroTesouroSobDemanda() {
+        AtivoManager manager = new AtivoManager();
+        manager.carregarSobDemanda(dir.toString(), ModoCarga.SEQUENCIAL, false);
+        return manager.buscarPorTicker(GeradorDados.tickerTesouro(linhas - 1));
+    }
+}
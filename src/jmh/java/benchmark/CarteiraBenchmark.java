@@ -0,0 +1,107 @@
+package benchmark;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Criptomoeda;
+import model.ativo.Stock;
+import model.ativo.Tesouro;
+import model.ativo.TipoRendimento;
+import model.carteira.Carteira;
+import model.carteira.ComposicaoCarteira;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Operações de Carteira com 10 a 100k posições (mistura de renda fixa/variável e nacional/internacional)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CarteiraBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int posicoes;
+
+    private Ativo[] ativos;
+    private Carteira carteira;
+    private int cursor;
+
+    @Setup
+    public void preparar() {
+        ativos = new Ativo[posicoes];
+        carteira = new Carteira();
+        LocalDate vencimento = LocalDate.of(2035, 1, 1);
+        for (int i = 0; i < posicoes; i++) {
+            BigDecimal preco = BigDecimal.valueOf(1000 + i % 5000, 2);
+            ativos[i] = switch (i % 4) {
+                case 0 -> new Acao("Empresa " + i, "A" + i + "3", preco, false);
+                case 1 -> new Tesouro("Tesouro " + i, "T" + i, preco, false, TipoRendimento.SELIC, vencimento);
+                case 2 -> new Stock("Company " + i, "S" + i, preco, false, "NASDAQ", "Tech");
+                default -> new Criptomoeda("Coin " + i, "C" + i, preco, false, "PoS", null);
+            };
+            carteira.adicionarAtivo(ativos[i], BigDecimal.valueOf(100), preco);
+        }
+    }
+
+    private Ativo proximo() {
+        Ativo a = ativos[cursor++];
+        if (cursor == posicoes) cursor = 0;
+        return a;
+    }
+
+    @Benchmark
+    public Carteira adicionarAtivo() {
+        carteira.adicionarAtivo(proximo(), BigDecimal.ONE, BigDecimal.TEN);
+        return carteira;
+    }
+
+    // vende e recompra a mesma quantidade para manter o tamanho da carteira estável
+    @Benchmark
+    public Carteira removerAtivo() {
+        Ativo a = proximo();
+        carteira.removerAtivo(a, BigDecimal.ONE);
+        carteira.adicionarAtivo(a, BigDecimal.ONE, BigDecimal.TEN);
+        return carteira;
+    }
+
+    @Benchmark
+    public BigDecimal valorTotalAtual() {
+        return carteira.valorTotalAtual();
+    }
+
+    @Benchmark
+    public void percentuais(Blackhole bh) {
+        bh.consume(carteira.percentualRendaFixa());
+        bh.consume(carteira.percentualRendaVariavel());
+        bh.consume(carteira.percentualNacional());
+        bh.consume(carteira.percentualInternacional());
+    }
+
+    @Benchmark
+    public ComposicaoCarteira composicao() {
+        return carteira.composicao();
+    }
+
+    // tick de preço: reavalia só a posição afetada
+    @Benchmark
+    public BigDecimal atualizarPreco() {
+        Ativo a = proximo();
+        a.atualizarPreco(a.getPrecoAtual().add(BigDecimal.ONE));
+        return carteira.valorTotalAtual();
+    }
+}
@@ -0,0 +1,185 @@
+package benchmark;
+
+import data.GeradorDados;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Stock;
+import model.ativo.Tesouro;
+import model.ativo.TipoRendimento;
+import model.carteira.Carteira;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Teste de estresse da Carteira concorrente (fora do JMH):
+//   java -cp target/benchmarks.jar benchmark.CarteiraEstresse [threads] [operacoesPorThread]
+//
+// Cada thread compra e vende seus próprios tickers e todas compram um ticker "quente" em comum,
+// enquanto outra thread muda preços e outra lê os totais sem parar. No fim, o resultado é
+// comparado com a mesma sequência aplicada numa carteira sem concorrência:
+//  - quantidade e custo de cada posição idênticos;
+//  - totais iguais à soma das posições e valor de cada posição igual a quantidade x preço final;
+//  - a carteira assina exatamente os ativos em que tem posição;
+//  - nenhuma leitura concorrente viu total, custo ou percentuais impossíveis.
+// Sai com código 1 se alguma verificação falhar.
+public class CarteiraEstresse {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int tickersPorThread = 8;
+
+        List<Ativo> quentes = List.of(new Acao("Quente", "HOT3", new BigDecimal("10.00"), false));
+        List<List<Ativo>> proprios = new ArrayList<>();
+        List<Ativo> todos = new ArrayList<>(quentes);
+        for (int t = 0; t < threads; t++) {
+            List<Ativo> lista = new ArrayList<>();
+            for (int k = 0; k < tickersPorThread; k++) {
+                int n = t * tickersPorThread + k;
+                Ativo ativo = switch (k % 3) {
+                    case 0 -> new Acao("Ação " + n, GeradorDados.tickerAcao(n), new BigDecimal("25.50"), false);
+                    case 1 -> new Tesouro("Tesouro " + n, GeradorDados.tickerTesouro(n), new BigDecimal("1500.00"), false,
+                            TipoRendimento.SELIC, LocalDate.of(2030, 1, 1));
+                    default -> new Stock("Stock " + n, GeradorDados.tickerStock(n), new BigDecimal("120.00"), false,
+                            "NASDAQ", "Tech");
+                };
+                lista.add(ativo);
+                todos.add(ativo);
+            }
+            proprios.add(lista);
+        }
+
+        Carteira carteira = new Carteira();
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        AtomicReference<String> falhaLeitura = new AtomicReference<>();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        // leitor: nenhuma fotografia dos totais pode mostrar valores impossíveis
+        Thread leitor = new Thread(() -> {
+            long leituras = 0;
+            BigDecimal cem = BigDecimal.valueOf(100);
+            while (rodando.get()) {
+                BigDecimal total = carteira.valorTotalAtual();
+                BigDecimal gasto = carteira.getValorTotalGasto();
+                BigDecimal fixa = carteira.percentualRendaFixa();
+                BigDecimal internacional = carteira.percentualInternacional();
+                if (total.signum() < 0 || gasto.signum() < 0
+                        || fixa.signum() < 0 || fixa.compareTo(cem) > 0
+                        || internacional.signum() < 0 || internacional.compareTo(cem) > 0) {
+                    falhaLeitura.compareAndSet(null, "leitura incoerente: total=" + total + " gasto=" + gasto
+                            + " fixa=" + fixa + "% internacional=" + internacional + "%");
+                }
+                leituras++;
+            }
+            System.out.println("leituras concorrentes: " + leituras);
+        });
+
+        // cotações mudando o tempo todo
+        Thread precos = new Thread(() -> {
+            Random r = new Random(7);
+            while (rodando.get()) {
+                Ativo ativo = todos.get(r.nextInt(todos.size()));
+                ativo.atualizarPreco(BigDecimal.valueOf(100 + r.nextInt(100_000), 2));
+            }
+        });
+
+        List<Thread> operadores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            operadores.add(new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                executarSequencia(carteira, proprios.get(id), quentes.get(0), id, operacoes);
+            }));
+        }
+
+        leitor.start();
+        precos.start();
+        operadores.forEach(Thread::start);
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : operadores) t.join();
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        rodando.set(false);
+        leitor.join();
+        precos.join();
+
+        // mesma sequência, sem concorrência e sem mudança de preço no meio
+        Carteira referencia = new Carteira();
+        for (int t = 0; t < threads; t++) {
+            executarSequencia(referencia, proprios.get(t), quentes.get(0), t, operacoes);
+        }
+
+        List<String> falhas = new ArrayList<>();
+        if (falhaLeitura.get() != null) falhas.add(falhaLeitura.get());
+        BigDecimal somaValores = BigDecimal.ZERO;
+        BigDecimal somaCustos = BigDecimal.ZERO;
+        for (Ativo ativo : todos) {
+            BigDecimal qtd = carteira.getQuantidade(ativo);
+            if (qtd.compareTo(referencia.getQuantidade(ativo)) != 0) {
+                falhas.add(ativo.getTicker() + ": quantidade " + qtd + " != " + referencia.getQuantidade(ativo));
+            }
+            if (carteira.getValorGastoPorAtivo(ativo).compareTo(referencia.getValorGastoPorAtivo(ativo)) != 0) {
+                falhas.add(ativo.getTicker() + ": custo " + carteira.getValorGastoPorAtivo(ativo)
+                        + " != " + referencia.getValorGastoPorAtivo(ativo));
+            }
+            BigDecimal esperado = ativo.converterParaReal().multiply(qtd);
+            if (carteira.getValorAtualPorAtivo(ativo).compareTo(esperado) != 0) {
+                falhas.add(ativo.getTicker() + ": valor atual " + carteira.getValorAtualPorAtivo(ativo) + " != " + esperado);
+            }
+            boolean assinada = ativo.getOuvintes().contains(carteira);
+            if (assinada != (qtd.signum() > 0)) {
+                falhas.add(ativo.getTicker() + ": assinatura " + assinada + " com quantidade " + qtd);
+            }
+            somaValores = somaValores.add(carteira.getValorAtualPorAtivo(ativo));
+            somaCustos = somaCustos.add(carteira.getValorGastoPorAtivo(ativo));
+        }
+        if (carteira.valorTotalAtual().compareTo(somaValores) != 0) {
+            falhas.add("valor total " + carteira.valorTotalAtual() + " != soma das posições " + somaValores);
+        }
+        if (carteira.getValorTotalGasto().compareTo(somaCustos) != 0) {
+            falhas.add("gasto total " + carteira.getValorTotalGasto() + " != soma dos custos " + somaCustos);
+        }
+
+        System.out.println(threads + " threads x " + operacoes + " operações em " + ms + " ms");
+        if (falhas.isEmpty()) {
+            System.out.println("OK: carteira concorrente igual à referência sequencial.");
+        } else {
+            falhas.stream().limit(20).forEach(f -> System.out.println("FALHA: " + f));
+            System.exit(1);
+        }
+    }
+
+    // Sequência determinística de uma thread: compras e vendas nos próprios tickers (vendas só do
+    // que já tem) e compras no ticker quente, sempre com preço de execução explícito
+    private static void executarSequencia(Carteira carteira, List<Ativo> proprios, Ativo quente, int semente, int operacoes) {
+        Random r = new Random(semente);
+        long[] posicao = new long[proprios.size()];
+        for (int i = 0; i < operacoes; i++) {
+            BigDecimal preco = BigDecimal.valueOf(100 + r.nextInt(10_000), 2);
+            if (r.nextInt(10) == 0) {
+                carteira.adicionarAtivo(quente, BigDecimal.ONE, preco);
+                continue;
+            }
+            int k = r.nextInt(proprios.size());
+            long qtd = 1 + r.nextInt(50);
+            if (posicao[k] > 0 && r.nextBoolean()) {
+                qtd = Math.min(qtd, posicao[k]);
+                carteira.removerAtivo(proprios.get(k), BigDecimal.valueOf(qtd));
+                posicao[k] -= qtd;
+            } else {
+                carteira.adicionarAtivo(proprios.get(k), BigDecimal.valueOf(qtd), preco);
+                posicao[k] += qtd;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import data.AtivoManager;
+import data.GeradorDados;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Leitores do catálogo (busca por ticker e valorização) rodando junto com um feed de preços e
+// um escritor ocasional (cadastro/exclusão). O caminho de leitura não usa lock.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class CatalogoConcorrenteBenchmark {
+
+    @Param({"1000", "100000"})
+    public int tamanho;
+
+    private AtivoManager manager;
+    private String[] tickers;
+    private int proximoExtra;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        List<Ativo> ativos = new ArrayList<>(tamanho);
+        tickers = new String[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            tickers[i] = GeradorDados.tickerAcao(i);
+            ativos.add(new Acao("Empresa " + i, tickers[i], BigDecimal.valueOf(1000 + i, 2), false));
+        }
+        manager = AtivoManager.com(ativos);
+        proximoExtra = tamanho;
+    }
+
+    @Benchmark
+    @Group("leituraComFeed")
+    @GroupThreads(3)
+    public BigDecimal valorizar() {
+        Ativo ativo = manager.buscarPorTicker(tickers[ThreadLocalRandom.current().nextInt(tickers.length)]);
+        return ativo.converterParaReal();
+    }
+
+    @Benchmark
+    @Group("leituraComFeed")
+    @GroupThreads(1)
+    public boolean feedPrecos() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        Ativo ativo = manager.buscarPorTicker(tickers[r.nextInt(tickers.length)]);
+        return ativo.atualizarPreco(BigDecimal.valueOf(100 + r.nextInt(100_000), 2));
+    }
+
+    // cadastra e exclui um ativo extra: cada escrita publica uma fotografia nova do catálogo
+    @Benchmark
+    @Group("leituraComEscritor")
+    @GroupThreads(3)
+    public BigDecimal valorizarComEscritor() {
+        return valorizar();
+    }
+
+    @Benchmark
+    @Group("leituraComEscritor")
+    @GroupThreads(1)
+    public boolean cadastrarEExcluir() {
+        String ticker = GeradorDados.tickerAcao(proximoExtra++);
+        manager.cadastrarAtivo(new Acao("Extra", ticker, BigDecimal.TEN, false));
+        return manager.excluirAtivo(ticker);
+    }
+}
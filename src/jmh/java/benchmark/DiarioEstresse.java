@@ -0,0 +1,190 @@
+package benchmark;
+
+import data.AtivoManager;
+import data.DiarioMovimentacoes;
+import data.GeradorDados;
+import data.InvestidorManager;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.investidor.Endereco;
+import model.investidor.Investidor;
+import model.investidor.PerfilInvestimento;
+import model.investidor.PessoaFisica;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Vazão e recuperação do diário de movimentações (fora do JMH: mede fsync de verdade):
+//   java -cp target/benchmarks.jar benchmark.DiarioEstresse gravar <diretório> [threads] [segundos] > saida.txt
+//   java -cp target/benchmarks.jar benchmark.DiarioEstresse verificar <diretório> saida.txt
+//
+// gravar: cada thread é um investidor que compra 1 unidade de seus tickers, uma operação por vez
+// (cada compra só volta depois de gravada), e imprime "confirmadas t=<thread> n=<total>" a cada 100.
+// Matar o processo no meio (kill -9) simula a queda. verificar reabre o diário e confere que cada
+// investidor tem pelo menos as compras confirmadas na saída (nenhuma confirmada se perdeu) e no
+// máximo as 100 seguintes (a saída só é impressa a cada 100). Sai com código 1 se falhar.
+//
+//   java -cp target/benchmarks.jar benchmark.DiarioEstresse compactando <diretório> [threads] [segundos]
+//
+// compactando: o mesmo gravar com uma thread compactando o diário sem parar enquanto as compras
+// correm; no fim reabre o diário e confere que cada investidor tem exatamente as compras feitas.
+public class DiarioEstresse {
+
+    private static final int TICKERS_POR_THREAD = 8;
+    private static final int TICKERS = 1024;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !List.of("gravar", "compactando", "verificar").contains(args[0])) {
+            System.err.println("Uso: gravar|compactando <diretório> [threads] [segundos] | verificar <diretório> <saída>");
+            System.exit(2);
+        }
+        Path diretorio = Path.of(args[1]);
+        if ("verificar".equals(args[0])) {
+            if (args.length < 3) {
+                System.err.println("Uso: verificar <diretório> <saída>");
+                System.exit(2);
+            }
+            System.exit(verificar(diretorio, Path.of(args[2])) ? 0 : 1);
+        }
+        // threads e segundos só existem em gravar/compactando
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int segundos = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        if ("gravar".equals(args[0])) {
+            gravar(diretorio, threads, segundos, false);
+        } else {
+            Map<Integer, Long> feitas = gravar(diretorio, threads, segundos, true);
+            System.exit(verificar(diretorio, feitas, 0) ? 0 : 1);
+        }
+    }
+
+    // depois da primeira compactação o catálogo vem da fotografia do diário
+    private static AtivoManager catalogo(Path diretorio) throws IOException {
+        if (DiarioMovimentacoes.temFotografia(diretorio)) return new AtivoManager();
+        List<Ativo> ativos = new ArrayList<>(TICKERS);
+        for (int i = 0; i < TICKERS; i++) {
+            ativos.add(new Acao("Empresa " + i, GeradorDados.tickerAcao(i), new BigDecimal("10.00"), false));
+        }
+        return AtivoManager.com(ativos);
+    }
+
+    private static String identificador(int thread) {
+        return String.format("%011d", thread);
+    }
+
+    // devolve quantas compras cada thread tem ao final (as anteriores do diário incluídas)
+    private static Map<Integer, Long> gravar(Path diretorio, int threads, int segundos, boolean compactar) throws Exception {
+        AtivoManager ativos = catalogo(diretorio);
+        InvestidorManager investidores = new InvestidorManager();
+        try (DiarioMovimentacoes diario = DiarioMovimentacoes.abrir(diretorio, ativos, investidores)) {
+            System.err.println("diario " + diario.getRecuperacao());
+            Endereco endereco = new Endereco("Rua 1", "10", "Centro", "01001000", "São Paulo", "SP");
+            for (int t = 0; t < threads; t++) {
+                if (investidores.buscarPorIdentificador(identificador(t)) == null) {
+                    investidores.adicionarInvestidor(new PessoaFisica("Investidor " + t, identificador(t),
+                            LocalDate.of(1980, 1, 1), "11999999999", endereco, BigDecimal.valueOf(1_000_000),
+                            PerfilInvestimento.ARROJADO));
+                }
+            }
+
+            AtomicBoolean rodando = new AtomicBoolean(true);
+            AtomicLong total = new AtomicLong();
+            Map<Integer, Long> feitas = new ConcurrentHashMap<>();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                Investidor inv = investidores.buscarPorIdentificador(identificador(t));
+                long jaTinha = quantidade(inv, ativos, thread);
+                workers.add(Thread.ofPlatform().start(() -> {
+                    long n = jaTinha;
+                    while (rodando.get()) {
+                        Ativo ativo = ativos.buscarPorTicker(GeradorDados.tickerAcao(
+                                (thread * TICKERS_POR_THREAD + (int) (n % TICKERS_POR_THREAD)) % TICKERS));
+                        inv.comprar(ativo, BigDecimal.ONE, ativo.getPrecoAtual());
+                        n++;
+                        total.incrementAndGet();
+                        if (n % 100 == 0) {
+                            synchronized (System.out) {
+                                System.out.println("confirmadas t=" + thread + " n=" + n);
+                                System.out.flush();
+                            }
+                        }
+                    }
+                    feitas.put(thread, n);
+                }));
+            }
+            AtomicLong compactacoes = new AtomicLong();
+            if (compactar) {
+                workers.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        while (rodando.get()) {
+                            diario.compactar();
+                            compactacoes.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            long inicio = System.nanoTime();
+            Thread.sleep(segundos * 1000L);
+            rodando.set(false);
+            for (Thread w : workers) w.join();
+            double s = (System.nanoTime() - inicio) / 1e9;
+            System.err.printf("threads=%d operacoes=%d operacoes/s=%.0f compactacoes=%d%n",
+                    threads, total.get(), total.get() / s, compactacoes.get());
+            return feitas;
+        }
+    }
+
+    private static long quantidade(Investidor inv, AtivoManager ativos, int thread) {
+        long soma = 0;
+        for (int k = 0; k < TICKERS_POR_THREAD; k++) {
+            Ativo ativo = ativos.buscarPorTicker(GeradorDados.tickerAcao((thread * TICKERS_POR_THREAD + k) % TICKERS));
+            soma += inv.getCarteira().getQuantidade(ativo).longValueExact();
+        }
+        return soma;
+    }
+
+    private static boolean verificar(Path diretorio, Path saida) throws Exception {
+        Map<Integer, Long> confirmadas = new HashMap<>();
+        for (String linha : Files.readAllLines(saida)) {
+            if (!linha.startsWith("confirmadas ")) continue;
+            String[] partes = linha.split(" ");
+            if (partes.length < 3 || !partes[2].startsWith("n=")) continue; // última linha cortada pela queda
+            int t = Integer.parseInt(partes[1].substring(2));
+            confirmadas.merge(t, Long.parseLong(partes[2].substring(2)), Math::max);
+        }
+        return verificar(diretorio, confirmadas, 100);
+    }
+
+    // cada investidor tem de ter entre as compras confirmadas e mais "folga" compras
+    private static boolean verificar(Path diretorio, Map<Integer, Long> confirmadas, long folga) throws Exception {
+        AtivoManager ativos = catalogo(diretorio);
+        InvestidorManager investidores = new InvestidorManager();
+        boolean ok = true;
+        try (DiarioMovimentacoes diario = DiarioMovimentacoes.abrir(diretorio, ativos, investidores)) {
+            System.out.println("diario " + diario.getRecuperacao());
+            for (Map.Entry<Integer, Long> e : confirmadas.entrySet()) {
+                Investidor inv = investidores.buscarPorIdentificador(identificador(e.getKey()));
+                long recuperadas = inv == null ? 0 : quantidade(inv, ativos, e.getKey());
+                if (recuperadas < e.getValue() || recuperadas > e.getValue() + folga) {
+                    System.out.println("FALHA t=" + e.getKey() + " confirmadas>=" + e.getValue() + " recuperadas=" + recuperadas);
+                    ok = false;
+                }
+            }
+        }
+        System.out.println((ok ? "OK" : "FALHA") + " investidores=" + confirmadas.size());
+        return ok;
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import data.AtivoManager;
+import data.GeradorDados;
+import data.ImportadorMovimentacoes;
+import data.InvestidorManager;
+import data.ModoCarga;
+import data.ResultadoImportacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Arquivo consolidado de movimentações (vários investidores) com 1 partição (sequencial) e com
+// várias partições em virtual threads. Cada iteração parte de carteiras vazias.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class ImportacaoConsolidadaBenchmark {
+
+    @Param({"1000000"})
+    public long linhas;
+
+    @Param({"200000"})
+    public long investidores;
+
+    @Param({"1", "4", "16"})
+    public int particoes;
+
+    private Path dir;
+    private AtivoManager ativoManager;
+    private InvestidorManager investidorManager;
+
+    @Setup(Level.Trial)
+    public void gerarArquivos() throws IOException {
+        dir = Files.createTempDirectory("bench-mov");
+        GeradorDados gerador = new GeradorDados(42, 1.0);
+        gerador.gerarAcoes(dir.resolve("acao.csv"), 2000);
+        gerador.gerarFiis(dir.resolve("fii.csv"), 500);
+        gerador.gerarTesouros(dir.resolve("tesouro.csv"), 50);
+        gerador.gerarStocks(dir.resolve("stock.csv"), 0);
+        gerador.gerarCriptos(dir.resolve("criptoativo.csv"), 0);
+        gerador.gerarInvestidores(dir.resolve("investidores.csv"), investidores);
+        gerador.gerarMovimentacoesConsolidadas(dir.resolve("movimentacoes.csv"), linhas, investidores, 2000, 500, 50);
+
+        ativoManager = new AtivoManager();
+        ativoManager.carregarCatalogos(dir.toString(), ModoCarga.SEQUENCIAL, false);
+    }
+
+    @Setup(Level.Iteration)
+    public void carregarInvestidores() {
+        investidorManager = new InvestidorManager();
+        investidorManager.carregarInvestidoresDeArquivo(dir.resolve("investidores.csv").toString(),
+                ResultadoImportacao.silencioso("investidores"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void limparCarteiras() {
+        // tira as carteiras da lista de ouvintes dos ativos antes da próxima iteração
+        investidorManager.removerPorIdentificadores(investidorManager.getInvestidores().stream()
+                .map(i -> i.getIdentificador()).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void apagarArquivos() throws IOException {
+        try (var arquivos = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) arquivos::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long importarConsolidado() {
+        return new ImportadorMovimentacoes(ativoManager)
+                .importarConsolidado(investidorManager, dir.resolve("movimentacoes.csv").toString(), particoes,
+                        ResultadoImportacao.silencioso("movimentacoes"))
+                .getAceitas();
+    }
+}
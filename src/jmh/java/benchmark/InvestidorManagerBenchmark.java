@@ -0,0 +1,91 @@
+package benchmark;
+
+import data.InvestidorManager;
+import model.investidor.Endereco;
+import model.investidor.Investidor;
+import model.investidor.PerfilInvestimento;
+import model.investidor.PessoaFisica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Busca e remoção de investidores com até 10^6 cadastros
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Thread)
+public class InvestidorManagerBenchmark {
+
+    @Param({"1000000"})
+    public int investidores;
+
+    @Param({"1000"})
+    public int lote;
+
+    private InvestidorManager manager;
+    private Investidor[] cadastrados;
+    private int cursor;
+
+    @Setup
+    public void preparar() {
+        manager = new InvestidorManager();
+        cadastrados = new Investidor[investidores];
+        Endereco endereco = new Endereco("Rua A", "10", "Centro", "36000000", "Juiz de Fora", "MG");
+        LocalDate nascimento = LocalDate.of(1990, 1, 1);
+        for (int i = 0; i < investidores; i++) {
+            cadastrados[i] = new PessoaFisica("Investidor " + i, String.format("%011d", i), nascimento,
+                    "32999999999", endereco, BigDecimal.valueOf(100000), PerfilInvestimento.MODERADO);
+            manager.adicionarInvestidor(cadastrados[i]);
+        }
+    }
+
+    private Investidor proximo() {
+        Investidor inv = cadastrados[cursor++];
+        if (cursor == investidores) cursor = 0;
+        return inv;
+    }
+
+    @Benchmark
+    public Investidor buscarPorIdentificador() {
+        return manager.buscarPorIdentificador(proximo().getIdentificador());
+    }
+
+    // remove e cadastra de novo para manter o tamanho da base
+    @Benchmark
+    public InvestidorManager removerInvestidor() {
+        Investidor inv = proximo();
+        manager.removerInvestidor(inv.getIdentificador());
+        manager.adicionarInvestidor(inv);
+        return manager;
+    }
+
+    @Benchmark
+    public InvestidorManager removerPorIdentificadores() {
+        List<Investidor> alvo = new ArrayList<>(lote);
+        List<String> ids = new ArrayList<>(lote);
+        for (int i = 0; i < lote; i++) {
+            Investidor inv = proximo();
+            alvo.add(inv);
+            ids.add(inv.getIdentificador());
+        }
+        manager.removerPorIdentificadores(ids);
+        for (Investidor inv : alvo) manager.adicionarInvestidor(inv);
+        return manager;
+    }
+}
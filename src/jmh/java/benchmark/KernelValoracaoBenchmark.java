@@ -0,0 +1,155 @@
+package benchmark;
+
+import data.GeradorDados;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Stock;
+import model.ativo.Tesouro;
+import model.ativo.TipoRenda;
+import model.ativo.TipoRendimento;
+import model.carteira.Carteira;
+import model.carteira.KernelEscalar;
+import model.carteira.KernelValoracao;
+import model.carteira.LivroColunar;
+import model.investidor.Origem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.PontoFixo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Valor de mercado e quebras (renda fixa/variável, nacional/internacional) de todas as carteiras:
+// implementação antiga com streams por carteira x LivroColunar com núcleo escalar x núcleo vetorial.
+// Os dois "nucleo*" medem só o laço sobre as linhas (sem agregar por carteira).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class KernelValoracaoBenchmark {
+
+    @Param({"10000", "100000"})
+    public int carteiras;
+
+    @Param({"20"})
+    public int posicoesPorCarteira;
+
+    private Carteira[] todas;
+    private LivroColunar livroEscalar;
+    private LivroColunar livroVetorial;
+    private KernelValoracao escalar;
+    private KernelValoracao vetorial;
+
+    // mesmas linhas do livro, para medir só o núcleo
+    private int linhas;
+    private int[] ativoDaLinha;
+    private long[] quantidade;
+    private long[] precoReais;
+    private long[] valores;
+
+    @Setup
+    public void preparar() {
+        Random r = new Random(42);
+        Ativo[] ativos = new Ativo[2000];
+        LocalDate vencimento = LocalDate.of(2035, 1, 1);
+        for (int i = 0; i < ativos.length; i++) {
+            BigDecimal preco = BigDecimal.valueOf(1000 + r.nextInt(100_000), 2);
+            ativos[i] = switch (i % 4) {
+                case 0, 1 -> new Acao("Empresa " + i, GeradorDados.tickerAcao(i), preco, false);
+                case 2 -> new Tesouro("Tesouro " + i, GeradorDados.tickerTesouro(i), preco, false, TipoRendimento.SELIC, vencimento);
+                default -> new Stock("Company " + i, GeradorDados.tickerStock(i), preco, false, "NASDAQ", "Tech");
+            };
+        }
+        escalar = new KernelEscalar();
+        vetorial = KernelValoracao.padrao();
+        livroEscalar = new LivroColunar(escalar);
+        livroVetorial = new LivroColunar(vetorial);
+        todas = new Carteira[carteiras];
+        for (int c = 0; c < carteiras; c++) {
+            todas[c] = new Carteira();
+            for (int k = 0; k < posicoesPorCarteira; k++) {
+                todas[c].adicionarAtivo(ativos[r.nextInt(ativos.length)], BigDecimal.valueOf(1 + r.nextInt(500)));
+            }
+            todas[c].anexarLivro(livroEscalar);
+        }
+        // o segundo livro recebe as mesmas posições pelo mesmo caminho (carteiras avulsas iguais)
+        for (Carteira carteira : todas) {
+            Carteira copia = new Carteira();
+            carteira.getAtivos().forEach(copia::adicionarAtivo);
+            copia.anexarLivro(livroVetorial);
+        }
+
+        linhas = carteiras * posicoesPorCarteira;
+        ativoDaLinha = new int[linhas];
+        quantidade = new long[linhas];
+        precoReais = new long[ativos.length];
+        valores = new long[linhas];
+        for (int a = 0; a < ativos.length; a++) precoReais[a] = ativos[a].getPrecoEmReaisPontoFixo();
+        for (int i = 0; i < linhas; i++) {
+            ativoDaLinha[i] = r.nextInt(ativos.length);
+            quantidade[i] = PontoFixo.QUANTIDADE.unidades(BigDecimal.valueOf(1 + r.nextInt(500)));
+        }
+        System.out.println("\nnúcleo vetorial: " + vetorial.nome());
+    }
+
+    // como a Carteira fazia antes: um stream por quebra, BigDecimal por posição
+    @Benchmark
+    public void streams(Blackhole bh) {
+        for (Carteira carteira : todas) {
+            Map<Ativo, BigDecimal> ativos = carteira.getAtivos();
+            BigDecimal total = ativos.entrySet().stream()
+                    .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal fixa = ativos.entrySet().stream()
+                    .filter(e -> e.getKey().getTipoRenda() == TipoRenda.FIXA)
+                    .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal nacional = ativos.entrySet().stream()
+                    .filter(e -> e.getKey().getOrigem() == Origem.NACIONAL)
+                    .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (total.signum() != 0) {
+                bh.consume(fixa.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP));
+                bh.consume(nacional.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP));
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<Carteira, LivroColunar.ValorCarteira> livroEscalar() {
+        return livroEscalar.composicaoCarteiras();
+    }
+
+    @Benchmark
+    public Map<Carteira, LivroColunar.ValorCarteira> livroVetorial() {
+        return livroVetorial.composicaoCarteiras();
+    }
+
+    @Benchmark
+    public long[] nucleoEscalar() {
+        escalar.valorarLinhas(linhas, ativoDaLinha, quantidade, precoReais, valores);
+        return valores;
+    }
+
+    @Benchmark
+    public long[] nucleoVetorial() {
+        vetorial.valorarLinhas(linhas, ativoDaLinha, quantidade, precoReais, valores);
+        return valores;
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import data.GeradorDados;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Stock;
+import model.carteira.Carteira;
+import model.carteira.LivroColunar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Revalorizar o livro inteiro (quantidade x preço atual de cada posição de cada carteira):
+// percorrendo os mapas das carteiras em BigDecimal x o laço sobre as colunas do LivroColunar.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LivroColunarBenchmark {
+
+    @Param({"10000", "100000"})
+    public int carteiras;
+
+    @Param({"20"})
+    public int posicoesPorCarteira;
+
+    private Carteira[] todas;
+    private LivroColunar livro;
+
+    @Setup
+    public void preparar() {
+        Random r = new Random(42);
+        Ativo[] ativos = new Ativo[2000];
+        for (int i = 0; i < ativos.length; i++) {
+            BigDecimal preco = BigDecimal.valueOf(1000 + r.nextInt(100_000), 2);
+            ativos[i] = i % 4 == 3
+                    ? new Stock("Company " + i, GeradorDados.tickerStock(i), preco, false, "NASDAQ", "Tech")
+                    : new Acao("Empresa " + i, GeradorDados.tickerAcao(i), preco, false);
+        }
+        livro = new LivroColunar();
+        todas = new Carteira[carteiras];
+        for (int c = 0; c < carteiras; c++) {
+            todas[c] = new Carteira();
+            for (int k = 0; k < posicoesPorCarteira; k++) {
+                todas[c].adicionarAtivo(ativos[r.nextInt(ativos.length)], BigDecimal.valueOf(1 + r.nextInt(500)));
+            }
+            todas[c].anexarLivro(livro);
+        }
+    }
+
+    // o que uma revalorização completa fazia: cada mapa de cada carteira, BigDecimal por posição
+    @Benchmark
+    public BigDecimal mapasDasCarteiras() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Carteira carteira : todas) {
+            for (Map.Entry<Ativo, BigDecimal> e : carteira.getAtivos().entrySet()) {
+                total = total.add(e.getKey().converterParaReal().multiply(e.getValue()));
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal livroColunar() {
+        return livro.valorTotal();
+    }
+}
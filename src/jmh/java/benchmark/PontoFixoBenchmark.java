@@ -0,0 +1,87 @@
+package benchmark;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Stock;
+import model.carteira.Carteira;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.PontoFixo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal x ponto fixo no caminho de valorização: um tick de preço reavalia todas as carteiras
+// detentoras (rode com -prof gc para ver a alocação por operação), venda com custo médio e a
+// divisão do custo médio isolada.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PontoFixoBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pontoFixo;
+
+    @Param({"1000"})
+    public int detentoras;
+
+    private Ativo acao;
+    private Ativo stock;
+    private Carteira[] carteiras;
+    private BigDecimal[] precos;
+    private BigDecimal custo;
+    private BigDecimal quantidade;
+    private int cursor;
+
+    @Setup
+    public void preparar() {
+        acao = new Acao("Empresa", "EMPR3", new BigDecimal("25.37"), false);
+        stock = new Stock("Company", "COMP", new BigDecimal("131.20"), false, "NASDAQ", "Tech");
+        carteiras = new Carteira[detentoras];
+        for (int i = 0; i < detentoras; i++) {
+            carteiras[i] = new Carteira(null, pontoFixo);
+            carteiras[i].adicionarAtivo(acao, BigDecimal.valueOf(100 + i), new BigDecimal("24.10"));
+            carteiras[i].adicionarAtivo(stock, new BigDecimal("3.5"), new BigDecimal("120.00"));
+        }
+        precos = new BigDecimal[64];
+        for (int i = 0; i < precos.length; i++) precos[i] = BigDecimal.valueOf(2000 + i * 7, 2);
+        custo = new BigDecimal("14479.912992698612");
+        quantidade = new BigDecimal("1234.5678");
+    }
+
+    // um tick de preço avisa as "detentoras" carteiras
+    @Benchmark
+    public BigDecimal tickPreco() {
+        acao.atualizarPreco(precos[cursor++ & 63]);
+        return carteiras[0].valorTotalAtual();
+    }
+
+    // vende e recompra: custo médio + revalorização da posição
+    @Benchmark
+    public Carteira vendaComCustoMedio() {
+        Carteira c = carteiras[cursor++ % detentoras];
+        c.removerAtivo(acao, BigDecimal.ONE);
+        c.adicionarAtivo(acao, BigDecimal.ONE, BigDecimal.TEN);
+        return c;
+    }
+
+    @Benchmark
+    public BigDecimal divisaoCustoMedio() {
+        return pontoFixo
+                ? PontoFixo.dividir(custo, quantidade, 10)
+                : custo.divide(quantidade, 10, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,162 @@
+package benchmark;
+
+import data.GeradorDados;
+import io.EscritorJson;
+import io.RelatorioInvestidor;
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.TipoRenda;
+import model.carteira.Carteira;
+import model.carteira.ComposicaoCarteira;
+import model.investidor.Endereco;
+import model.investidor.Investidor;
+import model.investidor.Origem;
+import model.investidor.PerfilInvestimento;
+import model.investidor.PessoaFisica;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Relatórios JSON de todos os investidores, sem disco (o canal só conta os bytes):
+// StringBuilder montando o documento inteiro (implementação antiga) x EscritorJson em fluxo.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RelatorioBenchmark {
+
+    @Param({"2000"})
+    public int investidores;
+
+    @Param({"20"})
+    public int posicoesPorCarteira;
+
+    private Investidor[] todos;
+    private final Descarte descarte = new Descarte();
+    private EscritorJson indentado;
+    private EscritorJson compacto;
+
+    @Setup
+    public void preparar() {
+        Random r = new Random(42);
+        Ativo[] ativos = new Ativo[1000];
+        for (int i = 0; i < ativos.length; i++) {
+            ativos[i] = new Acao("Empresa " + i, GeradorDados.tickerAcao(i), BigDecimal.valueOf(1000 + r.nextInt(100_000), 2), false);
+        }
+        Endereco endereco = new Endereco("Rua 1", "10", "Centro", "01001000", "São Paulo", "SP");
+        todos = new Investidor[investidores];
+        for (int i = 0; i < investidores; i++) {
+            todos[i] = new PessoaFisica("Investidor " + i, String.format("%011d", i), LocalDate.of(1980, 1, 1),
+                    "11999999999", endereco, BigDecimal.valueOf(100_000), PerfilInvestimento.ARROJADO);
+            Carteira carteira = todos[i].getCarteira();
+            for (int k = 0; k < posicoesPorCarteira; k++) {
+                carteira.adicionarAtivo(ativos[r.nextInt(ativos.length)], BigDecimal.valueOf(1 + r.nextInt(500)));
+            }
+        }
+        indentado = new EscritorJson(descarte, true);
+        compacto = new EscritorJson(descarte, false);
+    }
+
+    @Benchmark
+    public long stringBuilder() {
+        long bytes = 0;
+        for (Investidor inv : todos) bytes += gerarAntigo(inv).getBytes(StandardCharsets.UTF_8).length;
+        return bytes;
+    }
+
+    @Benchmark
+    public long fluxoIndentado() throws IOException {
+        for (Investidor inv : todos) RelatorioInvestidor.escrever(inv, indentado);
+        indentado.flush();
+        return descarte.bytes;
+    }
+
+    @Benchmark
+    public long fluxoNdjson() throws IOException {
+        for (Investidor inv : todos) RelatorioInvestidor.escrever(inv, compacto);
+        compacto.flush();
+        return descarte.bytes;
+    }
+
+    // como o relatório era montado antes: valor gasto e valor atual buscados por entrada
+    private static String gerarAntigo(Investidor inv) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"identificador\": \"").append(inv.getIdentificador()).append("\",\n");
+        sb.append("  \"nome\": \"").append(inv.getNome()).append("\",\n");
+        sb.append("  \"patrimonio\": ").append(inv.getPatrimonio()).append(",\n");
+        sb.append("  \"carteira\": [\n");
+        Carteira carteira = inv.getCarteira();
+        ComposicaoCarteira composicao = carteira.composicao();
+        var mapa = carteira.getAtivos();
+        int i = 0;
+        for (var entry : mapa.entrySet()) {
+            Ativo ativo = entry.getKey();
+            sb.append("    {\n");
+            sb.append("      \"identificador\": \"").append(ativo.getTicker()).append("\",\n");
+            sb.append("      \"nome\": \"").append(ativo.getNome()).append("\",\n");
+            sb.append("      \"quantidade\": ").append(entry.getValue()).append(",\n");
+            sb.append("      \"valorGasto\": ").append(carteira.getValorGastoPorAtivo(ativo)).append(",\n");
+            sb.append("      \"valorAtual\": ").append(carteira.getValorAtualPorAtivo(ativo)).append("\n");
+            sb.append("    }");
+            i++;
+            if (i < mapa.size()) sb.append(",");
+            sb.append("\n");
+        }
+        sb.append("  ],\n");
+        sb.append("  \"percentuais\": {\n");
+        sb.append("    \"rendaFixa\": ").append(composicao.percentualRenda(TipoRenda.FIXA)).append(",\n");
+        sb.append("    \"rendaVariavel\": ").append(composicao.percentualRenda(TipoRenda.VARIAVEL)).append(",\n");
+        sb.append("    \"nacional\": ").append(composicao.percentualOrigem(Origem.NACIONAL)).append(",\n");
+        sb.append("    \"internacional\": ").append(composicao.percentualOrigem(Origem.INTERNACIONAL));
+        for (Class<? extends Ativo> tipo : composicao.getPorTipoAtivo().keySet()) {
+            sb.append(",\n    \"").append(tipo.getSimpleName()).append("\": ").append(composicao.percentualTipoAtivo(tipo));
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"valorTotalGasto\": ").append(composicao.getValorTotalGasto()).append(",\n");
+        sb.append("  \"valorTotalAtual\": ").append(composicao.getValorTotal()).append("\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // canal que só conta os bytes recebidos
+    private static final class Descarte implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            bytes += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package app;
+
+import data.GeradorDados;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// Gera um conjunto de arquivos sintéticos para testes de carga.
+// Uso: java -cp target/classes app.GeradorDadosMain dir=dados acoes=100000 investidores=1000000 movimentacoes=10000000 semente=42 assimetria=1.1
+// Parâmetros omitidos usam os valores padrão abaixo.
+public class GeradorDadosMain {
+
+    public static void main(String[] args) {
+        Map<String, String> params = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                System.out.println("Parâmetro inválido (use chave=valor): " + arg);
+                System.exit(2);
+            }
+            params.put(arg.substring(0, igual).trim().toLowerCase(), arg.substring(igual + 1).trim());
+        }
+
+        try {
+            Path dir = Path.of(params.getOrDefault("dir", "dados-sinteticos"));
+            long semente = Long.parseLong(params.getOrDefault("semente", "42"));
+            double assimetria = Double.parseDouble(params.getOrDefault("assimetria", "1.0"));
+            int acoes = Integer.parseInt(params.getOrDefault("acoes", "1000"));
+            int fiis = Integer.parseInt(params.getOrDefault("fiis", "500"));
+            int tesouros = Integer.parseInt(params.getOrDefault("tesouros", "50"));
+            int stocks = Integer.parseInt(params.getOrDefault("stocks", "500"));
+            int criptos = Integer.parseInt(params.getOrDefault("criptos", "100"));
+            long investidores = Long.parseLong(params.getOrDefault("investidores", "10000"));
+            long movimentacoes = Long.parseLong(params.getOrDefault("movimentacoes", "100000"));
+
+            long inicio = System.nanoTime();
+            new GeradorDados(semente, assimetria)
+                    .gerarTudo(dir, acoes, fiis, tesouros, stocks, criptos, investidores, movimentacoes);
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("Arquivos gerados em " + dir.toAbsolutePath() + " (" + ms + " ms)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Parâmetro inválido: " + e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.out.println("Erro ao gravar os arquivos: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
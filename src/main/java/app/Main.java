@@ -3,9 +3,16 @@ package app;
 import io.Menu;
 import data.InvestidorManager;
 import data.AtivoManager;
+import data.ModoCarga;
+import data.FotografiaBinaria;
+import data.DiarioMovimentacoes;
+import data.RecarregadorCatalogo;
 import utils.InputUtils;
 import utils.InfoUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class Main {
@@ -16,14 +23,80 @@ public class Main {
         InputUtils inputUtils = new InputUtils(sc);
         InfoUtils infoUtils = new InfoUtils(sc);
 
-        // managers
-        AtivoManager ativoManager = new AtivoManager();
+        // managers: com -Dgestaocarteira.diario=diretório o estado vem do diário (fotografia + movimentações)
+        // e cada movimentação é gravada nele antes de ser confirmada; com -Dgestaocarteira.fotografia=arquivo
+        // vem da fotografia (se existir) e é gravado nela na saída; sem eles, ativos dos CSVs e nenhum investidor
+        Path fotografia = FotografiaBinaria.caminhoDoSistema();
+        Path diretorioDiario = DiarioMovimentacoes.caminhoDoSistema();
+        AtivoManager ativoManager;
         InvestidorManager investidorManager = new InvestidorManager();
+        DiarioMovimentacoes diario = null;
+        if (diretorioDiario != null) {
+            try {
+                ativoManager = DiarioMovimentacoes.temFotografia(diretorioDiario)
+                        ? new AtivoManager()
+                        : AtivoManager.sobDemanda(ModoCarga.doSistema());
+                diario = DiarioMovimentacoes.abrir(diretorioDiario, ativoManager, investidorManager);
+                System.out.println("Diário aberto: " + diario.getRecuperacao());
+            } catch (IOException | RuntimeException e) {
+                // sem diário não há como confirmar movimentações com segurança
+                System.out.println("Não foi possível abrir o diário: " + e.getMessage());
+                sc.close();
+                return;
+            }
+        } else if (fotografia != null && Files.exists(fotografia)) {
+            ativoManager = new AtivoManager();
+            try {
+                System.out.println("Fotografia carregada: " + FotografiaBinaria.carregar(fotografia, ativoManager, investidorManager));
+            } catch (IOException e) {
+                System.out.println("Não foi possível carregar a fotografia (" + e.getMessage() + "); lendo os CSVs.");
+                ativoManager = AtivoManager.sobDemanda(ModoCarga.doSistema());
+                investidorManager = new InvestidorManager();
+            }
+        } else {
+            ativoManager = AtivoManager.sobDemanda(ModoCarga.doSistema());
+        }
+
+        // -Dgestaocarteira.recarregar=true: CSVs novos no diretório atual entram sem reiniciar
+        RecarregadorCatalogo recarregador = null;
+        if (RecarregadorCatalogo.ativoNoSistema()) {
+            try {
+                recarregador = RecarregadorCatalogo.iniciar(Path.of(""), ativoManager, ModoCarga.doSistema(),
+                        r -> System.out.println("Catálogo recarregado: " + r.resumo()));
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Não foi possível vigiar os catálogos: " + e.getMessage());
+            }
+        }
 
         // cria o menu com as dependências
         Menu menu = new Menu(inputUtils, infoUtils, ativoManager, investidorManager);
         menu.exibirMenuPrincipal();
 
+        if (recarregador != null) {
+            try {
+                recarregador.close();
+            } catch (IOException e) {
+                System.out.println("Erro ao parar a recarga dos catálogos: " + e.getMessage());
+            }
+        }
+
+        if (diario != null) {
+            // reinício rápido: a próxima abertura lê a fotografia sem reaplicar movimentações
+            try (DiarioMovimentacoes d = diario) {
+                System.out.println("Diário compactado: " + d.compactar());
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Não foi possível compactar o diário: " + e.getMessage());
+            }
+        }
+
+        if (fotografia != null) {
+            try {
+                System.out.println("Fotografia gravada: " + FotografiaBinaria.salvar(fotografia, ativoManager, investidorManager));
+            } catch (IOException e) {
+                System.out.println("Não foi possível gravar a fotografia: " + e.getMessage());
+            }
+        }
+
         sc.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,396 @@
+package app;
+
+import data.AtivoManager;
+import data.ClasseAtivo;
+import data.DiarioMovimentacoes;
+import data.FotografiaBinaria;
+import data.ImportadorMovimentacoes;
+import data.InvestidorManager;
+import data.ModoCarga;
+import data.RecarregadorCatalogo;
+import data.ResultadoImportacao;
+import data.ResultadoRecarga;
+import io.RelatorioInvestidor;
+import model.ativo.Moeda;
+import model.ativo.TabelaCambio;
+import model.carteira.LivroColunar;
+import model.investidor.Investidor;
+import utils.ParserDecimal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Modo em lote (sem menu e sem prompts): executa comandos passados como argumentos ou num script.
+//
+//   java -cp target/classes app.MainLote "ativos dados" "investidores dados/investidores.csv"
+//   java -cp target/classes app.MainLote -f script.txt      (um comando por linha, # comenta; "-" = stdin)
+//
+// Comandos:
+//   ativos [diretório]                         carrega acao/fii/tesouro/stock/criptoativo.csv
+//   ativos-sob-demanda [diretório]             começa a ler os mesmos arquivos em segundo plano, em paralelo,
+//                                              e segue para o próximo comando, que espera só as classes de
+//                                              que precisa (ex.: Tesouro não espera stock/criptoativo.csv);
+//                                              as cargas aparecem no fim como "carga=ativos ..."
+//   recarregar <arquivo>                       aplica um catálogo novo (classe pelo nome: acao.csv, fii.csv...)
+//                                              sem recriar ativos: preços atualizados no lugar, tickers novos
+//                                              cadastrados e os que sumiram do arquivo listados em foraDoArquivo;
+//                                              dos tickers já cadastrados só o preço é relido
+//   vigiar <diretório> <segundos>              vigia o diretório pelo tempo dado e aplica cada catálogo
+//                                              criado ou alterado como em recarregar (uma linha por recarga)
+//   precos <arquivo>                           atualiza cotações (Ticker;Preço)
+//   cambio <moeda> <taxa>                      troca a cotação da moeda em reais (ex.: cambio USD 5.10)
+//                                              e reavalia os ativos cotados nela
+//   investidores <arquivo>                     importa investidores (layout de 12 colunas)
+//   movimentacoes <identificador> <arquivo>    aplica compras/vendas na carteira do investidor
+//   movimentacoes <arquivo>                    arquivo consolidado (Identificador;Tipo;Ticker;Quantidade;Preço),
+//                                              aplicado em paralelo por investidor
+//   relatorio <identificador> <arquivo>        grava o relatório JSON de um investidor
+//   relatorios <diretório>                     grava um relatório por investidor (<identificador>.json),
+//                                              em paralelo
+//   relatorios-ndjson <arquivo>                grava os relatórios de todos os investidores num único
+//                                              arquivo, um JSON compacto por linha
+//   salvar <arquivo>                           grava a fotografia binária (câmbio, ativos, investidores e posições)
+//   carregar <arquivo>                         carrega uma fotografia binária (antes de qualquer ativo/investidor)
+//   diario <diretório>                         recupera o estado do diário (fotografia + movimentações) e
+//                                              passa a gravar nele cada movimentação antes de confirmá-la
+//                                              (com fotografia no diretório, antes de qualquer ativo/investidor)
+//   compactar                                  grava a fotografia do diário e apaga os segmentos que ela cobre
+//   valorar                                    valor atual somado de todas as carteiras (pelo livro
+//                                              colunar com -Dgestaocarteira.livroColunar=true)
+//
+// Nenhuma linha é impressa por registro: cada comando gera uma linha "chave=valor" no stdout,
+// os primeiros erros de cada arquivo vão para o stderr e a última linha traz o status geral.
+// Códigos de saída: 0 = tudo aceito, 1 = houve linhas rejeitadas, 2 = uso/comando inválido,
+// 3 = falha ao ler/gravar arquivo ou erro inesperado (o script para no primeiro comando que falha).
+public class MainLote {
+
+    public static final int SAIDA_OK = 0;
+    public static final int SAIDA_REJEICOES = 1;
+    public static final int SAIDA_USO_INVALIDO = 2;
+    public static final int SAIDA_FALHA = 3;
+
+    private final ModoCarga modo;
+    private final AtivoManager ativoManager = new AtivoManager();
+    private final InvestidorManager investidorManager = new InvestidorManager();
+    private final ImportadorMovimentacoes importadorMovimentacoes = new ImportadorMovimentacoes(ativoManager);
+    private DiarioMovimentacoes diario;
+    private boolean houveRejeicoes;
+
+    public MainLote(ModoCarga modo) {
+        this.modo = modo;
+    }
+
+    public static void main(String[] args) {
+        List<String> comandos;
+        try {
+            comandos = lerComandos(args);
+        } catch (IOException e) {
+            System.out.println("status=falha erro=\"Não foi possível ler o script: " + e.getMessage() + "\"");
+            System.exit(SAIDA_FALHA);
+            return;
+        }
+        if (comandos.isEmpty()) {
+            System.err.println("Uso: app.MainLote \"comando args\"... | -f script.txt");
+            System.exit(SAIDA_USO_INVALIDO);
+        }
+        System.exit(new MainLote(ModoCarga.doSistema()).executar(comandos));
+    }
+
+    private static List<String> lerComandos(String[] args) throws IOException {
+        List<String> comandos = new ArrayList<>();
+        if (args.length == 2 && "-f".equals(args[0])) {
+            BufferedReader reader = "-".equals(args[1])
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8);
+            try (reader) {
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    linha = linha.trim();
+                    if (!linha.isEmpty() && !linha.startsWith("#")) comandos.add(linha);
+                }
+            }
+        } else {
+            for (String arg : args) {
+                if (!arg.isBlank()) comandos.add(arg.trim());
+            }
+        }
+        return comandos;
+    }
+
+    // Executa os comandos em ordem e devolve o código de saída
+    public int executar(List<String> comandos) {
+        long inicio = System.nanoTime();
+        int executados = 0;
+        int codigo = SAIDA_OK;
+        for (String comando : comandos) {
+            codigo = executarComando(comando);
+            executados++;
+            if (codigo != SAIDA_OK) break;
+        }
+        for (ResultadoImportacao r : ativoManager.aguardarCargas()) {
+            System.out.println("carga=ativos " + r.resumo());
+            for (String erro : r.getAmostraErros()) {
+                System.err.println("erro carga=ativos origem=" + r.getOrigem() + " " + erro);
+            }
+            for (String aviso : r.getAvisos()) {
+                System.err.println("aviso carga=ativos origem=" + r.getOrigem() + " " + aviso);
+            }
+            if (r.getRejeitadas() > 0) houveRejeicoes = true;
+            if (r.isFalhou() && codigo == SAIDA_OK) codigo = SAIDA_FALHA;
+        }
+        if (diario != null) {
+            try {
+                diario.close();
+            } catch (IOException e) {
+                System.out.println("comando=diario erro=\"" + e.getMessage() + "\"");
+                codigo = SAIDA_FALHA;
+            }
+        }
+        if (codigo == SAIDA_OK && houveRejeicoes) codigo = SAIDA_REJEICOES;
+        String status = switch (codigo) {
+            case SAIDA_OK -> "ok";
+            case SAIDA_REJEICOES -> "rejeicoes";
+            case SAIDA_USO_INVALIDO -> "uso_invalido";
+            default -> "falha";
+        };
+        System.out.println("status=" + status + " comandos=" + executados + "/" + comandos.size()
+                + " ativos=" + ativoManager.getAtivosCarregados().size()
+                + " investidores=" + investidorManager.getInvestidores().size()
+                + " ms=" + (System.nanoTime() - inicio) / 1_000_000);
+        return codigo;
+    }
+
+    private int executarComando(String comando) {
+        List<String> args = separar(comando);
+        String nome = args.get(0).toLowerCase();
+        long inicio = System.nanoTime();
+        try {
+            List<ResultadoImportacao> resultados = new ArrayList<>();
+            String extra = "";
+            switch (nome) {
+                case "ativos" -> {
+                    exigirArgumentos(args, 0, 1);
+                    resultados.addAll(ativoManager.carregarCatalogos(args.size() > 1 ? args.get(1) : "", modo, false));
+                }
+                case "ativos-sob-demanda" -> {
+                    exigirArgumentos(args, 0, 1);
+                    ativoManager.carregarSobDemanda(args.size() > 1 ? args.get(1) : "", modo, false);
+                }
+                case "recarregar" -> {
+                    exigirArgumentos(args, 1, 1);
+                    Path arquivo = Path.of(args.get(1));
+                    ClasseAtivo classe = ClasseAtivo.porArquivo(String.valueOf(arquivo.getFileName()));
+                    if (classe == null) throw new UsoInvalidoException("Arquivo não é um catálogo: " + arquivo);
+                    ResultadoRecarga recarga = ativoManager.recarregar(classe, arquivo.toString(), modo,
+                            ResultadoImportacao.silencioso(arquivo.toString()));
+                    resultados.add(recarga.leitura());
+                    extra = " " + recarga.diferenca();
+                }
+                case "vigiar" -> {
+                    exigirArgumentos(args, 2, 2);
+                    extra = vigiar(Path.of(args.get(1)), args.get(2));
+                }
+                case "precos" -> {
+                    exigirArgumentos(args, 1, 1);
+                    ResultadoImportacao r = ResultadoImportacao.silencioso(args.get(1));
+                    extra = " alterados=" + ativoManager.atualizarPrecosDeArquivo(args.get(1), r);
+                    resultados.add(r);
+                }
+                case "cambio" -> {
+                    exigirArgumentos(args, 2, 2);
+                    extra = " avisados=" + atualizarCambio(args.get(1), args.get(2));
+                }
+                case "investidores" -> {
+                    exigirArgumentos(args, 1, 1);
+                    ResultadoImportacao r = ResultadoImportacao.silencioso(args.get(1));
+                    investidorManager.carregarInvestidoresDeArquivo(args.get(1), r);
+                    resultados.add(r);
+                }
+                case "movimentacoes" -> {
+                    exigirArgumentos(args, 1, 2);
+                    if (args.size() == 2) {
+                        // arquivo consolidado, com o identificador do investidor na primeira coluna
+                        resultados.add(importadorMovimentacoes.importarConsolidado(investidorManager, args.get(1),
+                                ResultadoImportacao.silencioso(args.get(1))));
+                    } else {
+                        Investidor inv = buscarInvestidor(args.get(1));
+                        resultados.add(importadorMovimentacoes.importar(inv, args.get(2),
+                                ResultadoImportacao.silencioso(args.get(2))));
+                    }
+                }
+                case "relatorio" -> {
+                    exigirArgumentos(args, 2, 2);
+                    RelatorioInvestidor.salvar(buscarInvestidor(args.get(1)), args.get(2));
+                    extra = " arquivos=1";
+                }
+                case "relatorios" -> {
+                    exigirArgumentos(args, 1, 1);
+                    extra = " arquivos=" + RelatorioInvestidor.salvarTodos(investidorManager.getInvestidores(),
+                            Path.of(args.get(1)));
+                }
+                case "relatorios-ndjson" -> {
+                    exigirArgumentos(args, 1, 1);
+                    extra = " relatorios=" + RelatorioInvestidor.salvarNdjson(investidorManager.getInvestidores(),
+                            Path.of(args.get(1)));
+                }
+                case "salvar" -> {
+                    exigirArgumentos(args, 1, 1);
+                    extra = " " + FotografiaBinaria.salvar(Path.of(args.get(1)), ativoManager, investidorManager);
+                }
+                case "carregar" -> {
+                    exigirArgumentos(args, 1, 1);
+                    extra = " " + FotografiaBinaria.carregar(Path.of(args.get(1)), ativoManager, investidorManager);
+                }
+                case "diario" -> {
+                    exigirArgumentos(args, 1, 1);
+                    if (diario != null) throw new UsoInvalidoException("Diário já aberto.");
+                    diario = DiarioMovimentacoes.abrir(Path.of(args.get(1)), ativoManager, investidorManager);
+                    extra = " " + diario.getRecuperacao();
+                }
+                case "compactar" -> {
+                    exigirArgumentos(args, 0, 0);
+                    if (diario == null) throw new UsoInvalidoException("Nenhum diário aberto (use: diario <diretório>).");
+                    extra = " " + diario.compactar();
+                }
+                case "valorar" -> {
+                    exigirArgumentos(args, 0, 0);
+                    extra = valorar();
+                }
+                default -> throw new UsoInvalidoException("Comando desconhecido: " + nome);
+            }
+
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            if (resultados.isEmpty()) {
+                System.out.println("comando=" + nome + extra + " ms=" + ms);
+            }
+            boolean falhou = false;
+            for (ResultadoImportacao r : resultados) {
+                System.out.println("comando=" + nome + " " + r.resumo() + extra + " ms=" + ms);
+                for (String erro : r.getAmostraErros()) {
+                    System.err.println("erro comando=" + nome + " origem=" + r.getOrigem() + " " + erro);
+                }
+                for (String aviso : r.getAvisos()) {
+                    System.err.println("aviso comando=" + nome + " origem=" + r.getOrigem() + " " + aviso);
+                }
+                if (r.getRejeitadas() > 0) houveRejeicoes = true;
+                if (r.isFalhou()) falhou = true;
+            }
+            return falhou ? SAIDA_FALHA : SAIDA_OK;
+        } catch (UsoInvalidoException e) {
+            System.out.println("comando=" + nome + " erro=\"" + e.getMessage() + "\"");
+            return SAIDA_USO_INVALIDO;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("comando=" + nome + " erro=\"" + e.getMessage() + "\"");
+            return SAIDA_FALHA;
+        }
+    }
+
+    private String vigiar(Path diretorio, String segundos) throws IOException {
+        long duracao;
+        try {
+            duracao = Long.parseLong(segundos);
+        } catch (NumberFormatException e) {
+            throw new UsoInvalidoException("Segundos inválidos: " + segundos);
+        }
+        if (duracao <= 0) throw new UsoInvalidoException("Segundos devem ser > 0.");
+        int[] recargas = new int[1];
+        RecarregadorCatalogo recarregador = RecarregadorCatalogo.iniciar(diretorio, ativoManager, modo, r -> {
+            recargas[0]++;
+            System.out.println("recarga " + r.resumo());
+            for (String erro : r.leitura().getAmostraErros()) {
+                System.err.println("erro recarga origem=" + r.leitura().getOrigem() + " " + erro);
+            }
+            for (String aviso : r.leitura().getAvisos()) {
+                System.err.println("aviso recarga origem=" + r.leitura().getOrigem() + " " + aviso);
+            }
+            if (r.leitura().getRejeitadas() > 0) houveRejeicoes = true;
+        });
+        try {
+            Thread.sleep(duracao * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recarregador.close();
+        }
+        return " recargas=" + recargas[0];
+    }
+
+    private static int atualizarCambio(String moeda, String taxa) {
+        Moeda m;
+        BigDecimal valor;
+        try {
+            m = Moeda.valueOf(moeda.trim().toUpperCase());
+            valor = ParserDecimal.parse(taxa);
+        } catch (IllegalArgumentException e) {
+            throw new UsoInvalidoException("Moeda ou taxa inválida: " + moeda + " " + taxa);
+        }
+        return TabelaCambio.padrao().atualizar(Map.of(m, valor));
+    }
+
+    // com livro colunar, uma passada pelas colunas; sem ele, soma os totais de cada carteira
+    private String valorar() {
+        LivroColunar livro = investidorManager.getLivro();
+        if (livro != null) {
+            return " motor=livro carteiras=" + livro.valorarCarteiras().size() + " posicoes=" + livro.getLinhas()
+                    + " valor=" + livro.valorTotal();
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Investidor inv : investidorManager.getInvestidores()) {
+            total = total.add(inv.getCarteira().valorTotalAtual());
+        }
+        return " motor=carteiras carteiras=" + investidorManager.getInvestidores().size() + " valor=" + total;
+    }
+
+    private Investidor buscarInvestidor(String identificador) {
+        Investidor inv = investidorManager.buscarPorIdentificador(identificador);
+        if (inv == null) throw new IllegalArgumentException("Investidor não encontrado: " + identificador);
+        return inv;
+    }
+
+    private static void exigirArgumentos(List<String> args, int min, int max) {
+        int n = args.size() - 1;
+        if (n < min || n > max) {
+            throw new UsoInvalidoException("Número de argumentos inválido para " + args.get(0) + ": " + n);
+        }
+    }
+
+    // Separa por espaços, respeitando trechos entre aspas duplas (caminhos com espaço)
+    static List<String> separar(String comando) {
+        List<String> partes = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        boolean temParte = false;
+        for (int i = 0; i < comando.length(); i++) {
+            char c = comando.charAt(i);
+            if (c == '"') {
+                entreAspas = !entreAspas;
+                temParte = true;
+            } else if (Character.isWhitespace(c) && !entreAspas) {
+                if (temParte) {
+                    partes.add(atual.toString());
+                    atual.setLength(0);
+                    temParte = false;
+                }
+            } else {
+                atual.append(c);
+                temParte = true;
+            }
+        }
+        if (temParte) partes.add(atual.toString());
+        return partes;
+    }
+
+    private static class UsoInvalidoException extends IllegalArgumentException {
+        UsoInvalidoException(String mensagem) {
+            super(mensagem);
+        }
+    }
+}
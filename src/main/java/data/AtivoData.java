@@ -2,13 +2,19 @@ package data;
 
 import exception.AtivoInvalidoException;
 import model.ativo.*;
+import utils.CsvLinha;
+import utils.CsvMapeado;
 import utils.CsvReader;
+import utils.ParserDecimal;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.nio.file.Paths;
 
@@ -16,21 +22,66 @@ public class AtivoData {
 
     private static final DateTimeFormatter DT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-    private static BigDecimal parseBigDecimalSafe(String s) {
-        if (s == null) return null;
-        String t = s.trim();
-        if (t.isEmpty() || t.equals("-")) return null;
+    // Separador decimal de cada catálogo: ações e FIIs em reais com vírgula ("14,38", "1.234,56");
+    // Tesouro, Stocks e Criptos com ponto ("16561.80", "82.668"), como nos arquivos distribuídos.
+    static final char DECIMAL_VIRGULA = ',';
+    static final char DECIMAL_PONTO = '.';
+
+    // vazio ou "-" -> null; o outro separador só vale como milhar
+    static BigDecimal parseBigDecimalSafe(CharSequence s, char decimal) {
         try {
-            t = t.replace(".", "").replace(",", "."); // trata milhares e decimais "1.234,56"
-            return new BigDecimal(t);
-        } catch (Exception e) {
+            return ParserDecimal.parseOpcional(s, decimal);
+        } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Número inválido: '" + s + "'");
         }
     }
 
-    private static String safeGet(String[] cols, int idx) {
-        if (cols == null || idx < 0 || idx >= cols.length) return "";
-        return cols[idx] == null ? "" : cols[idx].trim();
+    // Lê o arquivo e mapeia cada linha; linhas mapeadas para null são descartadas e contadas
+    // como rejeitadas. Nos dois modos a lista resultante segue a ordem do arquivo.
+    static <T> List<T> carregar(String caminho, BiFunction<CsvLinha, ResultadoImportacao, T> mapeador,
+                                        ModoCarga modo, ResultadoImportacao resultado) {
+        Function<CsvLinha, T> contado = linha -> {
+            resultado.linhaLida();
+            T item = mapeador.apply(linha, resultado);
+            if (item != null) resultado.aceitar();
+            return item;
+        };
+        if (modo == ModoCarga.MAPEADO_PARALELO) {
+            return new CsvMapeado(new CsvReader()).processar(caminho, contado, resultado::falhar);
+        }
+        List<T> lista = new ArrayList<>();
+        new CsvReader().processar(caminho, linha -> {
+            T item = contado.apply(linha);
+            if (item != null) lista.add(item);
+        }, resultado::falhar);
+        return lista;
+    }
+
+    // 6ª coluna opcional de Stocks/Criptos: código da moeda (USD...), convertida pela TabelaCambio.
+    // Arquivos antigos trazem ali um fator de conversão numérico por ativo; como a cotação agora é
+    // única por moeda, o fator é ignorado (o ativo fica em USD, a moeda que ele convertia) com um aviso.
+    private static Moeda lerMoeda(String s, ResultadoImportacao r) {
+        if (s == null || s.isBlank()) return Moeda.USD;
+        if (isFatorAntigo(s)) {
+            r.avisar("Fator de conversão na 6ª coluna (formato antigo) ignorado: o ativo fica em USD "
+                    + "e o câmbio vem da tabela de câmbio");
+            return Moeda.USD;
+        }
+        try {
+            return Moeda.valueOf(s.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Moeda inválida: '" + s + "' (o câmbio vem da tabela de câmbio, não do arquivo)");
+        }
+    }
+
+    private static boolean isFatorAntigo(String s) {
+        boolean digito = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') digito = true;
+            else if (c != '.' && c != ',' && !Character.isWhitespace(c)) return false;
+        }
+        return digito;
     }
 
     private static LocalDate parseDataSafe(String s) {
@@ -40,30 +91,37 @@ public class AtivoData {
 
     // Carrega Ações
     public static List<Acao> carregarAcoes(String caminho) {
-        List<String[]> linhas = CsvReader.lerCsv(caminho);
-        if (linhas == null) return Collections.emptyList();
-
-        return linhas.stream().map(c -> {
-            try {
-                String ticker = safeGet(c, 0);
-                String nome = safeGet(c, 1);
-                BigDecimal preco = parseBigDecimalSafe(safeGet(c, 2));
-                boolean qualificado = "1".equals(safeGet(c, 3));
-
-                if (preco == null) {
-                    System.out.println("Linha ignorada (preço inválido) em Ações: " + String.join(",", c));
-                    return null;
-                }
-
-                return new Acao(nome, ticker, preco, qualificado);
-            } catch (AtivoInvalidoException e) {
-                System.out.println("Erro ao criar ação: " + e.getMessage());
-                return null;
-            } catch (Exception e) {
-                System.out.println("Erro inesperado ao criar ação: " + e.getMessage());
+        return carregarAcoes(caminho, ModoCarga.SEQUENCIAL);
+    }
+
+    public static List<Acao> carregarAcoes(String caminho, ModoCarga modo) {
+        return carregarAcoes(caminho, modo, ResultadoImportacao.console(caminho));
+    }
+
+    public static List<Acao> carregarAcoes(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return carregar(caminho, AtivoData::lerAcao, modo, resultado);
+    }
+
+    static Acao lerAcao(CsvLinha c, ResultadoImportacao r) {
+        try {
+            String ticker = c.get(0);
+            String nome = c.get(1);
+            BigDecimal preco = parseBigDecimalSafe(c.campo(2), DECIMAL_VIRGULA);
+            boolean qualificado = "1".equals(c.get(3));
+
+            if (preco == null) {
+                r.rejeitar("Linha ignorada (preço inválido) em Ações: " + c);
                 return null;
             }
-        }).filter(a -> a != null).collect(Collectors.toList());
+
+            return new Acao(nome, ticker, preco, qualificado);
+        } catch (AtivoInvalidoException e) {
+            r.rejeitar("Erro ao criar ação: " + e.getMessage());
+            return null;
+        } catch (Exception e) {
+            r.rejeitar("Erro inesperado ao criar ação: " + e.getMessage());
+            return null;
+        }
     }
 
     private static TipoRendimento parseTipoRendimento(String valor) {
@@ -84,120 +142,145 @@ public class AtivoData {
 
     // Carrega Tesouros
     public static List<Tesouro> carregarTesouros(String caminho) {
-        List<String[]> linhas = CsvReader.lerCsv(caminho);
-        if (linhas == null) return Collections.emptyList();
-
-        return linhas.stream().map(c -> {
-            try {
-                String ticker = safeGet(c, 0);
-                String nome = safeGet(c, 1);
-                BigDecimal preco = parseBigDecimalSafe(safeGet(c, 2));
-                String tipoRendStr = safeGet(c, 3);
-                String vencStr = safeGet(c, 4);
-
-                if (preco == null) {
-                    System.out.println("Linha ignorada (preço inválido) em Tesouros: " + String.join(",", c));
-                    return null;
-                }
-
-                TipoRendimento tr = parseTipoRendimento(tipoRendStr);
-                LocalDate venc = parseDataSafe(vencStr);
-                return new Tesouro(nome, ticker, preco, false, tr, venc);
-            } catch (Exception e) {
-                System.out.println("Erro ao criar Tesouro: " + e.getMessage());
+        return carregarTesouros(caminho, ModoCarga.SEQUENCIAL);
+    }
+
+    public static List<Tesouro> carregarTesouros(String caminho, ModoCarga modo) {
+        return carregarTesouros(caminho, modo, ResultadoImportacao.console(caminho));
+    }
+
+    public static List<Tesouro> carregarTesouros(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return carregar(caminho, AtivoData::lerTesouro, modo, resultado);
+    }
+
+    static Tesouro lerTesouro(CsvLinha c, ResultadoImportacao r) {
+        try {
+            String ticker = c.get(0);
+            String nome = c.get(1);
+            BigDecimal preco = parseBigDecimalSafe(c.campo(2), DECIMAL_PONTO);
+            String tipoRendStr = c.get(3);
+            String vencStr = c.get(4);
+
+            if (preco == null) {
+                r.rejeitar("Linha ignorada (preço inválido) em Tesouros: " + c);
                 return null;
             }
-        }).filter(t -> t != null).collect(Collectors.toList());
+
+            TipoRendimento tr = parseTipoRendimento(tipoRendStr);
+            LocalDate venc = parseDataSafe(vencStr);
+            return new Tesouro(nome, ticker, preco, false, tr, venc);
+        } catch (Exception e) {
+            r.rejeitar("Erro ao criar Tesouro: " + e.getMessage());
+            return null;
+        }
     }
 
     // Carrega Stocks (ações internacionais)
     public static List<Stock> carregarStocks(String caminho) {
-        List<String[]> linhas = CsvReader.lerCsv(caminho);
-        if (linhas == null) return Collections.emptyList();
-
-        return linhas.stream().map(c -> {
-            try {
-                String ticker = safeGet(c, 0);
-                String nome = safeGet(c, 1);
-                BigDecimal preco = parseBigDecimalSafe(safeGet(c, 2));
-                String bolsa = safeGet(c, 3);
-                String setor = safeGet(c, 4);
-                BigDecimal fatorConv = (c.length >= 6) ? parseBigDecimalSafe(safeGet(c, 5)) : null;
-                if (fatorConv == null) fatorConv = BigDecimal.valueOf(5);
-
-                if (preco == null) {
-                    System.out.println("Linha ignorada (preço inválido) em Stocks: " + String.join(",", c));
-                    return null;
-                }
-
-                return new Stock(nome, ticker, preco, false, bolsa, setor, fatorConv);
-            } catch (Exception e) {
-                System.out.println("Erro ao criar Stock: " + e.getMessage());
+        return carregarStocks(caminho, ModoCarga.SEQUENCIAL);
+    }
+
+    public static List<Stock> carregarStocks(String caminho, ModoCarga modo) {
+        return carregarStocks(caminho, modo, ResultadoImportacao.console(caminho));
+    }
+
+    public static List<Stock> carregarStocks(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return carregar(caminho, AtivoData::lerStock, modo, resultado);
+    }
+
+    static Stock lerStock(CsvLinha c, ResultadoImportacao r) {
+        try {
+            String ticker = c.get(0);
+            String nome = c.get(1);
+            BigDecimal preco = parseBigDecimalSafe(c.campo(2), DECIMAL_PONTO);
+            String bolsa = c.get(3);
+            String setor = c.get(4);
+            Moeda moeda = (c.tamanho() >= 6) ? lerMoeda(c.get(5), r) : Moeda.USD;
+
+            if (preco == null) {
+                r.rejeitar("Linha ignorada (preço inválido) em Stocks: " + c);
                 return null;
             }
-        }).filter(s -> s != null).collect(Collectors.toList());
+
+            return new Stock(nome, ticker, preco, false, bolsa, setor, moeda, TabelaCambio.padrao());
+        } catch (Exception e) {
+            r.rejeitar("Erro ao criar Stock: " + e.getMessage());
+            return null;
+        }
     }
 
     // Carrega Criptomoedas
     public static List<Criptomoeda> carregarCriptos(String caminho) {
-        List<String[]> linhas = CsvReader.lerCsv(caminho);
-        if (linhas == null) return Collections.emptyList();
-
-        return linhas.stream().map(c -> {
-            try {
-                String ticker = safeGet(c, 0);
-                String nome = safeGet(c, 1);
-                BigDecimal preco = parseBigDecimalSafe(safeGet(c, 2));
-                String consenso = safeGet(c, 3);
-                BigDecimal quantidadeMaxima = null;
-                if (c.length > 4 && !safeGet(c, 4).isBlank()) {
-                    quantidadeMaxima = parseBigDecimalSafe(safeGet(c, 4));
-                }
-                BigDecimal fatorConv = (c.length >= 6) ? parseBigDecimalSafe(safeGet(c, 5)) : null;
-                if (fatorConv == null) fatorConv = BigDecimal.valueOf(5);
-
-
-                if (preco == null) {
-                    System.out.println("Linha ignorada (preço inválido) em Criptos: " + String.join(",", c));
-                    return null;
-                }
-
-                return new Criptomoeda(nome, ticker, preco, false, consenso, quantidadeMaxima, fatorConv);
-            } catch (Exception e) {
-                System.out.println("Erro ao criar Criptomoeda: " + e.getMessage());
+        return carregarCriptos(caminho, ModoCarga.SEQUENCIAL);
+    }
+
+    public static List<Criptomoeda> carregarCriptos(String caminho, ModoCarga modo) {
+        return carregarCriptos(caminho, modo, ResultadoImportacao.console(caminho));
+    }
+
+    public static List<Criptomoeda> carregarCriptos(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return carregar(caminho, AtivoData::lerCripto, modo, resultado);
+    }
+
+    static Criptomoeda lerCripto(CsvLinha c, ResultadoImportacao r) {
+        try {
+            String ticker = c.get(0);
+            String nome = c.get(1);
+            BigDecimal preco = parseBigDecimalSafe(c.campo(2), DECIMAL_PONTO);
+            String consenso = c.get(3);
+            BigDecimal quantidadeMaxima = null;
+            if (!c.isVazio(4)) {
+                quantidadeMaxima = parseBigDecimalSafe(c.campo(4), DECIMAL_PONTO);
+            }
+            Moeda moeda = (c.tamanho() >= 6) ? lerMoeda(c.get(5), r) : Moeda.USD;
+
+            if (preco == null) {
+                r.rejeitar("Linha ignorada (preço inválido) em Criptos: " + c);
                 return null;
             }
-        }).filter(x -> x != null).collect(Collectors.toList());
+
+            return new Criptomoeda(nome, ticker, preco, false, consenso, quantidadeMaxima, moeda, TabelaCambio.padrao());
+        } catch (Exception e) {
+            r.rejeitar("Erro ao criar Criptomoeda: " + e.getMessage());
+            return null;
+        }
     }
 
     // Carrega FIIs
     public static List<Fii> carregarFiis(String caminho) {
-        List<String[]> linhas = CsvReader.lerCsv(caminho);
-        if (linhas == null) return Collections.emptyList();
-
-        return linhas.stream().map(c -> {
-            try {
-                String ticker = safeGet(c, 0);
-                String nome = safeGet(c, 1);
-                String setor = safeGet(c, 2);
-                BigDecimal preco = parseBigDecimalSafe(safeGet(c, 3));
-                BigDecimal ultimoDiv = parseBigDecimalSafe(safeGet(c, 4));
-                BigDecimal taxaAdm = parseBigDecimalSafe(safeGet(c, 5));
-
-                if (preco == null) {
-                    System.out.println("Linha ignorada (preço inválido) em FIIs: " + String.join(",", c));
-                    return null;
-                }
-
-                if (ultimoDiv == null) ultimoDiv = BigDecimal.ZERO;
-                if (taxaAdm == null) taxaAdm = BigDecimal.ZERO;
-
-                return new Fii(nome, ticker, preco, false, setor, ultimoDiv, taxaAdm);
-            } catch (Exception e) {
-                System.out.println("Erro ao criar FII: " + e.getMessage());
+        return carregarFiis(caminho, ModoCarga.SEQUENCIAL);
+    }
+
+    public static List<Fii> carregarFiis(String caminho, ModoCarga modo) {
+        return carregarFiis(caminho, modo, ResultadoImportacao.console(caminho));
+    }
+
+    public static List<Fii> carregarFiis(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return carregar(caminho, AtivoData::lerFii, modo, resultado);
+    }
+
+    static Fii lerFii(CsvLinha c, ResultadoImportacao r) {
+        try {
+            String ticker = c.get(0);
+            String nome = c.get(1);
+            String setor = c.get(2);
+            BigDecimal preco = parseBigDecimalSafe(c.campo(3), DECIMAL_VIRGULA);
+            BigDecimal ultimoDiv = parseBigDecimalSafe(c.campo(4), DECIMAL_VIRGULA);
+            BigDecimal taxaAdm = parseBigDecimalSafe(c.campo(5), DECIMAL_VIRGULA);
+
+            if (preco == null) {
+                r.rejeitar("Linha ignorada (preço inválido) em FIIs: " + c);
                 return null;
             }
-        }).filter(f -> f != null).collect(Collectors.toList());
+
+            if (ultimoDiv == null) ultimoDiv = BigDecimal.ZERO;
+            if (taxaAdm == null) taxaAdm = BigDecimal.ZERO;
+
+            return new Fii(nome, ticker, preco, false, setor, ultimoDiv, taxaAdm);
+        } catch (Exception e) {
+            r.rejeitar("Erro ao criar FII: " + e.getMessage());
+            return null;
+        }
     }
 
     public static List<Ativo> carregarPorArquivoGenerico(String caminho) {
@@ -1,53 +1,474 @@
 package data;
 
 import model.ativo.Ativo;
+import model.ativo.PrecoListener;
+import utils.CsvLinha;
+import utils.CsvReader;
+import utils.ParserDecimal;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
 
-public class AtivoManager {
+// O manager se registra como ouvinte de cada ativo do catálogo e repassa as mudanças de preço
+// para quem assinou o catálogo inteiro (ouvintesPrecos). As carteiras assinam só os ativos que possuem.
+//
+// Muitos leitores, poucos escritores: lista e índice formam uma fotografia imutável (Catalogo)
+// publicada num campo volatile. Leituras (busca, listagem, valorização) não usam lock e nunca veem
+// lista e índice fora de sincronia; cadastros e exclusões são serializados e publicam uma cópia nova.
+// Alterações de preço não mexem no catálogo (cada Ativo publica o próprio preço).
+//
+// Com carregarSobDemanda, as cinco classes de ativo (ClasseAtivo) começam a ser lidas em segundo
+// plano, cada uma numa thread própria (em paralelo), e o manager já pode ser usado. Quem precisa de
+// uma classe espera só por ela e pelas anteriores: as classes entram no catálogo na ordem das
+// constantes, antes dos ativos cadastrados à mão, então lista e dono de cada ticker ficam iguais
+// aos da carga completa, qualquer que seja a classe que termine primeiro.
+public class AtivoManager implements PrecoListener {
 
-    private final List<Ativo> ativos = new ArrayList<>();
+    private volatile Catalogo catalogo = Catalogo.VAZIO;
+    private final List<PrecoListener> ouvintesPrecos = new CopyOnWriteArrayList<>();
+    // cargas sob demanda registradas, na ordem das classes (trocado inteiro, nunca alterado)
+    private volatile Map<ClasseAtivo, CargaSobDemanda> cargas = Map.of();
+    // quantas classes sob demanda já entraram no catálogo (sempre as primeiras); guardado por this
+    private int publicadas;
+    // alguma classe sob demanda ainda fora do catálogo (a busca só olha as cargas nesse caso)
+    private volatile boolean pendentes;
+    // uma recarga por vez (a lista de removidos compara com o catálogo anterior à recarga)
+    private final Object lockRecarga = new Object();
+    // diário que recebe os ativos cadastrados (null = sem diário)
+    private volatile DiarioMovimentacoes diario;
 
+    // Catálogo vazio, sem ler os CSVs (ex.: modo em lote, que carrega sob comando). O construtor não
+    // publica o manager para ninguém: quem cadastra ativos ou inicia cargas (que o registram como
+    // ouvinte e o usam de outras threads) são as fábricas abaixo, com o objeto já construído.
     public AtivoManager() {
-        // Carrega todos os ativos dos CSVs
-        ativos.addAll(AtivoData.carregarAcoes("acao.csv"));
-        ativos.addAll(AtivoData.carregarFiis("fii.csv"));
-        ativos.addAll(AtivoData.carregarTesouros("tesouro.csv"));
-        ativos.addAll(AtivoData.carregarStocks("stock.csv"));
-        ativos.addAll(AtivoData.carregarCriptos("criptoativo.csv"));
     }
 
+    // CSVs do diretório atual, lidos em segundo plano (ver carregarSobDemanda)
+    public static AtivoManager sobDemanda(ModoCarga modo) {
+        AtivoManager manager = new AtivoManager();
+        manager.carregarSobDemanda("", modo, true);
+        return manager;
+    }
+
+    // Catálogo já montado, sem ler os CSVs
+    public static AtivoManager com(List<? extends Ativo> iniciais) {
+        AtivoManager manager = new AtivoManager();
+        manager.cadastrarEmLote(iniciais);
+        return manager;
+    }
+
+    // Carrega os cinco catálogos de um diretório ("" = diretório atual), sempre na mesma ordem.
+    // Retorna o resultado de cada arquivo; com ecoarErros=false nada é impresso por linha.
+    public List<ResultadoImportacao> carregarCatalogos(String diretorio, ModoCarga modo, boolean ecoarErros) {
+        Path dir = Path.of(diretorio);
+        List<ResultadoImportacao> resultados = new ArrayList<>();
+        for (ClasseAtivo classe : ClasseAtivo.values()) {
+            ResultadoImportacao r = new ResultadoImportacao(dir.resolve(classe.getArquivo()).toString(), ecoarErros);
+            resultados.add(r);
+            cadastrarEmLote(classe.carregar(r.getOrigem(), modo, r));
+        }
+        return resultados;
+    }
+
+    // Começa a ler os cinco catálogos de um diretório em segundo plano e volta na hora; cada leitura
+    // entra no catálogo quando ela e as das classes anteriores terminam (ver comentário da classe).
+    // Um diretório por manager.
+    public synchronized void carregarSobDemanda(String diretorio, ModoCarga modo, boolean ecoarErros) {
+        if (!cargas.isEmpty()) throw new IllegalStateException("Catálogos sob demanda já registrados.");
+        Path dir = Path.of(diretorio);
+        Map<ClasseAtivo, CargaSobDemanda> novas = new EnumMap<>(ClasseAtivo.class);
+        for (ClasseAtivo classe : ClasseAtivo.values()) {
+            novas.put(classe, new CargaSobDemanda(classe, dir.resolve(classe.getArquivo()), modo, ecoarErros));
+        }
+        cargas = Collections.unmodifiableMap(novas);
+        pendentes = true;
+        for (CargaSobDemanda carga : novas.values()) carga.iniciar();
+    }
+
+    // Espera todas as cargas sob demanda e devolve o resultado de cada uma, na ordem das classes
+    public List<ResultadoImportacao> aguardarCargas() {
+        carregarPendentes(carga -> true);
+        List<ResultadoImportacao> resultados = new ArrayList<>();
+        for (CargaSobDemanda carga : cargas.values()) resultados.add(carga.resultado);
+        return resultados;
+    }
+
+    // Espera as classes escolhidas (e as anteriores a elas, que entram antes no catálogo). A espera
+    // é pela leitura, sem lock; quem publica é quem chegar primeiro a publicarLidas.
+    private void carregarPendentes(Predicate<CargaSobDemanda> precisa) {
+        CargaSobDemanda ultima = null;
+        for (CargaSobDemanda carga : cargas.values()) {
+            if (precisa.test(carga)) ultima = carga;
+        }
+        if (ultima == null || ultima.publicada) return;
+        for (CargaSobDemanda carga : cargas.values()) {
+            carga.lidos.join();
+            if (carga == ultima) break;
+        }
+        publicarLidas();
+    }
+
+    // Publica, na ordem das classes, as leituras já terminadas que não esperam por uma anterior.
+    // A classe entra depois das já publicadas e antes dos ativos cadastrados à mão; o índice é
+    // refeito para o dono de cada ticker continuar sendo o primeiro da lista.
+    private synchronized void publicarLidas() {
+        List<CargaSobDemanda> ordem = new ArrayList<>(cargas.values());
+        while (publicadas < ordem.size() && ordem.get(publicadas).lidos.isDone()) {
+            CargaSobDemanda carga = ordem.get(publicadas);
+            List<? extends Ativo> novos = carga.lidos.join();
+            Catalogo atual = catalogo;
+            List<Ativo> lista = new ArrayList<>(atual.ativos.size() + novos.size());
+            lista.addAll(atual.ativos.subList(0, atual.carregados));
+            lista.addAll(novos);
+            lista.addAll(atual.ativos.subList(atual.carregados, atual.ativos.size()));
+            Map<String, Ativo> indice = new HashMap<>(Math.max(16, lista.size() * 4 / 3 + 1));
+            for (Ativo ativo : lista) indice.putIfAbsent(ativo.getChaveTicker(), ativo);
+            for (Ativo ativo : novos) ativo.adicionarOuvinte(this);
+            catalogo = new Catalogo(lista, indice, atual.carregados + novos.size());
+            carga.publicada = true;
+            publicadas++;
+        }
+        if (publicadas == ordem.size()) pendentes = false;
+    }
+
+    private static String chave(String ticker) {
+        return ticker == null ? "" : ticker.trim().toUpperCase();
+    }
+
+    // fotografia imutável do catálogo: índices continuam válidos mesmo que outra thread exclua ativos.
+    // Carrega antes as classes sob demanda que faltam.
     public List<Ativo> getAtivos() {
-        return ativos;
+        carregarPendentes(carga -> true);
+        return catalogo.ativos;
+    }
+
+    // o que já está no catálogo, sem disparar cargas (ex.: contagem no resumo do modo em lote)
+    public List<Ativo> getAtivosCarregados() {
+        return catalogo.ativos;
+    }
+
+    // Busca case-insensitive pelo ticker; retorna null se não existir. Com cargas sob demanda, espera
+    // as classes até a do ativo encontrado (uma classe anterior ainda pendente ficaria com o ticker,
+    // como na carga completa); um ticker que não está em lugar nenhum espera todas.
+    public Ativo buscarPorTicker(String ticker) {
+        if (ticker == null || ticker.isBlank()) return null;
+        String chave = chave(ticker);
+        boolean esperar = pendentes; // lido antes do catálogo: false garante o catálogo já completo
+        Ativo ativo = catalogo.indice.get(chave);
+        if (!esperar) return ativo;
+        int ordem = ativo == null ? Integer.MAX_VALUE : ordemDaClasse(ativo);
+        for (CargaSobDemanda carga : cargas.values()) {
+            if (carga.classe.ordinal() > ordem) break;
+            if (!carga.publicada) {
+                carregarPendentes(c -> c == carga);
+                ativo = catalogo.indice.get(chave);
+                ordem = ativo == null ? Integer.MAX_VALUE : ordemDaClasse(ativo);
+            }
+        }
+        return ativo;
+    }
+
+    // posição da classe do ativo em ClasseAtivo (tipos fora dos catálogos vêm depois de todas)
+    private static int ordemDaClasse(Ativo ativo) {
+        for (ClasseAtivo classe : ClasseAtivo.values()) {
+            if (classe.getTipo().isInstance(ativo)) return classe.ordinal();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // Passa a registrar no diário os ativos cadastrados daqui em diante (DiarioMovimentacoes.abrir
+    // anexa depois de recuperar). As cargas dos CSVs em segundo plano não vão para o diário.
+    public synchronized void anexarDiario(DiarioMovimentacoes diario) {
+        if (diario == null) throw new IllegalArgumentException("Diário não pode ser nulo.");
+        this.diario = diario;
     }
 
     public void cadastrarAtivo(Ativo ativo) {
-        ativos.add(ativo);
+        cadastrarEmLote(List.of(ativo));
     }
 
-    public void cadastrarEmLote(List<Ativo> novos) {
-        ativos.addAll(novos);
+    // Uma única cópia do catálogo por lote (cadastrar item a item copiaria a lista a cada ativo).
+    // Com diário, cada ativo é registrado antes de entrar no catálogo, sob a mesma trava das
+    // posições: a compactação não troca de segmento entre o registro e a publicação.
+    public synchronized void cadastrarEmLote(List<? extends Ativo> novos) {
+        if (novos.isEmpty()) return;
+        DiarioMovimentacoes d = diario;
+        long registro = 0;
+        Lock alteracoes = d == null ? null : d.alteracoes();
+        if (alteracoes != null) alteracoes.lock();
+        try {
+            if (d != null) {
+                for (Ativo ativo : novos) registro = d.registrarAtivo(ativo);
+            }
+            Catalogo atual = catalogo;
+            List<Ativo> lista = new ArrayList<>(atual.ativos.size() + novos.size());
+            lista.addAll(atual.ativos);
+            Map<String, Ativo> indice = new HashMap<>(atual.indice);
+            for (Ativo ativo : novos) {
+                lista.add(ativo);
+                ativo.adicionarOuvinte(this);
+                // mantém o primeiro ativo cadastrado para o ticker (mesma regra da busca linear)
+                indice.putIfAbsent(ativo.getChaveTicker(), ativo);
+            }
+            catalogo = new Catalogo(lista, indice, atual.carregados);
+        } finally {
+            if (alteracoes != null) alteracoes.unlock();
+        }
+        if (registro != 0) d.aguardar(registro);
     }
 
-    public void editarAtivo(int indice, BigDecimal novoPreco) {
-        Ativo ativo = ativos.get(indice);
+    public void editarAtivo(String ticker, BigDecimal novoPreco) {
+        Ativo ativo = buscarPorTicker(ticker);
+        if (ativo == null) throw new IllegalArgumentException("Ativo não encontrado: " + ticker);
         ativo.atualizarPreco(novoPreco);
     }
 
-    public void excluirAtivo(int indice) {
-        ativos.remove(indice);
+    // Relê o CSV de uma classe e aplica só a diferença, sem trocar instâncias (carteiras, livro e
+    // diário continuam apontando para os mesmos Ativo): ticker já cadastrado tem o preço atualizado
+    // no lugar (só as carteiras detentoras são avisadas), ticker novo é cadastrado e ticker da classe
+    // que sumiu do arquivo fica no catálogo, sinalizado em removidos (pode haver posições nele).
+    // Se o arquivo não puder ser lido, nada muda.
+    //
+    // Dos tickers já cadastrados só a coluna do preço é interpretada (nenhum Ativo é criado para
+    // eles): nome, setor, moeda e os demais campos ficam como estão, mesmo que o arquivo traga outro
+    // valor. Mudá-los exigiria um ativo novo, e as carteiras continuariam com o antigo.
+    public ResultadoRecarga recarregar(ClasseAtivo classe, String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        synchronized (lockRecarga) {
+            // cargas sob demanda pendentes entram antes: um ticker de qualquer classe ainda não lida
+            // seria tomado por novo (ou por conflito que não apareceu)
+            carregarPendentes(carga -> true);
+            Catalogo atual = catalogo;
+            List<LinhaRecarga> lidas = AtivoData.carregar(caminho,
+                    (linha, r) -> lerRecarga(classe, atual, linha, r), modo, resultado);
+            if (resultado.isFalhou()) return new ResultadoRecarga(classe, resultado, 0, 0, 0, 0, List.of());
+
+            Set<String> noArquivo = new HashSet<>(Math.max(16, lidas.size() * 4 / 3 + 1));
+            List<Ativo> novos = new ArrayList<>();
+            int alterados = 0;
+            int inalterados = 0;
+            int conflitos = 0;
+            for (LinhaRecarga lida : lidas) {
+                if (!noArquivo.add(lida.chave())) continue; // repetido no arquivo: vale o primeiro, como na carga
+                if (lida.novo() != null) {
+                    novos.add(lida.novo());
+                } else if (lida.preco() == null) {
+                    conflitos++;
+                } else if (lida.existente().atualizarPreco(lida.preco())) {
+                    alterados++;
+                } else {
+                    inalterados++;
+                }
+            }
+            cadastrarEmLote(novos);
+
+            List<String> removidos = new ArrayList<>();
+            for (Ativo ativo : atual.ativos) {
+                if (classe.getTipo().isInstance(ativo) && !noArquivo.contains(ativo.getChaveTicker())) {
+                    removidos.add(ativo.getTicker());
+                }
+            }
+            return new ResultadoRecarga(classe, resultado, alterados, inalterados, novos.size(), conflitos, removidos);
+        }
+    }
+
+    // Uma linha da recarga: ticker já cadastrado na classe -> só o preço; de outra classe -> conflito
+    // (sem preço); fora do catálogo -> o ativo completo. null = linha rejeitada.
+    private static LinhaRecarga lerRecarga(ClasseAtivo classe, Catalogo atual, CsvLinha linha, ResultadoImportacao r) {
+        String chave = chave(linha.get(0));
+        Ativo existente = atual.indice.get(chave);
+        if (existente == null) {
+            Ativo novo = classe.ler(linha, r);
+            return novo == null ? null : new LinhaRecarga(novo.getChaveTicker(), null, null, novo);
+        }
+        if (!classe.getTipo().isInstance(existente)) return new LinhaRecarga(chave, existente, null, null);
+        try {
+            BigDecimal preco = classe.lerPreco(linha);
+            if (preco != null) return new LinhaRecarga(chave, existente, preco, null);
+            r.rejeitar("Linha " + linha.getNumero() + " ignorada: preço vazio para " + existente.getTicker());
+        } catch (IllegalArgumentException e) {
+            r.rejeitar("Linha " + linha.getNumero() + " ignorada: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private record LinhaRecarga(String chave, Ativo existente, BigDecimal preco, Ativo novo) {
+    }
+
+    // Atualização de preços em lote (ticker -> novo preço). Cada mudança é publicada pelo próprio
+    // ativo, então só as carteiras que o possuem são reavaliadas. Retorna quantos preços mudaram;
+    // tickers fora do catálogo são ignorados.
+    public int atualizarPrecos(Map<String, BigDecimal> precosPorTicker) {
+        return atualizarPrecos(precosPorTicker, null);
+    }
+
+    // Mesma atualização; os tickers não encontrados vão para naoEncontrados (se não for null), para
+    // quem chamou informar uma vez só, fora do laço
+    public int atualizarPrecos(Map<String, BigDecimal> precosPorTicker, Collection<String> naoEncontrados) {
+        int alterados = 0;
+        for (Map.Entry<String, BigDecimal> e : precosPorTicker.entrySet()) {
+            Ativo ativo = buscarPorTicker(e.getKey());
+            if (ativo == null) {
+                if (naoEncontrados != null) naoEncontrados.add(e.getKey());
+                continue;
+            }
+            if (ativo.atualizarPreco(e.getValue())) alterados++;
+        }
+        return alterados;
+    }
+
+    // Recarga de cotações a partir de CSV "Ticker;Preço" (com cabeçalho), em streaming
+    public int atualizarPrecosDeArquivo(String caminho) {
+        return atualizarPrecosDeArquivo(caminho, ResultadoImportacao.console(caminho));
+    }
+
+    // Retorna quantos preços mudaram; linhas válidas contam como aceitas mesmo sem mudança de preço
+    public int atualizarPrecosDeArquivo(String caminho, ResultadoImportacao resultado) {
+        int[] alterados = new int[1];
+        new CsvReader().processar(caminho, linha -> {
+            resultado.linhaLida();
+            try {
+                Ativo ativo = buscarPorTicker(linha.get(0));
+                if (ativo == null) {
+                    resultado.rejeitar("Linha " + linha.getNumero() + " ignorada: ativo não encontrado: " + linha.get(0));
+                    return;
+                }
+                if (ativo.atualizarPreco(ParserDecimal.parse(linha.campo(1)))) alterados[0]++;
+                resultado.aceitar();
+            } catch (IllegalArgumentException e) {
+                resultado.rejeitar("Linha " + linha.getNumero() + " ignorada: " + e.getMessage());
+            }
+        }, resultado::falhar);
+        return alterados[0];
+    }
+
+    // Assinatura das mudanças de preço de todo o catálogo
+    public void adicionarOuvintePrecos(PrecoListener ouvinte) {
+        if (ouvinte == null) throw new IllegalArgumentException("Ouvinte não pode ser nulo.");
+        ouvintesPrecos.add(ouvinte);
+    }
+
+    public void removerOuvintePrecos(PrecoListener ouvinte) {
+        ouvintesPrecos.remove(ouvinte);
+    }
+
+    @Override
+    public void precoAlterado(Ativo ativo, BigDecimal precoAnterior, BigDecimal precoNovo) {
+        for (PrecoListener ouvinte : ouvintesPrecos) {
+            ouvinte.precoAlterado(ativo, precoAnterior, precoNovo);
+        }
+    }
+
+    // Exclui o ativo indexado pelo ticker; se houver outro com o mesmo ticker, ele passa a ser o indexado.
+    // A busca pode esperar uma leitura sob demanda sem risco: a leitura não usa o lock, e a
+    // publicação (sob o mesmo lock) é feita por esta própria thread.
+    public synchronized boolean excluirAtivo(String ticker) {
+        Ativo ativo = buscarPorTicker(ticker);
+        if (ativo == null) return false;
+        return excluirAtivo(ativo);
+    }
+
+    public synchronized boolean excluirAtivo(Ativo removido) {
+        Catalogo atual = catalogo;
+        List<Ativo> lista = new ArrayList<>(atual.ativos.size());
+        int posicao = -1;
+        for (int i = 0; i < atual.ativos.size(); i++) {
+            Ativo a = atual.ativos.get(i);
+            if (posicao < 0 && a == removido) {
+                posicao = i;
+            } else {
+                lista.add(a);
+            }
+        }
+        if (posicao < 0) return false;
+
+        Map<String, Ativo> indice = new HashMap<>(atual.indice);
+        String chave = removido.getChaveTicker();
+        if (indice.get(chave) == removido) {
+            indice.remove(chave);
+            for (Ativo a : lista) {
+                if (a.getChaveTicker().equals(chave)) {
+                    indice.put(chave, a);
+                    break;
+                }
+            }
+        }
+        catalogo = new Catalogo(lista, indice, posicao < atual.carregados ? atual.carregados - 1 : atual.carregados);
+        removido.removerOuvinte(this);
+        return true;
     }
 
     // Relatórios
     public void listarTodos() {
-        ativos.forEach(System.out::println);
+        getAtivos().forEach(System.out::println);
     }
 
     public void listarPorTipo(Class<? extends Ativo> tipo) {
-        ativos.stream()
+        carregarPendentes(carga -> carga.classe.atende(tipo));
+        catalogo.ativos.stream()
                 .filter(tipo::isInstance)
                 .forEach(System.out::println);
     }
-}
\ No newline at end of file
+
+    // Leitura de uma classe em segundo plano; o resultado fica em lidos até publicarLidas colocá-lo
+    // no catálogo (em ordem)
+    private final class CargaSobDemanda {
+        final ClasseAtivo classe;
+        final Path arquivo;
+        final ModoCarga modo;
+        final ResultadoImportacao resultado;
+        final CompletableFuture<List<? extends Ativo>> lidos = new CompletableFuture<>();
+        volatile boolean publicada; // escrito sob o lock do manager
+
+        CargaSobDemanda(ClasseAtivo classe, Path arquivo, ModoCarga modo, boolean ecoarErros) {
+            this.classe = classe;
+            this.arquivo = arquivo;
+            this.modo = modo;
+            this.resultado = new ResultadoImportacao(arquivo.toString(), ecoarErros);
+        }
+
+        // Thread de plataforma: publicarLidas espera o monitor do manager, e uma virtual thread
+        // bloqueada num synchronized prende a thread carregadora (com poucos núcleos, as outras
+        // leituras nem rodariam). Daemon: uma leitura que ninguém esperou não segura a saída.
+        void iniciar() {
+            Thread.ofPlatform().daemon().name("catalogo-" + classe.name().toLowerCase()).start(() -> {
+                List<? extends Ativo> lista = List.of();
+                try {
+                    lista = classe.carregar(arquivo.toString(), modo, resultado);
+                } catch (RuntimeException e) {
+                    resultado.falhar("Erro ao carregar " + arquivo + ": " + e.getMessage());
+                } finally {
+                    lidos.complete(lista);
+                }
+                publicarLidas();
+            });
+        }
+    }
+
+    // Lista e índice publicados juntos; nunca alterados depois de criados
+    private static final class Catalogo {
+        static final Catalogo VAZIO = new Catalogo(new ArrayList<>(), new HashMap<>(), 0);
+
+        final List<Ativo> ativos;
+        final Map<String, Ativo> indice;
+        final int carregados; // os primeiros da lista vieram das classes sob demanda já publicadas
+
+        Catalogo(List<Ativo> ativos, Map<String, Ativo> indice, int carregados) {
+            this.ativos = Collections.unmodifiableList(ativos);
+            this.indice = indice;
+            this.carregados = carregados;
+        }
+    }
+}
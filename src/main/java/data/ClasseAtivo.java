@@ -0,0 +1,76 @@
+package data;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Criptomoeda;
+import model.ativo.Fii;
+import model.ativo.Stock;
+import model.ativo.Tesouro;
+import utils.CsvLinha;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// As cinco classes de ativo com catálogo em CSV: nome do arquivo, tipo, leitor de linha do AtivoData
+// e coluna/separador decimal do preço (a recarga lê só o preço dos tickers já cadastrados).
+// A ordem das constantes é a ordem da carga completa (AtivoManager.carregarCatalogos).
+public enum ClasseAtivo {
+    ACAO("acao.csv", Acao.class, AtivoData::lerAcao, 2, AtivoData.DECIMAL_VIRGULA),
+    FII("fii.csv", Fii.class, AtivoData::lerFii, 3, AtivoData.DECIMAL_VIRGULA),
+    TESOURO("tesouro.csv", Tesouro.class, AtivoData::lerTesouro, 2, AtivoData.DECIMAL_PONTO),
+    STOCK("stock.csv", Stock.class, AtivoData::lerStock, 2, AtivoData.DECIMAL_PONTO),
+    CRIPTO("criptoativo.csv", Criptomoeda.class, AtivoData::lerCripto, 2, AtivoData.DECIMAL_PONTO);
+
+    private final String arquivo;
+    private final Class<? extends Ativo> tipo;
+    private final Leitor leitor;
+    private final int colunaPreco;
+    private final char decimal;
+
+    ClasseAtivo(String arquivo, Class<? extends Ativo> tipo, Leitor leitor, int colunaPreco, char decimal) {
+        this.arquivo = arquivo;
+        this.tipo = tipo;
+        this.leitor = leitor;
+        this.colunaPreco = colunaPreco;
+        this.decimal = decimal;
+    }
+
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    public Class<? extends Ativo> getTipo() {
+        return tipo;
+    }
+
+    // classe do arquivo pelo nome (ex.: "fii.csv"), ou null se não for um catálogo
+    public static ClasseAtivo porArquivo(String nome) {
+        for (ClasseAtivo classe : values()) {
+            if (classe.arquivo.equalsIgnoreCase(nome)) return classe;
+        }
+        return null;
+    }
+
+    // a classe tem ativos que interessam a quem lista por "tipo" (ex.: Ativo.class = todas)
+    public boolean atende(Class<? extends Ativo> tipo) {
+        return tipo.isAssignableFrom(this.tipo) || this.tipo.isAssignableFrom(tipo);
+    }
+
+    List<? extends Ativo> carregar(String caminho, ModoCarga modo, ResultadoImportacao resultado) {
+        return AtivoData.carregar(caminho, leitor::ler, modo, resultado);
+    }
+
+    // o ativo completo da linha, ou null (linha rejeitada no resultado)
+    Ativo ler(CsvLinha linha, ResultadoImportacao resultado) {
+        return leitor.ler(linha, resultado);
+    }
+
+    // só o preço da linha, sem criar o ativo; null se vazio, IllegalArgumentException se inválido
+    BigDecimal lerPreco(CsvLinha linha) {
+        return AtivoData.parseBigDecimalSafe(linha.campo(colunaPreco), decimal);
+    }
+
+    private interface Leitor {
+        Ativo ler(CsvLinha linha, ResultadoImportacao resultado);
+    }
+}
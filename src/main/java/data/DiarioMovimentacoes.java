@@ -0,0 +1,609 @@
+package data;
+
+import model.ativo.Ativo;
+import model.carteira.Carteira;
+import model.carteira.DiarioPosicoes;
+import model.carteira.FotografiaCarteira;
+import model.investidor.Investidor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Diário (write-ahead log) das movimentações: cada mudança de quantidade/custo de uma posição, cada
+// cadastro e cada remoção de investidor e cada ativo cadastrado vira um registro anexado ao segmento
+// atual antes de a operação ser confirmada ao chamador. Junto com a fotografia binária mais recente, reconstrói o estado depois
+// de uma queda sem perder operação confirmada.
+//
+// Commit em grupo: quem movimenta só enfileira o registro num buffer (sob lock, sem E/S) e espera;
+// uma thread gravadora troca o buffer cheio por um vazio, grava tudo de uma vez e faz um único force
+// para o lote inteiro. Com muitas threads movimentando, dezenas de operações dividem o mesmo fsync.
+//
+// Arquivos no diretório:
+//   diario-<n>.log      segmento: mágico "GCDM", versão (short), número (long), depois os registros
+//   fotografia-<n>.gcft fotografia com tudo o que estava nos segmentos anteriores a n
+// Registro: tamanho (int), CRC32 do conteúdo (int), conteúdo (tipo + campos, como na fotografia).
+// Na abertura, carrega a fotografia mais nova e reaplica os segmentos >= n em ordem; um registro
+// incompleto ou com CRC errado no fim do último segmento é a gravação interrompida pela queda (nunca
+// confirmada) e é cortado. No meio do diário, é corrupção e a abertura falha.
+//
+// A compactação troca de segmento, grava a fotografia nova e apaga fotografias e segmentos antigos;
+// roda sozinha quando o segmento passa de -Dgestaocarteira.diario.limiteBytes (padrão 64 MiB).
+// Os preços não são registrados: depois de reabrir valem os da última fotografia (ou dos CSVs).
+public class DiarioMovimentacoes implements DiarioPosicoes, AutoCloseable {
+
+    public static final int MAGICO = 0x4743444D; // "GCDM"
+    public static final short VERSAO = 1;
+
+    private static final byte POSICAO = 1;
+    private static final byte INVESTIDOR = 2;
+    private static final byte INVESTIDOR_REMOVIDO = 3;
+    private static final byte ATIVO = 4;
+
+    private static final int TAMANHO_CABECALHO = Integer.BYTES + Short.BYTES + Long.BYTES;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 64 << 20;
+    private static final int TAMANHO_BUFFER = 256 * 1024;
+
+    private final Path diretorio;
+    private final AtivoManager ativos;
+    private final InvestidorManager investidores;
+    private final long limiteSegmento;
+    private final String recuperacao;
+
+    // lock dos registros pendentes: pendente, ultimoRegistro, registroGravado, falha, fechado
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition haPendentes = lock.newCondition();
+    private final Condition gravou = lock.newCondition();
+    private ByteBuffer pendente = ByteBuffer.allocate(TAMANHO_BUFFER);
+    private ByteBuffer livre = ByteBuffer.allocate(TAMANHO_BUFFER);
+    private long ultimoRegistro;
+    private long registroGravado;
+    private IOException falha;
+    private boolean fechado;
+
+    // Segmento atual. Quem grava segura este lock desde a troca do buffer até o force, e a troca de
+    // segmento também: um lote nunca é dividido entre segmentos nem gravado fora de ordem.
+    private final Object lockSegmento = new Object();
+    private FileChannel segmento;
+    private long numeroSegmento;
+    private volatile long bytesSegmento;
+
+    // As carteiras seguram o lado compartilhado do registrar até publicar a posição nova; a troca de
+    // segmento da compactação pega o exclusivo, então tudo o que ficou no segmento antigo já está
+    // visível para a fotografia
+    private final ReentrantReadWriteLock alteracoes = new ReentrantReadWriteLock();
+
+    private final Object lockCompactacao = new Object();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    private final Thread gravadora;
+
+    // registro mais alto de quem está em emLote (a espera fica para o fim do lote)
+    private final ThreadLocal<long[]> lote = new ThreadLocal<>();
+
+    private DiarioMovimentacoes(Path diretorio, AtivoManager ativos, InvestidorManager investidores,
+                                long numeroSegmento, long limiteSegmento, String recuperacao) throws IOException {
+        this.diretorio = diretorio;
+        this.ativos = ativos;
+        this.investidores = investidores;
+        this.limiteSegmento = limiteSegmento;
+        this.recuperacao = recuperacao;
+        this.numeroSegmento = numeroSegmento;
+        this.segmento = criarSegmento(numeroSegmento);
+        this.bytesSegmento = TAMANHO_CABECALHO;
+        this.gravadora = Thread.ofPlatform().name("diario-gravador").daemon().start(this::gravarLotes);
+    }
+
+    // diretório do diário em -Dgestaocarteira.diario (null = sem diário)
+    public static Path caminhoDoSistema() {
+        String caminho = System.getProperty("gestaocarteira.diario");
+        return caminho == null || caminho.isBlank() ? null : Path.of(caminho);
+    }
+
+    // com fotografia, o catálogo vem dela: quem abre o diário começa com managers vazios
+    public static boolean temFotografia(Path diretorio) throws IOException {
+        return Files.isDirectory(diretorio) && !numerados(diretorio, "fotografia-", ".gcft").isEmpty();
+    }
+
+    public static DiarioMovimentacoes abrir(Path diretorio, AtivoManager ativos, InvestidorManager investidores) throws IOException {
+        return abrir(diretorio, ativos, investidores, Long.getLong("gestaocarteira.diario.limiteBytes", 64L << 20));
+    }
+
+    // Recupera o estado (fotografia + segmentos), abre um segmento novo e liga o diário às carteiras.
+    // Com fotografia no diretório os managers precisam estar vazios, como em FotografiaBinaria.carregar.
+    public static DiarioMovimentacoes abrir(Path diretorio, AtivoManager ativos, InvestidorManager investidores,
+                                            long limiteSegmento) throws IOException {
+        if (limiteSegmento <= 0) throw new IllegalArgumentException("Limite do segmento deve ser > 0.");
+        if (investidores.getDiario() != null) throw new IllegalStateException("Os investidores já têm um diário.");
+        Files.createDirectories(diretorio);
+
+        List<Long> fotografias = numerados(diretorio, "fotografia-", ".gcft");
+        long base = fotografias.isEmpty() ? 0 : fotografias.get(fotografias.size() - 1);
+        StringBuilder resumo = new StringBuilder();
+        if (base > 0) {
+            resumo.append("fotografia ").append(base).append(" (")
+                    .append(FotografiaBinaria.carregar(arquivoFotografia(diretorio, base), ativos, investidores)).append("); ");
+        }
+
+        List<Long> segmentos = new ArrayList<>();
+        for (long n : numerados(diretorio, "diario-", ".log")) if (n >= base) segmentos.add(n);
+        Reaplicacao reaplicacao = new Reaplicacao();
+        for (int i = 0; i < segmentos.size(); i++) {
+            reaplicar(arquivoSegmento(diretorio, segmentos.get(i)), i == segmentos.size() - 1,
+                    ativos, investidores, reaplicacao);
+        }
+        resumo.append(reaplicacao);
+
+        long proximo = Math.max(base, segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1)) + 1;
+        DiarioMovimentacoes diario = new DiarioMovimentacoes(diretorio, ativos, investidores, proximo,
+                limiteSegmento, resumo.toString());
+        ativos.anexarDiario(diario);
+        investidores.anexarDiario(diario);
+        return diario;
+    }
+
+    // o que a abertura recuperou (para o console)
+    public String getRecuperacao() {
+        return recuperacao;
+    }
+
+    // ---- registros ----
+
+    @Override
+    public long registrar(Carteira carteira, Ativo ativo, BigDecimal quantidade, BigDecimal custo) {
+        if (carteira.getTitular() == null) throw new IllegalArgumentException("Carteira sem titular não vai para o diário.");
+        SaidaBinaria saida = SaidaBinaria.emMemoria(96);
+        try {
+            saida.byte_(POSICAO);
+            saida.texto(carteira.getTitular().getIdentificador());
+            saida.texto(ativo.getTicker());
+            saida.decimal(quantidade);
+            saida.decimal(custo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // em memória não acontece
+        }
+        return anexar(saida.bytes());
+    }
+
+    // cadastro ou substituição do investidor, com as posições atuais da carteira
+    public long registrarInvestidor(Investidor inv) {
+        List<FotografiaCarteira.Linha> linhas = inv.getCarteira().linhas();
+        SaidaBinaria saida = SaidaBinaria.emMemoria(256 + 64 * linhas.size());
+        try {
+            saida.byte_(INVESTIDOR);
+            FotografiaBinaria.escreverInvestidor(saida, inv);
+            saida.inteiro(linhas.size());
+            for (FotografiaCarteira.Linha linha : linhas) {
+                saida.texto(linha.ativo().getTicker());
+                saida.decimal(linha.quantidade());
+                saida.decimal(linha.valorGasto());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return anexar(saida.bytes());
+    }
+
+    public long registrarRemocao(String identificador) {
+        SaidaBinaria saida = SaidaBinaria.emMemoria(32);
+        try {
+            saida.byte_(INVESTIDOR_REMOVIDO);
+            saida.texto(identificador);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return anexar(saida.bytes());
+    }
+
+    // ativo cadastrado depois da fotografia: as posições registradas depois apontam para ele.
+    // Quem cadastra segura alteracoes() até publicar o ativo no catálogo, como as carteiras.
+    public long registrarAtivo(Ativo ativo) {
+        SaidaBinaria saida = SaidaBinaria.emMemoria(128);
+        try {
+            saida.byte_(ATIVO);
+            FotografiaBinaria.escreverAtivo(saida, ativo, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return anexar(saida.bytes());
+    }
+
+    // Enfileira o registro já emoldurado (tamanho + CRC) e acorda a gravadora
+    private long anexar(byte[] conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        lock.lock();
+        try {
+            if (falha != null) throw new IllegalStateException("Diário indisponível: " + falha.getMessage(), falha);
+            if (fechado) throw new IllegalStateException("Diário fechado.");
+            int tamanho = 2 * Integer.BYTES + conteudo.length;
+            if (pendente.remaining() < tamanho) {
+                pendente = ByteBuffer.allocate(Math.max(pendente.capacity() * 2, pendente.position() + tamanho))
+                        .put(pendente.flip());
+            }
+            pendente.putInt(conteudo.length).putInt((int) crc.getValue()).put(conteudo);
+            haPendentes.signal();
+            return ++ultimoRegistro;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Lock alteracoes() {
+        return alteracoes.readLock();
+    }
+
+    @Override
+    public void aguardar(long registro) {
+        long[] emLote = lote.get();
+        if (emLote != null) {
+            emLote[0] = Math.max(emLote[0], registro);
+            return;
+        }
+        lock.lock();
+        try {
+            while (registroGravado < registro) {
+                if (falha != null) {
+                    throw new IllegalStateException("Movimentação não gravada no diário: " + falha.getMessage(), falha);
+                }
+                gravou.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Executa a tarefa sem esperar o disco a cada movimentação; espera uma vez, no fim, pelo último
+    // registro dela (ex.: importação de arquivo). Uma falha do diário aparece nesse fim.
+    public void emLote(Runnable tarefa) {
+        if (lote.get() != null) {
+            tarefa.run();
+            return;
+        }
+        long[] maior = new long[1];
+        lote.set(maior);
+        try {
+            tarefa.run();
+        } finally {
+            lote.remove();
+        }
+        if (maior[0] != 0) aguardar(maior[0]);
+    }
+
+    // ---- gravação em grupo ----
+
+    private void gravarLotes() {
+        while (true) {
+            lock.lock();
+            try {
+                while (pendente.position() == 0 && !fechado) haPendentes.awaitUninterruptibly();
+                if (pendente.position() == 0) return; // fechado e tudo gravado
+            } finally {
+                lock.unlock();
+            }
+            try {
+                synchronized (lockSegmento) {
+                    gravarPendentes();
+                }
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    falha = e;
+                    gravou.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                System.err.println("Falha ao gravar o diário (movimentações recusadas a partir de agora): " + e.getMessage());
+                return;
+            }
+            if (bytesSegmento >= limiteSegmento && compactando.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("diario-compactacao").start(() -> {
+                    try {
+                        compactar();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Falha na compactação do diário: " + e.getMessage());
+                    } finally {
+                        compactando.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    // Troca o buffer pendente pelo livre, grava, força e publica o último registro do lote.
+    // Chamado com lockSegmento.
+    private void gravarPendentes() throws IOException {
+        ByteBuffer gravando;
+        long ate;
+        lock.lock();
+        try {
+            if (pendente.position() == 0) return;
+            gravando = pendente;
+            pendente = livre;
+            ate = ultimoRegistro;
+        } finally {
+            lock.unlock();
+        }
+        gravando.flip();
+        int bytes = gravando.remaining();
+        while (gravando.hasRemaining()) segmento.write(gravando);
+        segmento.force(false);
+        bytesSegmento += bytes;
+        // um buffer que cresceu num pico volta ao tamanho normal
+        livre = gravando.capacity() > 4 * TAMANHO_BUFFER ? ByteBuffer.allocate(TAMANHO_BUFFER) : gravando.clear();
+        lock.lock();
+        try {
+            registroGravado = ate;
+            gravou.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- compactação ----
+
+    // Fecha o segmento atual (com tudo o que estava pendente), grava a fotografia numerada com o
+    // segmento novo e apaga o que ela cobre. A troca acontece sem nenhuma posição entre o registro e
+    // a publicação, então a fotografia (tirada depois) contém tudo o que está no segmento antigo.
+    // Movimentações concorrentes seguem no segmento novo; se a fotografia já as incluir,
+    // reaplicá-las de novo dá o mesmo estado (registros são absolutos).
+    public FotografiaBinaria.Resumo compactar() throws IOException {
+        synchronized (lockCompactacao) {
+            lock.lock();
+            try {
+                if (fechado) throw new IllegalStateException("Diário fechado.");
+            } finally {
+                lock.unlock();
+            }
+            long novo;
+            alteracoes.writeLock().lock();
+            try {
+                synchronized (lockSegmento) {
+                    gravarPendentes();
+                    FileChannel proximo = criarSegmento(numeroSegmento + 1);
+                    segmento.close();
+                    segmento = proximo;
+                    novo = ++numeroSegmento;
+                    bytesSegmento = TAMANHO_CABECALHO;
+                }
+            } finally {
+                alteracoes.writeLock().unlock();
+            }
+            FotografiaBinaria.Resumo resumo = FotografiaBinaria.salvar(arquivoFotografia(diretorio, novo), ativos, investidores);
+            sincronizarDiretorio();
+            for (long n : numerados(diretorio, "fotografia-", ".gcft")) {
+                if (n < novo) Files.deleteIfExists(arquivoFotografia(diretorio, n));
+            }
+            for (long n : numerados(diretorio, "diario-", ".log")) {
+                if (n < novo) Files.deleteIfExists(arquivoSegmento(diretorio, n));
+            }
+            return resumo;
+        }
+    }
+
+    // Grava o que falta e para a gravadora; movimentações depois disso são recusadas
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            fechado = true;
+            haPendentes.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            gravadora.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lockCompactacao) {
+            synchronized (lockSegmento) {
+                if (segmento.isOpen()) segmento.close();
+            }
+        }
+        if (falha != null) throw new IOException("Diário com falha de gravação: " + falha.getMessage(), falha);
+    }
+
+    // ---- arquivos ----
+
+    private FileChannel criarSegmento(long numero) throws IOException {
+        FileChannel canal = FileChannel.open(arquivoSegmento(diretorio, numero),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                .putInt(MAGICO).putShort(VERSAO).putLong(numero).flip();
+        while (cabecalho.hasRemaining()) canal.write(cabecalho);
+        canal.force(false);
+        sincronizarDiretorio();
+        return canal;
+    }
+
+    // a entrada do arquivo novo no diretório também precisa chegar ao disco (sem suporte, ex.: Windows, é ignorado)
+    private void sincronizarDiretorio() {
+        try (FileChannel dir = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // sistema de arquivos sem fsync de diretório
+        }
+    }
+
+    private static Path arquivoSegmento(Path diretorio, long numero) {
+        return diretorio.resolve("diario-" + numero + ".log");
+    }
+
+    private static Path arquivoFotografia(Path diretorio, long numero) {
+        return diretorio.resolve("fotografia-" + numero + ".gcft");
+    }
+
+    // números dos arquivos "<prefixo><n><sufixo>" do diretório, em ordem crescente
+    private static List<Long> numerados(Path diretorio, String prefixo, String sufixo) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, prefixo + "*" + sufixo)) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                try {
+                    numeros.add(Long.parseLong(nome.substring(prefixo.length(), nome.length() - sufixo.length())));
+                } catch (NumberFormatException e) {
+                    // outro arquivo com nome parecido
+                }
+            }
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+
+    // ---- reaplicação ----
+
+    private static final class Reaplicacao {
+        int segmentos;
+        long registros;
+        long ignorados;
+        long cortados;
+
+        @Override
+        public String toString() {
+            return "segmentos=" + segmentos + " registros=" + registros + " ignorados=" + ignorados
+                    + " bytesCortados=" + cortados;
+        }
+    }
+
+    private static void reaplicar(Path arquivo, boolean ultimo, AtivoManager ativos, InvestidorManager investidores,
+                                  Reaplicacao r) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            EntradaBinaria entrada = new EntradaBinaria(canal);
+            try {
+                if (entrada.inteiro() != MAGICO) throw new IOException("Arquivo não é um segmento do diário: " + arquivo);
+                short versao = entrada.curto();
+                if (versao != VERSAO) throw new IOException("Versão do diário não suportada: " + versao);
+                entrada.longo(); // número
+            } catch (EOFException e) {
+                // queda durante a criação do segmento: nenhum registro confirmado nele
+                if (!ultimo) throw new IOException("Segmento do diário sem cabeçalho: " + arquivo, e);
+                r.cortados += canal.size();
+                canal.truncate(0);
+                return;
+            }
+            r.segmentos++;
+            long tamanhoArquivo = canal.size();
+            while (true) {
+                long inicio = entrada.posicao();
+                if (inicio == tamanhoArquivo) return;
+                byte[] conteudo = lerRegistro(entrada, tamanhoArquivo - inicio);
+                if (conteudo == null) {
+                    if (!ultimo) throw new IOException("Diário corrompido em " + arquivo + " (posição " + inicio + ").");
+                    r.cortados += tamanhoArquivo - inicio;
+                    canal.truncate(inicio);
+                    canal.force(false);
+                    return;
+                }
+                try {
+                    if (aplicar(EntradaBinaria.de(conteudo), ativos, investidores)) r.registros++;
+                    else r.ignorados++;
+                } catch (RuntimeException e) {
+                    throw new IOException("Registro inválido no diário " + arquivo + " (posição " + inicio + "): "
+                            + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    // conteúdo do próximo registro, ou null se ele estiver incompleto ou com CRC errado
+    private static byte[] lerRegistro(EntradaBinaria entrada, long restante) throws IOException {
+        if (restante < 2 * Integer.BYTES) return null;
+        int tamanho = entrada.inteiro();
+        int crcGravado = entrada.inteiro();
+        if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO || tamanho > restante - 2 * Integer.BYTES) return null;
+        byte[] conteudo = entrada.bytes(tamanho);
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        return (int) crc.getValue() == crcGravado ? conteudo : null;
+    }
+
+    // Aplica um registro (sem diário ligado, nada é regravado); false = aponta para um investidor que
+    // não existe mais. Ticker desconhecido falha: a posição se perderia sem aviso.
+    private static boolean aplicar(EntradaBinaria entrada, AtivoManager ativos, InvestidorManager investidores) throws IOException {
+        byte tipo = entrada.byte_();
+        switch (tipo) {
+            case POSICAO -> {
+                Investidor inv = investidores.buscarPorIdentificador(entrada.texto());
+                String ticker = entrada.texto();
+                BigDecimal quantidade = entrada.decimal();
+                BigDecimal custo = entrada.decimal();
+                if (inv == null) return false;
+                Carteira carteira = inv.getCarteira();
+                Ativo ativo = resolverAtivo(ticker, carteira, ativos);
+                if (quantidade != null) {
+                    carteira.restaurarPosicao(ativo, quantidade, custo);
+                } else if (carteira.getQuantidade(ativo).signum() > 0) {
+                    carteira.removerAtivo(ativo, carteira.getQuantidade(ativo));
+                }
+                return true;
+            }
+            case INVESTIDOR -> {
+                Investidor lido = FotografiaBinaria.lerInvestidor(entrada);
+                Investidor inv = investidores.buscarPorIdentificador(lido.getIdentificador());
+                // o registro traz a carteira inteira; os tickers saem da carteira anterior antes de limpá-la
+                Carteira anterior = inv == null ? null : inv.getCarteira();
+                int linhas = entrada.inteiro();
+                List<Ativo> lidos = new ArrayList<>(linhas);
+                List<BigDecimal> quantidades = new ArrayList<>(linhas);
+                List<BigDecimal> custos = new ArrayList<>(linhas);
+                for (int i = 0; i < linhas; i++) {
+                    lidos.add(resolverAtivo(entrada.texto(), anterior, ativos));
+                    quantidades.add(entrada.decimal());
+                    custos.add(entrada.decimal());
+                }
+                if (inv == null) {
+                    investidores.adicionarInvestidor(lido);
+                    inv = lido;
+                } else {
+                    investidores.atualizarInvestidor(lido.getIdentificador(), lido.getNome(), lido.getPatrimonio());
+                    inv = investidores.buscarPorIdentificador(lido.getIdentificador());
+                }
+                Carteira carteira = inv.getCarteira();
+                carteira.limpar();
+                for (int i = 0; i < linhas; i++) carteira.restaurarPosicao(lidos.get(i), quantidades.get(i), custos.get(i));
+                return true;
+            }
+            case INVESTIDOR_REMOVIDO -> {
+                investidores.removerInvestidor(entrada.texto());
+                return true;
+            }
+            case ATIVO -> {
+                Ativo lido = FotografiaBinaria.lerAtivo(entrada);
+                entrada.booleano(); // sempre no catálogo
+                // cadastrado durante a compactação, já pode estar na fotografia
+                if (ativos.buscarPorTicker(lido.getTicker()) == null) ativos.cadastrarAtivo(lido);
+                return true;
+            }
+            default -> throw new IOException("Tipo de registro desconhecido no diário: " + tipo);
+        }
+    }
+
+    // Ativo de uma posição: o do catálogo ou, se ele saiu do catálogo, o que a carteira ainda tem
+    private static Ativo resolverAtivo(String ticker, Carteira carteira, AtivoManager ativos) {
+        Ativo ativo = ativos.buscarPorTicker(ticker);
+        if (ativo != null) return ativo;
+        if (carteira != null) {
+            for (Ativo possuido : carteira.getAtivos().keySet()) {
+                if (possuido.getTicker().equals(ticker)) return possuido;
+            }
+        }
+        throw new IllegalArgumentException("ativo desconhecido " + ticker);
+    }
+}
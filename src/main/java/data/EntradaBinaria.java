@@ -0,0 +1,125 @@
+package data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+// Leitura do formato de SaidaBinaria, de um arquivo (em blocos, sequencial) ou de um array em memória
+final class EntradaBinaria implements AutoCloseable {
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private final FileChannel canal; // null = em memória
+    private final ByteBuffer buffer;
+
+    EntradaBinaria(FileChannel canal) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER).limit(0);
+    }
+
+    private EntradaBinaria(byte[] bytes) {
+        this.canal = null;
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    static EntradaBinaria de(byte[] bytes) {
+        return new EntradaBinaria(bytes);
+    }
+
+    long posicao() throws IOException {
+        return canal == null ? buffer.position() : canal.position() - buffer.remaining();
+    }
+
+    void garantir(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        if (canal == null) throw new EOFException("Dados truncados.");
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (canal.read(buffer) < 0) {
+                buffer.flip();
+                throw new EOFException("Dados truncados.");
+            }
+        }
+        buffer.flip();
+    }
+
+    void pular(long bytes) throws IOException {
+        if (bytes <= buffer.remaining()) {
+            buffer.position(buffer.position() + (int) bytes);
+            return;
+        }
+        if (canal == null) throw new EOFException("Dados truncados.");
+        long alvo = posicao() + bytes;
+        if (alvo > canal.size()) throw new EOFException("Dados truncados.");
+        canal.position(alvo);
+        buffer.limit(0);
+    }
+
+    byte byte_() throws IOException {
+        garantir(1);
+        return buffer.get();
+    }
+
+    boolean booleano() throws IOException {
+        return byte_() != 0;
+    }
+
+    short curto() throws IOException {
+        garantir(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    int inteiro() throws IOException {
+        garantir(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    long longo() throws IOException {
+        garantir(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    String texto() throws IOException {
+        int tamanho = inteiro();
+        if (tamanho == -1) return null;
+        return new String(bytes(tamanho), StandardCharsets.UTF_8);
+    }
+
+    BigDecimal decimal() throws IOException {
+        byte tipo = byte_();
+        return switch (tipo) {
+            case SaidaBinaria.DECIMAL_NULO -> null;
+            case SaidaBinaria.DECIMAL_LONG -> {
+                int escala = inteiro();
+                yield BigDecimal.valueOf(longo(), escala);
+            }
+            case SaidaBinaria.DECIMAL_BYTES -> {
+                int escala = inteiro();
+                yield new BigDecimal(new BigInteger(bytes(inteiro())), escala);
+            }
+            default -> throw new IOException("Marcador de decimal inválido: " + tipo);
+        };
+    }
+
+    byte[] bytes(int tamanho) throws IOException {
+        if (tamanho < 0) throw new IOException("Tamanho inválido: " + tamanho);
+        byte[] bytes = new byte[tamanho];
+        int lidos = 0;
+        while (lidos < tamanho) {
+            garantir(1);
+            int n = Math.min(tamanho - lidos, buffer.remaining());
+            buffer.get(bytes, lidos, n);
+            lidos += n;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null) canal.close();
+    }
+}
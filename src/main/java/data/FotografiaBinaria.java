@@ -0,0 +1,327 @@
+package data;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Criptomoeda;
+import model.ativo.Fii;
+import model.ativo.Moeda;
+import model.ativo.Stock;
+import model.ativo.TabelaCambio;
+import model.ativo.Tesouro;
+import model.ativo.TipoRendimento;
+import model.carteira.FotografiaCarteira;
+import model.investidor.Endereco;
+import model.investidor.Institucional;
+import model.investidor.Investidor;
+import model.investidor.PerfilInvestimento;
+import model.investidor.PessoaFisica;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fotografia binária do estado inteiro (câmbio, catálogo de ativos, investidores e posições com custo),
+// gravada e lida em sequência por FileChannel: reiniciar é ler um arquivo, sem reinterpretar os CSVs
+// nem reaplicar movimentações.
+//
+// Formato (big-endian):
+//   cabeçalho: mágico "GCFT", versão maior (short), versão menor (short), gravado em (epoch ms)
+//   seções:    tipo (byte), tamanho do conteúdo em bytes (long), conteúdo; tipo 0 encerra o arquivo
+// Um leitor aceita qualquer versão menor da sua versão maior e pula seções de tipo desconhecido pelo
+// tamanho, então campos e seções novos entram numa versão menor sem quebrar leitores antigos.
+// Mudanças incompatíveis sobem a versão maior, e o leitor recusa o arquivo.
+//
+// Posições apontam para o ativo pelo índice na seção de ativos; ativos fora do catálogo que ainda
+// estão em alguma carteira também são gravados (marcados), para a posição não se perder.
+// A gravação vai para um arquivo temporário e troca o anterior só no fim (nunca fica pela metade).
+public final class FotografiaBinaria {
+
+    public static final int MAGICO = 0x47434654; // "GCFT"
+    public static final short VERSAO_MAIOR = 1;
+    public static final short VERSAO_MENOR = 0;
+
+    private static final byte SECAO_FIM = 0;
+    private static final byte SECAO_CAMBIO = 1;
+    private static final byte SECAO_ATIVOS = 2;
+    private static final byte SECAO_INVESTIDORES = 3;
+
+    private static final byte ACAO = 1;
+    private static final byte FII = 2;
+    private static final byte TESOURO = 3;
+    private static final byte STOCK = 4;
+    private static final byte CRIPTO = 5;
+
+    private static final byte PESSOA_FISICA = 1;
+    private static final byte INSTITUCIONAL = 2;
+
+    // Quantidades gravadas ou lidas
+    public record Resumo(int ativos, int investidores, long posicoes, long bytes) {
+        @Override
+        public String toString() {
+            return "ativos=" + ativos + " investidores=" + investidores + " posicoes=" + posicoes + " bytes=" + bytes;
+        }
+    }
+
+    private FotografiaBinaria() {
+    }
+
+    // Caminho da fotografia usada pelo menu (-Dgestaocarteira.fotografia=arquivo); null = desligada
+    public static Path caminhoDoSistema() {
+        String caminho = System.getProperty("gestaocarteira.fotografia");
+        return caminho == null || caminho.isBlank() ? null : Path.of(caminho);
+    }
+
+    public static Resumo salvar(Path arquivo, AtivoManager ativos, InvestidorManager investidores) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        Resumo resumo;
+        try (SaidaBinaria saida = new SaidaBinaria(FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            saida.inteiro(MAGICO);
+            saida.curto(VERSAO_MAIOR);
+            saida.curto(VERSAO_MENOR);
+            saida.longo(System.currentTimeMillis());
+
+            saida.inicioSecao(SECAO_CAMBIO);
+            Map<Moeda, BigDecimal> taxas = TabelaCambio.padrao().getCotacoes().getTaxas();
+            saida.inteiro(taxas.size());
+            for (Map.Entry<Moeda, BigDecimal> e : taxas.entrySet()) {
+                saida.texto(e.getKey().name());
+                saida.decimal(e.getValue());
+            }
+            saida.fimSecao();
+
+            // índice de cada ativo na seção: catálogo primeiro, depois os que só existem em carteiras
+            List<Ativo> catalogo = ativos.getAtivos();
+            Map<Ativo, Integer> indices = new IdentityHashMap<>();
+            List<Ativo> ordem = new ArrayList<>(catalogo);
+            for (int i = 0; i < catalogo.size(); i++) indices.putIfAbsent(catalogo.get(i), i);
+            // cópia: a compactação do diário grava enquanto outras threads cadastram
+            List<Investidor> todos = investidores.copiarInvestidores();
+            List<List<FotografiaCarteira.Linha>> linhasPorInvestidor = new ArrayList<>(todos.size());
+            for (Investidor inv : todos) {
+                List<FotografiaCarteira.Linha> linhas = inv.getCarteira().linhas();
+                linhasPorInvestidor.add(linhas);
+                for (FotografiaCarteira.Linha linha : linhas) {
+                    if (indices.putIfAbsent(linha.ativo(), ordem.size()) == null) ordem.add(linha.ativo());
+                }
+            }
+
+            saida.inicioSecao(SECAO_ATIVOS);
+            saida.inteiro(ordem.size());
+            for (int i = 0; i < ordem.size(); i++) {
+                escreverAtivo(saida, ordem.get(i), i < catalogo.size());
+            }
+            saida.fimSecao();
+
+            saida.inicioSecao(SECAO_INVESTIDORES);
+            saida.inteiro(linhasPorInvestidor.size());
+            long posicoes = 0;
+            int i = 0;
+            for (Investidor inv : todos) {
+                List<FotografiaCarteira.Linha> linhas = linhasPorInvestidor.get(i++);
+                escreverInvestidor(saida, inv);
+                saida.inteiro(linhas.size());
+                for (FotografiaCarteira.Linha linha : linhas) {
+                    saida.inteiro(indices.get(linha.ativo()));
+                    saida.decimal(linha.quantidade());
+                    saida.decimal(linha.valorGasto());
+                }
+                posicoes += linhas.size();
+            }
+            saida.fimSecao();
+
+            saida.byte_(SECAO_FIM);
+            saida.descarregar();
+            saida.forcar();
+            resumo = new Resumo(catalogo.size(), linhasPorInvestidor.size(), posicoes, saida.posicao());
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return resumo;
+    }
+
+    // Carrega a fotografia em managers vazios (a fotografia é o estado inteiro, não um complemento)
+    public static Resumo carregar(Path arquivo, AtivoManager ativos, InvestidorManager investidores) throws IOException {
+        if (!ativos.getAtivos().isEmpty() || !investidores.getInvestidores().isEmpty()) {
+            throw new IllegalStateException("A fotografia só pode ser carregada em managers vazios.");
+        }
+        try (EntradaBinaria entrada = new EntradaBinaria(FileChannel.open(arquivo, StandardOpenOption.READ))) {
+            if (entrada.inteiro() != MAGICO) throw new IOException("Arquivo não é uma fotografia: " + arquivo);
+            short maior = entrada.curto();
+            short menor = entrada.curto();
+            if (maior != VERSAO_MAIOR) {
+                throw new IOException("Versão da fotografia não suportada: " + maior + "." + menor
+                        + " (suportada: " + VERSAO_MAIOR + ".x)");
+            }
+            entrada.longo(); // gravado em
+
+            List<Ativo> porIndice = new ArrayList<>();
+            int totalInvestidores = 0;
+            long posicoes = 0;
+            byte secao;
+            while ((secao = entrada.byte_()) != SECAO_FIM) {
+                long tamanho = entrada.longo();
+                long fim = entrada.posicao() + tamanho;
+                switch (secao) {
+                    case SECAO_CAMBIO -> {
+                        int n = entrada.inteiro();
+                        Map<Moeda, BigDecimal> taxas = new EnumMap<>(Moeda.class);
+                        for (int i = 0; i < n; i++) taxas.put(Moeda.valueOf(entrada.texto()), entrada.decimal());
+                        // antes dos ativos: os preços em reais já saem com o câmbio gravado
+                        if (!taxas.isEmpty()) TabelaCambio.padrao().atualizar(taxas);
+                    }
+                    case SECAO_ATIVOS -> {
+                        int n = entrada.inteiro();
+                        List<Ativo> noCatalogo = new ArrayList<>(n);
+                        for (int i = 0; i < n; i++) {
+                            Ativo ativo = lerAtivo(entrada);
+                            porIndice.add(ativo);
+                            if (entrada.booleano()) noCatalogo.add(ativo);
+                        }
+                        ativos.cadastrarEmLote(noCatalogo);
+                    }
+                    case SECAO_INVESTIDORES -> {
+                        int n = entrada.inteiro();
+                        for (int i = 0; i < n; i++) {
+                            Investidor inv = lerInvestidor(entrada);
+                            int linhas = entrada.inteiro();
+                            for (int k = 0; k < linhas; k++) {
+                                int indice = entrada.inteiro();
+                                if (indice < 0 || indice >= porIndice.size()) {
+                                    throw new IOException("Posição aponta para ativo inexistente: " + indice);
+                                }
+                                inv.getCarteira().restaurarPosicao(porIndice.get(indice), entrada.decimal(), entrada.decimal());
+                            }
+                            posicoes += linhas;
+                            investidores.adicionarInvestidor(inv);
+                        }
+                        totalInvestidores += n;
+                    }
+                    default -> {
+                        // seção de uma versão menor mais nova: ignorada
+                    }
+                }
+                if (entrada.posicao() > fim) throw new IOException("Seção " + secao + " maior que o tamanho gravado.");
+                entrada.pular(fim - entrada.posicao());
+            }
+            return new Resumo(ativos.getAtivos().size(), totalInvestidores, posicoes, entrada.posicao());
+        } catch (RuntimeException e) {
+            // conteúdo que o modelo recusa (ex.: preço negativo, enum desconhecido) = arquivo inválido
+            throw new IOException("Fotografia inválida: " + e.getMessage(), e);
+        }
+    }
+
+    // ---- ativos ----
+
+    static void escreverAtivo(SaidaBinaria saida, Ativo ativo, boolean noCatalogo) throws IOException {
+        byte tipo = switch (ativo) {
+            case Acao a -> ACAO;
+            case Fii f -> FII;
+            case Tesouro t -> TESOURO;
+            case Stock s -> STOCK;
+            case Criptomoeda c -> CRIPTO;
+            default -> throw new IllegalArgumentException("Tipo de ativo sem formato na fotografia: "
+                    + ativo.getClass().getName());
+        };
+        saida.byte_(tipo);
+        saida.texto(ativo.getNome());
+        saida.texto(ativo.getTicker());
+        saida.decimal(ativo.getPrecoAtual());
+        saida.booleano(ativo.isQualificado());
+        saida.texto(ativo.getMoeda().name());
+        switch (ativo) {
+            case Fii f -> {
+                saida.texto(f.getSegmento());
+                saida.decimal(f.getUltimoDividendo());
+                saida.decimal(f.getTaxaAdministracao());
+            }
+            case Tesouro t -> {
+                saida.texto(t.getTipoRendimento().name());
+                saida.longo(t.getDataVencimento().toEpochDay());
+            }
+            case Stock s -> {
+                saida.texto(s.getBolsaNegociacao());
+                saida.texto(s.getSetor());
+            }
+            case Criptomoeda c -> {
+                saida.texto(c.getAlgoritmoConsenso());
+                saida.decimal(c.getQuantidadeMaxima());
+            }
+            default -> {
+                // ação: o tipo sai do ticker
+            }
+        }
+        saida.booleano(noCatalogo);
+    }
+
+    static Ativo lerAtivo(EntradaBinaria entrada) throws IOException {
+        byte tipo = entrada.byte_();
+        String nome = entrada.texto();
+        String ticker = entrada.texto();
+        BigDecimal preco = entrada.decimal();
+        boolean restrito = entrada.booleano();
+        Moeda moeda = Moeda.valueOf(entrada.texto());
+        return switch (tipo) {
+            case ACAO -> new Acao(nome, ticker, preco, restrito);
+            case FII -> new Fii(nome, ticker, preco, restrito, entrada.texto(), entrada.decimal(), entrada.decimal());
+            case TESOURO -> new Tesouro(nome, ticker, preco, restrito, TipoRendimento.valueOf(entrada.texto()),
+                    LocalDate.ofEpochDay(entrada.longo()));
+            case STOCK -> new Stock(nome, ticker, preco, restrito, entrada.texto(), entrada.texto(), moeda, TabelaCambio.padrao());
+            case CRIPTO -> new Criptomoeda(nome, ticker, preco, restrito, entrada.texto(), entrada.decimal(), moeda,
+                    TabelaCambio.padrao());
+            default -> throw new IOException("Tipo de ativo desconhecido na fotografia: " + tipo);
+        };
+    }
+
+    // ---- investidores ----
+
+    static void escreverInvestidor(SaidaBinaria saida, Investidor inv) throws IOException {
+        saida.byte_(inv instanceof Institucional ? INSTITUCIONAL : PESSOA_FISICA);
+        saida.texto(inv.getNome());
+        saida.texto(inv.getIdentificador());
+        saida.longo(inv.getDataNascimento().toEpochDay());
+        saida.texto(inv.getTelefone());
+        Endereco e = inv.getEndereco();
+        saida.texto(e.getRua());
+        saida.texto(e.getNumero());
+        saida.texto(e.getBairro());
+        saida.texto(e.getCep());
+        saida.texto(e.getCidade());
+        saida.texto(e.getEstado());
+        saida.decimal(inv.getPatrimonio());
+        if (inv instanceof Institucional inst) {
+            saida.texto(inst.getRazaoSocial());
+        } else if (inv instanceof PessoaFisica pf) {
+            saida.texto(pf.getPerfilInvestimento() == null ? null : pf.getPerfilInvestimento().name());
+        } else {
+            throw new IllegalArgumentException("Tipo de investidor sem formato na fotografia: " + inv.getClass().getName());
+        }
+    }
+
+    static Investidor lerInvestidor(EntradaBinaria entrada) throws IOException {
+        byte tipo = entrada.byte_();
+        String nome = entrada.texto();
+        String identificador = entrada.texto();
+        LocalDate nascimento = LocalDate.ofEpochDay(entrada.longo());
+        String telefone = entrada.texto();
+        Endereco endereco = new Endereco(entrada.texto(), entrada.texto(), entrada.texto(),
+                entrada.texto(), entrada.texto(), entrada.texto());
+        BigDecimal patrimonio = entrada.decimal();
+        String extra = entrada.texto();
+        return switch (tipo) {
+            case PESSOA_FISICA -> new PessoaFisica(nome, identificador, nascimento, telefone, endereco, patrimonio,
+                    extra == null ? null : PerfilInvestimento.valueOf(extra));
+            case INSTITUCIONAL -> new Institucional(nome, identificador, nascimento, telefone, endereco, patrimonio, extra);
+            default -> throw new IOException("Tipo de investidor desconhecido na fotografia: " + tipo);
+        };
+    }
+}
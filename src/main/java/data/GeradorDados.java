@@ -0,0 +1,366 @@
+package data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Gera arquivos sintéticos nos formatos exatos dos loaders (catálogos do AtivoData, investidores do
+// InvestidorManager e movimentações C/V, por investidor ou consolidadas) para benchmarks e testes de carga.
+// Tudo é escrito em streaming, então o tamanho do arquivo não depende da memória disponível.
+// Mesma semente + mesmos parâmetros = mesmos arquivos.
+public class GeradorDados {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final String[] TIPOS_TESOURO = {"Selic", "Prefixado", "IPCA+"};
+    private static final String[] SETORES_FII = {"Logística", "Lajes Corporativas", "Shoppings", "Papéis", "Híbrido"};
+    private static final String[] BOLSAS = {"NASDAQ", "NYSE"};
+    private static final String[] CONSENSOS = {"Proof of Work", "Proof of Stake"};
+    private static final String[] PERFIS = {"CONSERVADOR", "MODERADO", "ARROJADO"};
+    private static final String[] ESTADOS = {"MG", "SP", "RJ", "RS", "BA", "PR"};
+
+    private final long semente;
+    private final double assimetria; // expoente Zipf da escolha de tickers; 0 = uniforme
+
+    public GeradorDados(long semente, double assimetria) {
+        if (assimetria < 0) throw new IllegalArgumentException("Assimetria não pode ser negativa.");
+        this.semente = semente;
+        this.assimetria = assimetria;
+    }
+
+    // ---- tickers (derivados do índice, para que as movimentações possam referenciá-los) ----
+
+    // 0 -> "AAAA", 1 -> "AAAB", ... (base 26, no mínimo 4 letras)
+    static String letras(long indice) {
+        char[] buf = new char[16];
+        int pos = buf.length;
+        long n = indice;
+        do {
+            buf[--pos] = (char) ('A' + (n % 26));
+            n /= 26;
+        } while (n > 0);
+        while (buf.length - pos < 4) buf[--pos] = 'A';
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    public static String tickerAcao(long i) {
+        return letras(i) + (i % 2 == 0 ? "3" : "4");
+    }
+
+    public static String tickerFii(long i) {
+        return letras(i) + "11";
+    }
+
+    public static String tickerTesouro(long i) {
+        return "TS" + i;
+    }
+
+    public static String tickerStock(long i) {
+        return "S" + letras(i);
+    }
+
+    public static String tickerCripto(long i) {
+        return "X" + letras(i);
+    }
+
+    private static String preco(Random r, int maxReais, char separador) {
+        int centavos = 100 + r.nextInt(maxReais * 100);
+        int resto = centavos % 100;
+        return (centavos / 100) + String.valueOf(separador) + (resto < 10 ? "0" : "") + resto;
+    }
+
+    // número com zeros à esquerda (sem o custo do String.format por linha)
+    static String zeros(long valor, int largura) {
+        String s = Long.toString(valor);
+        if (s.length() >= largura) return s;
+        return "0".repeat(largura - s.length()) + s;
+    }
+
+    private Random random(long deslocamento) {
+        // cada arquivo tem sua própria sequência, independente da ordem de geração
+        return new Random(semente * 31 + deslocamento);
+    }
+
+    private static BufferedWriter abrir(Path arquivo) throws IOException {
+        Path pai = arquivo.toAbsolutePath().getParent();
+        if (pai != null) Files.createDirectories(pai);
+        return new BufferedWriter(Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    }
+
+    // ---- catálogos ----
+
+    // uma a cada 20 ações é restrita a investidores qualificados
+    public static boolean isAcaoQualificada(long i) {
+        return i % 20 == 19;
+    }
+
+    public void gerarAcoes(Path arquivo, long linhas) throws IOException {
+        Random r = random(1);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Ticker;Nome;Preço (R$);Qualificado?\n");
+            for (long i = 0; i < linhas; i++) {
+                w.write(tickerAcao(i));
+                w.write(";Empresa ");
+                w.write(Long.toString(i));
+                w.write(';');
+                w.write(preco(r, 200, ','));
+                w.write(isAcaoQualificada(i) ? ";1\n" : ";0\n");
+            }
+        }
+    }
+
+    public void gerarFiis(Path arquivo, long linhas) throws IOException {
+        Random r = random(2);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Ticker;Nome;Setor;Preço (R$);Último Dividendo;Taxa de Administração\n");
+            for (long i = 0; i < linhas; i++) {
+                w.write(tickerFii(i));
+                w.write(";Fundo Imobiliário ");
+                w.write(Long.toString(i));
+                w.write(';');
+                w.write(SETORES_FII[r.nextInt(SETORES_FII.length)]);
+                w.write(';');
+                w.write(preco(r, 1500, ','));
+                w.write(';');
+                w.write(preco(r, 10, ','));
+                w.write(";0,");
+                w.write(Integer.toString(1 + r.nextInt(9)));
+                w.write('\n');
+            }
+        }
+    }
+
+    public void gerarTesouros(Path arquivo, long linhas) throws IOException {
+        Random r = random(3);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Ticker;Nome;Preço (R$);Tipo de Rendimento;Vencimento\n");
+            for (long i = 0; i < linhas; i++) {
+                w.write(tickerTesouro(i));
+                w.write(";Tesouro ");
+                w.write(Long.toString(i));
+                w.write(';');
+                w.write(preco(r, 17000, '.'));
+                w.write(';');
+                w.write(TIPOS_TESOURO[r.nextInt(TIPOS_TESOURO.length)]);
+                w.write(";01/01/");
+                w.write(Integer.toString(2027 + r.nextInt(30)));
+                w.write('\n');
+            }
+        }
+    }
+
+    public void gerarStocks(Path arquivo, long linhas) throws IOException {
+        Random r = random(4);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Ticker;Nome;Preço (USD);Bolsa de negociação;Setor\n");
+            for (long i = 0; i < linhas; i++) {
+                w.write(tickerStock(i));
+                w.write(";Company ");
+                w.write(Long.toString(i));
+                w.write(" Inc.;");
+                w.write(preco(r, 1000, '.'));
+                w.write(';');
+                w.write(BOLSAS[r.nextInt(BOLSAS.length)]);
+                w.write(";Information Technology\n");
+            }
+        }
+    }
+
+    public void gerarCriptos(Path arquivo, long linhas) throws IOException {
+        Random r = random(5);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Ticker;Nome;Preço (USD);Algoritmo Consenso;Quantidade Máxima\n");
+            for (long i = 0; i < linhas; i++) {
+                w.write(tickerCripto(i));
+                w.write(";Coin ");
+                w.write(Long.toString(i));
+                w.write(';');
+                w.write(preco(r, 90000, '.'));
+                w.write(';');
+                w.write(CONSENSOS[r.nextInt(CONSENSOS.length)]);
+                w.write(';');
+                if (r.nextBoolean()) w.write(Integer.toString(1_000_000 + r.nextInt(100_000_000)));
+                w.write('\n');
+            }
+        }
+    }
+
+    // ---- investidores (12 colunas de InvestidorManager.carregarInvestidoresDeArquivo) ----
+
+    // CPF de 11 dígitos (PF) ou CNPJ de 14 (institucional) derivado do índice
+    public static String identificadorInvestidor(long i, boolean institucional) {
+        return zeros(i, institucional ? 14 : 11);
+    }
+
+    // a cada 10 investidores, um é institucional
+    public static boolean isInstitucional(long i) {
+        return i % 10 == 9;
+    }
+
+    public void gerarInvestidores(Path arquivo, long linhas) throws IOException {
+        Random r = random(6);
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Nome;CPF/CNPJ;Nascimento;Telefone;Rua;Número;Bairro;CEP;Cidade;Estado;Patrimônio;Perfil/Razão Social\n");
+            for (long i = 0; i < linhas; i++) {
+                boolean institucional = isInstitucional(i);
+                w.write(institucional ? "Gestora " : "Investidor ");
+                w.write(Long.toString(i));
+                w.write(';');
+                w.write(identificadorInvestidor(i, institucional));
+                w.write(';');
+                w.write(Integer.toString(1950 + r.nextInt(55)));
+                w.write('-');
+                w.write(zeros(1 + r.nextInt(12), 2));
+                w.write('-');
+                w.write(zeros(1 + r.nextInt(28), 2));
+                w.write(";3299");
+                w.write(zeros(r.nextInt(10_000_000), 7));
+                w.write(";Rua ");
+                w.write(Integer.toString(1 + r.nextInt(500)));
+                w.write(';');
+                w.write(Integer.toString(1 + r.nextInt(2000)));
+                w.write(";Centro;");
+                w.write(zeros(r.nextInt(100_000_000), 8));
+                w.write(";Cidade ");
+                w.write(Integer.toString(r.nextInt(1000)));
+                w.write(';');
+                w.write(ESTADOS[r.nextInt(ESTADOS.length)]);
+                w.write(';');
+                w.write(Integer.toString(r.nextInt(5_000_000)));
+                w.write(".00;");
+                w.write(institucional ? "Gestora " + i + " S.A." : PERFIS[r.nextInt(PERFIS.length)]);
+                w.write('\n');
+            }
+        }
+    }
+
+    // ---- movimentações ----
+
+    // Sorteia índices em [0, n) com distribuição Zipf (poucos tickers "quentes") ou uniforme
+    class Sorteio {
+        private final Random r;
+        private final double[] acumulado; // null quando uniforme
+        private final int n;
+
+        Sorteio(Random r, int n) {
+            this.r = r;
+            this.n = n;
+            if (assimetria == 0) {
+                acumulado = null;
+                return;
+            }
+            acumulado = new double[n];
+            double soma = 0;
+            for (int k = 0; k < n; k++) {
+                soma += 1.0 / Math.pow(k + 1, assimetria);
+                acumulado[k] = soma;
+            }
+        }
+
+        int proximo() {
+            if (acumulado == null) return r.nextInt(n);
+            double alvo = r.nextDouble() * acumulado[n - 1];
+            int pos = Arrays.binarySearch(acumulado, alvo);
+            return Math.min(n - 1, pos >= 0 ? pos : -pos - 1);
+        }
+    }
+
+    // Tickers nacionais (ações, FIIs e tesouros) numa única faixa de índices, para que o arquivo
+    // seja aceito por qualquer perfil e patrimônio: ações restritas a qualificados são trocadas
+    // pela anterior. Os mais "quentes" ficam no início.
+    private static String tickerNacional(int indice, int acoes, int fiis) {
+        if (indice < acoes) return tickerAcao(isAcaoQualificada(indice) ? indice - 1 : indice);
+        if (indice < acoes + fiis) return tickerFii(indice - acoes);
+        return tickerTesouro(indice - acoes - fiis);
+    }
+
+    // Arquivo C/V de um investidor ("Tipo;Ticker;Quantidade;Preço"). Vendas nunca passam da
+    // quantidade comprada antes, então todas as linhas são válidas.
+    public void gerarMovimentacoes(Path arquivo, long linhas, int acoes, int fiis, int tesouros) throws IOException {
+        int total = acoes + fiis + tesouros;
+        if (total <= 0) throw new IllegalArgumentException("Catálogo vazio: informe ações, FIIs ou tesouros.");
+        Random r = random(7);
+        Sorteio sorteio = new Sorteio(r, total);
+        long[] posicao = new long[total];
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Tipo;Ticker;Quantidade;Preço\n");
+            for (long i = 0; i < linhas; i++) {
+                int k = sorteio.proximo();
+                long qtd = 1 + r.nextInt(100);
+                boolean venda = posicao[k] > 0 && r.nextInt(3) == 0;
+                if (venda) {
+                    qtd = Math.min(qtd, posicao[k]);
+                    posicao[k] -= qtd;
+                } else {
+                    posicao[k] += qtd;
+                }
+                w.write(venda ? "V;" : "C;");
+                w.write(tickerNacional(k, acoes, fiis));
+                w.write(';');
+                w.write(Long.toString(qtd));
+                w.write(';');
+                w.write(preco(r, 200, ','));
+                w.write('\n');
+            }
+        }
+    }
+
+    // Arquivo consolidado de vários investidores ("Identificador;Tipo;Ticker;Quantidade;Preço"),
+    // no formato de ImportadorMovimentacoes.importarConsolidado. Os investidores são os mesmos de
+    // gerarInvestidores (índices 0..investidores-1), escolhidos de forma uniforme; os tickers seguem
+    // a mesma assimetria do arquivo de um investidor. Vendas continuam válidas por investidor.
+    public void gerarMovimentacoesConsolidadas(Path arquivo, long linhas, long investidores,
+                                               int acoes, int fiis, int tesouros) throws IOException {
+        int total = acoes + fiis + tesouros;
+        if (total <= 0) throw new IllegalArgumentException("Catálogo vazio: informe ações, FIIs ou tesouros.");
+        if (investidores <= 0) throw new IllegalArgumentException("Informe ao menos um investidor.");
+        Random r = random(8);
+        Sorteio sorteio = new Sorteio(r, total);
+        Map<Long, Long> posicao = new HashMap<>(); // (investidor, ticker) -> quantidade
+        try (BufferedWriter w = abrir(arquivo)) {
+            w.write("Identificador;Tipo;Ticker;Quantidade;Preço\n");
+            for (long i = 0; i < linhas; i++) {
+                long inv = (long) (r.nextDouble() * investidores);
+                int k = sorteio.proximo();
+                long chave = inv * total + k;
+                long possui = posicao.getOrDefault(chave, 0L);
+                long qtd = 1 + r.nextInt(100);
+                boolean venda = possui > 0 && r.nextInt(3) == 0;
+                if (venda) qtd = Math.min(qtd, possui);
+                posicao.put(chave, venda ? possui - qtd : possui + qtd);
+
+                w.write(identificadorInvestidor(inv, isInstitucional(inv)));
+                w.write(venda ? ";V;" : ";C;");
+                w.write(tickerNacional(k, acoes, fiis));
+                w.write(';');
+                w.write(Long.toString(qtd));
+                w.write(';');
+                w.write(preco(r, 200, ','));
+                w.write('\n');
+            }
+        }
+    }
+
+    // Gera o conjunto completo em um diretório, com os nomes que o AtivoManager espera
+    public void gerarTudo(Path dir, int acoes, int fiis, int tesouros, int stocks, int criptos,
+                          long investidores, long movimentacoes) throws IOException {
+        gerarAcoes(dir.resolve("acao.csv"), acoes);
+        gerarFiis(dir.resolve("fii.csv"), fiis);
+        gerarTesouros(dir.resolve("tesouro.csv"), tesouros);
+        gerarStocks(dir.resolve("stock.csv"), stocks);
+        gerarCriptos(dir.resolve("criptoativo.csv"), criptos);
+        gerarInvestidores(dir.resolve("investidores.csv"), investidores);
+        if (movimentacoes > 0) {
+            gerarMovimentacoes(dir.resolve("movimentacoes.csv"), movimentacoes, acoes, fiis, tesouros);
+            if (investidores > 0) {
+                gerarMovimentacoesConsolidadas(dir.resolve("movimentacoes-consolidadas.csv"), movimentacoes,
+                        investidores, acoes, fiis, tesouros);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package data;
+
+import model.ativo.Ativo;
+import model.investidor.Investidor;
+import utils.CsvLinha;
+import utils.CsvReader;
+import utils.ParserDecimal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Aplica arquivos de movimentação "Tipo;Ticker;Quantidade;Preço" (C = compra, V = venda) na
+// carteira de um investidor, ou o arquivo consolidado de vários investidores (importarConsolidado).
+// Usado pelo menu e pelo modo em lote; o preço vazio usa a cotação atual.
+public class ImportadorMovimentacoes {
+
+    private static final int TAMANHO_LOTE = 512;
+    private static final int LOTES_POR_FILA = 64;
+    private static final List<Movimentacao> FIM = new ArrayList<>();
+
+    private final AtivoManager ativoManager;
+
+    public ImportadorMovimentacoes(AtivoManager ativoManager) {
+        this.ativoManager = ativoManager;
+    }
+
+    public ResultadoImportacao importar(Investidor inv, String caminho, ResultadoImportacao resultado) {
+        Runnable leitura = () -> new CsvReader().processar(caminho, cols -> {
+            resultado.linhaLida();
+            try {
+                aplicar(inv, cols);
+                resultado.aceitar();
+            } catch (IllegalArgumentException e) {
+                resultado.rejeitar("Linha " + cols.getNumero() + " ignorada: " + e.getMessage());
+            }
+        }, resultado::falhar);
+        // com diário, o arquivo inteiro espera o disco uma vez só
+        if (inv.getCarteira().getDiario() instanceof DiarioMovimentacoes diario) diario.emLote(leitura);
+        else leitura.run();
+        return resultado;
+    }
+
+    // Uma movimentação; lança IllegalArgumentException se a linha for inválida
+    public void aplicar(Investidor inv, CsvLinha cols) {
+        aplicar(inv, cols.get(0), cols.get(1), cols.get(2), cols.get(3));
+    }
+
+    private void aplicar(Investidor inv, String tipo, String ticker, String qtd, String preco) {
+        tipo = tipo.toUpperCase();
+
+        if (ticker.isBlank()) throw new IllegalArgumentException("Ticker vazio.");
+        if (qtd.isEmpty()) throw new IllegalArgumentException("Quantidade vazia.");
+
+        BigDecimal quantidade = ParserDecimal.parse(qtd);
+        if (quantidade.compareTo(BigDecimal.ZERO) <= 0)
+            throw new IllegalArgumentException("Quantidade deve ser > 0.");
+
+        // procurar ativo pelo ticker
+        Ativo ativoAlvo = ativoManager.buscarPorTicker(ticker);
+        if (ativoAlvo == null) throw new IllegalArgumentException("Ativo não encontrado: " + ticker);
+
+        BigDecimal precoExec = preco.isEmpty()
+                ? ativoAlvo.getPrecoAtual()
+                : ParserDecimal.parse(preco);
+
+        if (precoExec.compareTo(BigDecimal.ZERO) <= 0)
+            throw new IllegalArgumentException("Preço de execução deve ser > 0.");
+
+        if ("C".equals(tipo)) {
+            inv.comprar(ativoAlvo, quantidade, precoExec);
+        } else if ("V".equals(tipo)) {
+            inv.vender(ativoAlvo, quantidade);
+        } else {
+            throw new IllegalArgumentException("Tipo inválido (use C ou V): " + tipo);
+        }
+    }
+
+    // ---- arquivo consolidado (vários investidores) ----
+
+    // Arquivo "Identificador;Tipo;Ticker;Quantidade;Preço" com movimentações de vários investidores
+    // (ex.: arquivo de fim de dia da corretora). Uma thread lê o arquivo e distribui as linhas em
+    // partições pelo investidor; cada partição é aplicada por uma virtual thread própria. Todas as
+    // linhas de um investidor caem na mesma partição e numa fila FIFO, então a ordem do arquivo é
+    // mantida por carteira, enquanto investidores de partições diferentes andam em paralelo.
+    public ResultadoImportacao importarConsolidado(InvestidorManager investidores, String caminho,
+                                                   int particoes, ResultadoImportacao resultado) {
+        if (particoes < 1) throw new IllegalArgumentException("Número de partições deve ser >= 1.");
+
+        List<BlockingQueue<List<Movimentacao>>> filas = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) filas.add(new ArrayBlockingQueue<>(LOTES_POR_FILA));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (BlockingQueue<List<Movimentacao>> fila : filas) {
+                executor.submit(() -> aplicarParticao(fila, investidores.getDiario(), resultado));
+            }
+
+            List<List<Movimentacao>> pendentes = new ArrayList<>(particoes);
+            for (int i = 0; i < particoes; i++) pendentes.add(new ArrayList<>(TAMANHO_LOTE));
+
+            try {
+                new CsvReader().processar(caminho, cols -> {
+                    resultado.linhaLida();
+                    String identificador = cols.get(0);
+                    Investidor inv = investidores.buscarPorIdentificador(identificador);
+                    if (inv == null) {
+                        resultado.rejeitar("Linha " + cols.getNumero() + " ignorada: investidor não encontrado: " + identificador);
+                        return;
+                    }
+                    // a partição depende só do investidor, nunca da linha
+                    int p = Math.floorMod(inv.getIdentificador().hashCode(), particoes);
+                    List<Movimentacao> lote = pendentes.get(p);
+                    lote.add(new Movimentacao(cols.getNumero(), inv, cols.get(1), cols.get(2), cols.get(3), cols.get(4)));
+                    if (lote.size() == TAMANHO_LOTE) {
+                        enfileirar(filas.get(p), lote);
+                        pendentes.set(p, new ArrayList<>(TAMANHO_LOTE));
+                    }
+                }, resultado::falhar);
+            } finally {
+                // mesmo se a leitura falhar, cada worker recebe o sinal de fim (senão close() não retorna)
+                for (int p = 0; p < particoes; p++) {
+                    if (!pendentes.get(p).isEmpty()) enfileirar(filas.get(p), pendentes.get(p));
+                    enfileirar(filas.get(p), FIM);
+                }
+            }
+        } // close() espera todas as partições terminarem
+        return resultado;
+    }
+
+    public ResultadoImportacao importarConsolidado(InvestidorManager investidores, String caminho,
+                                                   ResultadoImportacao resultado) {
+        return importarConsolidado(investidores, caminho, Runtime.getRuntime().availableProcessors(), resultado);
+    }
+
+    // Com diário, cada lote espera o disco uma vez (pelo último registro), não uma vez por linha
+    private void aplicarParticao(BlockingQueue<List<Movimentacao>> fila, DiarioMovimentacoes diario,
+                                 ResultadoImportacao resultado) {
+        try {
+            while (true) {
+                List<Movimentacao> lote = fila.take();
+                if (lote == FIM) return;
+                if (diario == null) {
+                    aplicarLote(lote, resultado);
+                    continue;
+                }
+                try {
+                    diario.emLote(() -> aplicarLote(lote, resultado));
+                } catch (RuntimeException e) {
+                    // o diário falhou: as linhas já contadas como aceitas podem não estar em disco
+                    resultado.rejeitar("Lote até a linha " + lote.get(lote.size() - 1).linha()
+                            + " sem confirmação do diário: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void aplicarLote(List<Movimentacao> lote, ResultadoImportacao resultado) {
+        for (Movimentacao m : lote) {
+            try {
+                aplicar(m.investidor(), m.tipo(), m.ticker(), m.quantidade(), m.preco());
+                resultado.aceitar();
+            } catch (RuntimeException e) {
+                // nenhuma exceção pode derrubar o worker, senão o leitor trava na fila cheia
+                resultado.rejeitar("Linha " + m.linha() + " ignorada: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void enfileirar(BlockingQueue<List<Movimentacao>> fila, List<Movimentacao> lote) {
+        try {
+            fila.put(lote); // bloqueia se a partição estiver atrasada (limita a memória usada)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importação interrompida.", e);
+        }
+    }
+
+    // linha já separada do CsvLinha (que é reaproveitado pelo leitor)
+    private record Movimentacao(long linha, Investidor investidor, String tipo, String ticker,
+                                String quantidade, String preco) {
+    }
+}
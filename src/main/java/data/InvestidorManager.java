@@ -2,137 +2,256 @@ package data;
 
 import exception.MovimentacaoInvalidaException;
 import model.carteira.Carteira;
+import model.carteira.LivroColunar;
 import model.investidor.Institucional;
 import model.investidor.Investidor;
 import model.ativo.Ativo;
 import model.investidor.PessoaFisica;
+import utils.CsvLinha;
+import utils.CsvReader;
+import utils.ParserDecimal;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class InvestidorManager {
 
-    private final List<Investidor> investidores = new ArrayList<>();
+    // Índice identificador normalizado (CPF/CNPJ) -> cadastro, lido sem trava pela importação paralela,
+    // pela compactação do diário e pelo menu. A ordem de cadastro fica à parte, num mapa ordenado
+    // pelo número de cadastro, que pode ser percorrido enquanto outra thread cadastra. As escritas
+    // (cadastro, troca, remoção) são sincronizadas para manter os dois mapas de acordo.
+    private final Map<String, Cadastro> investidores = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Investidor> porOrdem = new ConcurrentSkipListMap<>();
+    private long proximaOrdem; // guardado por this
+    // livro colunar com as posições de todos os investidores (null = desligado)
+    private final LivroColunar livro;
+    // diário de movimentações (null = sem persistência); ver DiarioMovimentacoes
+    private volatile DiarioMovimentacoes diario;
+
+    // livro ligado por -Dgestaocarteira.livroColunar=true
+    public InvestidorManager() {
+        this(Boolean.getBoolean("gestaocarteira.livroColunar") ? new LivroColunar() : null);
+    }
+
+    public InvestidorManager(LivroColunar livro) {
+        this.livro = livro;
+    }
+
+    private record Cadastro(long ordem, Investidor investidor) {
+    }
+
+    public LivroColunar getLivro() {
+        return livro;
+    }
+
+    // Liga o diário às carteiras atuais e às que forem cadastradas depois. O estado atual já deve
+    // estar no diário ou na fotografia dele (DiarioMovimentacoes.abrir anexa depois de recuperar).
+    public synchronized void anexarDiario(DiarioMovimentacoes diario) {
+        if (diario == null) throw new IllegalArgumentException("Diário não pode ser nulo.");
+        this.diario = diario;
+        for (Investidor inv : porOrdem.values()) inv.getCarteira().anexarDiario(diario);
+    }
+
+    public DiarioMovimentacoes getDiario() {
+        return diario;
+    }
+
+    // remove pontuação de CPF/CNPJ ("123.456.789-09", "12.345.678/0001-90") e ignora caixa
+    static String normalizarIdentificador(String id) {
+        if (id == null) return "";
+        StringBuilder sb = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
 
     public void adicionarInvestidor(Investidor inv) {
-        investidores.add(inv);
+        String chave = normalizarIdentificador(inv.getIdentificador());
+        synchronized (this) {
+            if (investidores.containsKey(chave)) {
+                throw new IllegalArgumentException("Investidor já cadastrado: " + inv.getIdentificador());
+            }
+            long ordem = proximaOrdem++;
+            investidores.put(chave, new Cadastro(ordem, inv));
+            porOrdem.put(ordem, inv);
+        }
+        if (livro != null) inv.getCarteira().anexarLivro(livro);
+        DiarioMovimentacoes d = diario;
+        if (d != null) {
+            // anexa antes de gravar: uma compra no meio entra no diário depois do cadastro ou já no estado gravado
+            inv.getCarteira().anexarDiario(d);
+            d.aguardar(d.registrarInvestidor(inv));
+        }
+    }
+
+    // visão somente leitura, na ordem de cadastro; pode ser percorrida durante cadastros e remoções
+    // (vê ou não o que mudou no meio), sem ConcurrentModificationException
+    public Collection<Investidor> getInvestidores() {
+        return Collections.unmodifiableCollection(porOrdem.values());
     }
 
-    public List<Investidor> getInvestidores() {
-        return investidores;
+    // cópia consistente (nenhum cadastro pela metade), ex.: fotografia do diário
+    public synchronized List<Investidor> copiarInvestidores() {
+        return new ArrayList<>(porOrdem.values());
     }
 
     public Investidor buscarPorIdentificador(String id) {
-        return investidores.stream()
-                .filter(i -> i.getIdentificador().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        Cadastro c = investidores.get(normalizarIdentificador(id));
+        return c == null ? null : c.investidor();
     }
 
     public void removerInvestidor(String id) {
-        investidores.removeIf(i -> i.getIdentificador().equalsIgnoreCase(id));
+        descartar(remover(normalizarIdentificador(id)));
+    }
+
+    private synchronized Investidor remover(String chave) {
+        Cadastro c = investidores.remove(chave);
+        if (c == null) return null;
+        porOrdem.remove(c.ordem());
+        return c.investidor();
     }
 
-    public void removerPorIdentificadores(List<String> ids) {
-        List<String> lower = ids.stream().map(String::toLowerCase).collect(Collectors.toList());
-        investidores.removeIf(i -> lower.contains(i.getIdentificador().toLowerCase()));
+    // A carteira do investidor removido deixa de ser notificada pelos ativos. Com diário, a remoção
+    // é um registro só (as posições zeradas pela limpeza não são gravadas uma a uma).
+    private void descartar(Investidor removido) {
+        if (removido == null) return;
+        removido.getCarteira().desanexarDiario();
+        removido.getCarteira().limpar();
+        DiarioMovimentacoes d = diario;
+        if (d != null) d.aguardar(d.registrarRemocao(removido.getIdentificador()));
+    }
+
+    public void removerPorIdentificadores(Collection<String> ids) {
+        Set<String> chaves = new HashSet<>();
+        for (String id : ids) {
+            chaves.add(normalizarIdentificador(id));
+        }
+        for (String chave : chaves) {
+            descartar(remover(chave));
+        }
     }
 
-    // Propaga exclusão de um ativo para todas as carteiras
+    // Propaga exclusão de um ativo apenas para as carteiras que o possuem (índice reverso)
     public void removerAtivoDeTodasCarteiras(Ativo ativo) {
-        for (Investidor inv : investidores) {
+        for (Carteira carteira : Carteira.detentoras(ativo)) {
             try {
-                // tenta remover completamente o ativo da carteira
-                // se a Carteira não tiver método para remover completamente, usa a quantidade atual
-                var carteira = inv.getCarteira();
-                if (carteira.getAtivos().containsKey(ativo)) {
-                    var qtd = carteira.getAtivos().get(ativo);
+                var qtd = carteira.getQuantidade(ativo);
+                if (qtd.signum() > 0) {
                     carteira.removerAtivo(ativo, qtd); // usa removerAtivo(Ativo, BigDecimal)
                 }
             } catch (MovimentacaoInvalidaException e) {
-                System.out.println("Erro ao remover ativo da carteira de " + inv.getNome() + ": " + e.getMessage());
+                String nome = carteira.getTitular() == null ? "carteira avulsa" : carteira.getTitular().getNome();
+                System.out.println("Erro ao remover ativo da carteira de " + nome + ": " + e.getMessage());
             }
         }
     }
 
-    public void carregarInvestidoresDeArquivo(String caminho) {
-        List<String[]> linhas = utils.CsvReader.lerCsv(caminho);
-        if (!linhas.isEmpty()) {
-            linhas.removeFirst(); // remove cabeçalho
+    // Investidores (cadastrados neste manager) que possuem o ativo
+    public List<Investidor> buscarDetentores(Ativo ativo) {
+        List<Investidor> detentores = new ArrayList<>();
+        for (Carteira carteira : Carteira.detentoras(ativo)) {
+            Investidor titular = carteira.getTitular();
+            if (titular != null && buscarPorIdentificador(titular.getIdentificador()) == titular) {
+                detentores.add(titular);
+            }
         }
+        return detentores;
+    }
 
-        for (String[] cols : linhas) {
-            try {
-                // Nome
-                String nome = cols.length > 0 ? cols[0].trim() : "";
-                if (nome.isEmpty()) throw new IllegalArgumentException("Nome não pode ser vazio.");
-
-                // CPF ou CNPJ
-                String documento = cols.length > 1 ? cols[1].trim() : "";
-                if (documento.isEmpty()) throw new IllegalArgumentException("CPF/CNPJ não pode ser vazio.");
-
-                // Data de nascimento/fundação
-                java.time.LocalDate nascimento = (cols.length > 2 && !cols[2].trim().isEmpty())
-                        ? java.time.LocalDate.parse(cols[2].trim())
-                        : null;
-
-                // Telefone
-                String telefone = cols.length > 3 ? cols[3].trim() : "";
-
-                // Endereço detalhado
-                String rua    = cols.length > 4 ? cols[4].trim() : "";
-                String numero = cols.length > 5 ? cols[5].trim() : "";
-                String bairro = cols.length > 6 ? cols[6].trim() : "";
-                String cep    = cols.length > 7 ? cols[7].trim() : "";
-                String cidade = cols.length > 8 ? cols[8].trim() : "";
-                String estado = cols.length > 9 ? cols[9].trim() : "";
-
-                model.investidor.Endereco endereco = new model.investidor.Endereco(
-                        rua, numero, bairro, cep, cidade, estado
-                );
+    public void carregarInvestidoresDeArquivo(String caminho) {
+        carregarInvestidoresDeArquivo(caminho, ResultadoImportacao.console(caminho));
+    }
+
+    public void carregarInvestidoresDeArquivo(String caminho, ResultadoImportacao resultado) {
+        // o leitor já descarta o cabeçalho; com diário, o arquivo inteiro espera o disco uma vez só
+        Runnable leitura = () -> new CsvReader().processar(caminho, cols -> lerInvestidor(cols, resultado), resultado::falhar);
+        DiarioMovimentacoes d = diario;
+        if (d != null) d.emLote(leitura);
+        else leitura.run();
+    }
 
-                // Patrimônio
-                java.math.BigDecimal patrimonio = (cols.length > 10 && !cols[10].trim().isEmpty())
-                        ? new java.math.BigDecimal(cols[10].trim().replace(",", "."))
-                        : java.math.BigDecimal.ZERO;
-
-                // Campo extra: Perfil (PF) ou Razão Social (PJ)
-                String campoExtra = cols.length > 11 ? cols[11].trim() : "";
-
-                // Decidir se é PF ou PJ pelo documento
-                if (documento.matches("\\d{11}")) {
-                    // Pessoa Física
-                    model.investidor.PerfilInvestimento perfil;
-                    try {
-                        perfil = campoExtra.isEmpty()
-                                ? model.investidor.PerfilInvestimento.CONSERVADOR
-                                : model.investidor.PerfilInvestimento.valueOf(campoExtra.toUpperCase());
-                    } catch (IllegalArgumentException e) {
-                        perfil = model.investidor.PerfilInvestimento.CONSERVADOR;
-                    }
-
-                    model.investidor.Investidor inv = new model.investidor.PessoaFisica(
-                            nome, documento, nascimento, telefone, endereco, patrimonio, perfil
-                    );
-                    adicionarInvestidor(inv);
-
-                } else if (documento.matches("\\d{14}")) {
-                    // Institucional
-                    String razaoSocial = campoExtra.isEmpty() ? nome : campoExtra;
-
-                    model.investidor.Investidor inv = new model.investidor.Institucional(
-                            nome, documento, nascimento, telefone, endereco, patrimonio, razaoSocial
-                    );
-                    adicionarInvestidor(inv);
-
-                } else {
-                    throw new IllegalArgumentException("Documento inválido (CPF deve ter 11 dígitos, CNPJ 14).");
+    private void lerInvestidor(CsvLinha cols, ResultadoImportacao resultado) {
+        resultado.linhaLida();
+        try {
+            // Nome
+            String nome = cols.get(0);
+            if (nome.isEmpty()) throw new IllegalArgumentException("Nome não pode ser vazio.");
+
+            // CPF ou CNPJ
+            String documento = cols.get(1);
+            if (documento.isEmpty()) throw new IllegalArgumentException("CPF/CNPJ não pode ser vazio.");
+
+            // Data de nascimento/fundação
+            java.time.LocalDate nascimento = !cols.isVazio(2)
+                    ? java.time.LocalDate.parse(cols.get(2))
+                    : null;
+
+            // Telefone
+            String telefone = cols.get(3);
+
+            // Endereço detalhado
+            String rua    = cols.get(4);
+            String numero = cols.get(5);
+            String bairro = cols.get(6);
+            String cep    = cols.get(7);
+            String cidade = cols.get(8);
+            String estado = cols.get(9);
+
+            model.investidor.Endereco endereco = new model.investidor.Endereco(
+                    rua, numero, bairro, cep, cidade, estado
+            );
+
+            // Patrimônio
+            java.math.BigDecimal patrimonio = !cols.isVazio(10)
+                    ? ParserDecimal.parse(cols.campo(10))
+                    : java.math.BigDecimal.ZERO;
+
+            // Campo extra: Perfil (PF) ou Razão Social (PJ)
+            String campoExtra = cols.get(11);
+
+            // Decidir se é PF ou PJ pelo documento
+            if (documento.matches("\\d{11}")) {
+                // Pessoa Física
+                model.investidor.PerfilInvestimento perfil;
+                try {
+                    perfil = campoExtra.isEmpty()
+                            ? model.investidor.PerfilInvestimento.CONSERVADOR
+                            : model.investidor.PerfilInvestimento.valueOf(campoExtra.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    perfil = model.investidor.PerfilInvestimento.CONSERVADOR;
                 }
 
-            } catch (Exception e) {
-                System.out.println("Linha de investidor ignorada (erro): " + e.getMessage());
+                model.investidor.Investidor inv = new model.investidor.PessoaFisica(
+                        nome, documento, nascimento, telefone, endereco, patrimonio, perfil
+                );
+                adicionarInvestidor(inv);
+
+            } else if (documento.matches("\\d{14}")) {
+                // Institucional
+                String razaoSocial = campoExtra.isEmpty() ? nome : campoExtra;
+
+                model.investidor.Investidor inv = new model.investidor.Institucional(
+                        nome, documento, nascimento, telefone, endereco, patrimonio, razaoSocial
+                );
+                adicionarInvestidor(inv);
+
+            } else {
+                throw new IllegalArgumentException("Documento inválido (CPF deve ter 11 dígitos, CNPJ 14).");
             }
+
+            resultado.aceitar();
+        } catch (Exception e) {
+            resultado.rejeitar("Linha de investidor ignorada (erro): " + e.getMessage());
         }
     }
 
@@ -169,27 +288,24 @@ public class InvestidorManager {
         } catch (Exception e) {
             throw new RuntimeException("Erro ao criar novo investidor: " + e.getMessage(), e);
         }
-        Carteira carteiraAntiga = antigo.getCarteira();
-        Carteira carteiraNova = novo.getCarteira();
-
-        for (var entry : carteiraAntiga.getAtivos().entrySet()) {
-            Ativo ativo = entry.getKey();
-            java.math.BigDecimal quantidade = entry.getValue();
-
-            carteiraNova.getAtivos().put(ativo, quantidade);
-
-            java.math.BigDecimal custo = carteiraAntiga.getValorGastoPorAtivo(ativo);
-            if (custo != null && custo.compareTo(java.math.BigDecimal.ZERO) >= 0) {
-                carteiraNova.definirCustoPosicao(ativo, custo);
-            }
+        // move quantidades e custos; a carteira antiga deixa de acompanhar os preços (e de gravar
+        // no diário: a mudança inteira vira um registro do investidor novo, com as posições)
+        antigo.getCarteira().desanexarDiario();
+        novo.getCarteira().importarPosicoes(antigo.getCarteira());
+        if (livro != null) novo.getCarteira().anexarLivro(livro);
+
+        // mesmo número de cadastro: o investidor novo fica na posição do antigo
+        synchronized (this) {
+            String chave = normalizarIdentificador(identificador);
+            Cadastro atual = investidores.get(chave);
+            long ordem = atual != null ? atual.ordem() : proximaOrdem++;
+            investidores.put(chave, new Cadastro(ordem, novo));
+            porOrdem.put(ordem, novo);
         }
-
-        int idx = investidores.indexOf(antigo);
-        if (idx >= 0) {
-            investidores.set(idx, novo);
-        } else {
-            investidores.remove(antigo);
-            investidores.add(novo);
+        DiarioMovimentacoes d = diario;
+        if (d != null) {
+            novo.getCarteira().anexarDiario(d);
+            d.aguardar(d.registrarInvestidor(novo));
         }
     }
 
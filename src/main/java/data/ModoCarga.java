@@ -0,0 +1,12 @@
+package data;
+
+public enum ModoCarga {
+    SEQUENCIAL,       // leitura em streaming numa única thread
+    MAPEADO_PARALELO; // arquivo mapeado em memória e interpretado em blocos no fork-join pool
+
+    // lê a propriedade de sistema "gestaocarteira.carga" (sequencial | paralelo)
+    public static ModoCarga doSistema() {
+        String valor = System.getProperty("gestaocarteira.carga", "");
+        return valor.trim().equalsIgnoreCase("paralelo") ? MAPEADO_PARALELO : SEQUENCIAL;
+    }
+}
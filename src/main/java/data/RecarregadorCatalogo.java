@@ -0,0 +1,115 @@
+package data;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Vigia um diretório de catálogos (WatchService) e, quando acao.csv, fii.csv etc. é criado ou
+// alterado, aplica o arquivo novo com AtivoManager.recarregar (preços no lugar, tickers novos
+// cadastrados, sumidos sinalizados). Um arquivo só é relido depois de ficar ESPERA_MS sem eventos,
+// para não pegar uma cópia pela metade; vários eventos seguidos do mesmo arquivo viram uma recarga.
+// Quem copia o arquivo de fora deve, de preferência, gravar num temporário e renomear.
+public class RecarregadorCatalogo implements AutoCloseable {
+
+    private static final long ESPERA_MS = 500;
+
+    private final Path diretorio;
+    private final AtivoManager ativoManager;
+    private final ModoCarga modo;
+    private final Consumer<ResultadoRecarga> aoRecarregar;
+    private final WatchService vigia;
+    private final Thread thread;
+
+    private RecarregadorCatalogo(Path diretorio, AtivoManager ativoManager, ModoCarga modo,
+                                 Consumer<ResultadoRecarga> aoRecarregar) throws IOException {
+        this.diretorio = diretorio;
+        this.ativoManager = ativoManager;
+        this.modo = modo;
+        this.aoRecarregar = aoRecarregar;
+        this.vigia = diretorio.getFileSystem().newWatchService();
+        diretorio.register(vigia, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform().name("recarga-catalogo").daemon().start(this::vigiar);
+    }
+
+    // Começa a vigiar em segundo plano; cada recarga aplicada é entregue a aoRecarregar (na thread do vigia)
+    public static RecarregadorCatalogo iniciar(Path diretorio, AtivoManager ativoManager, ModoCarga modo,
+                                               Consumer<ResultadoRecarga> aoRecarregar) throws IOException {
+        if (!Files.isDirectory(diretorio)) throw new IllegalArgumentException("Diretório não encontrado: " + diretorio);
+        return new RecarregadorCatalogo(diretorio.toAbsolutePath(), ativoManager, modo, aoRecarregar);
+    }
+
+    // -Dgestaocarteira.recarregar=true: vigia o diretório dos CSVs (o atual) no modo interativo
+    public static boolean ativoNoSistema() {
+        return Boolean.getBoolean("gestaocarteira.recarregar");
+    }
+
+    private void vigiar() {
+        // classe -> instante (nanoTime) do último evento no arquivo dela
+        Map<ClasseAtivo, Long> pendentes = new EnumMap<>(ClasseAtivo.class);
+        while (true) {
+            WatchKey chave;
+            try {
+                chave = pendentes.isEmpty() ? vigia.take() : vigia.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (chave != null) {
+                long agora = System.nanoTime();
+                for (WatchEvent<?> evento : chave.pollEvents()) {
+                    if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // eventos perdidos: relê todos os catálogos presentes
+                        for (ClasseAtivo classe : ClasseAtivo.values()) pendentes.put(classe, agora);
+                        continue;
+                    }
+                    ClasseAtivo classe = ClasseAtivo.porArquivo(evento.context().toString());
+                    if (classe != null) pendentes.put(classe, agora);
+                }
+                if (!chave.reset()) {
+                    System.err.println("Diretório de catálogos não pode mais ser vigiado: " + diretorio);
+                    return;
+                }
+            }
+            long agora = System.nanoTime();
+            Iterator<Map.Entry<ClasseAtivo, Long>> it = pendentes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<ClasseAtivo, Long> e = it.next();
+                if (agora - e.getValue() < TimeUnit.MILLISECONDS.toNanos(ESPERA_MS)) continue;
+                ClasseAtivo classe = e.getKey(); // a entrada do EnumMap não vale mais depois do remove
+                it.remove();
+                recarregar(classe);
+            }
+        }
+    }
+
+    private void recarregar(ClasseAtivo classe) {
+        Path arquivo = diretorio.resolve(classe.getArquivo());
+        if (!Files.isRegularFile(arquivo)) return; // renomeado para fora ou apagado: o catálogo fica como está
+        try {
+            aoRecarregar.accept(ativoManager.recarregar(classe, arquivo.toString(), modo,
+                    ResultadoImportacao.silencioso(arquivo.toString())));
+        } catch (RuntimeException e) {
+            // uma recarga com problema não pode parar o vigia
+            System.err.println("Falha ao recarregar " + arquivo + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        vigia.close();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
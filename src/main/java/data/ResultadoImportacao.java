@@ -0,0 +1,124 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Contadores de uma importação de arquivo (linhas lidas, aceitas e rejeitadas).
+// No modo interativo cada erro é ecoado no console, como antes; no modo em lote os erros
+// só são contados e os primeiros ficam guardados para o resumo final.
+// Seguro para uso concorrente (carga MAPEADO_PARALELO).
+public class ResultadoImportacao {
+
+    private static final int MAX_AMOSTRA_ERROS = 10;
+
+    private final String origem;
+    private final boolean ecoarErros;
+    private final AtomicLong lidas = new AtomicLong();
+    private final AtomicLong aceitas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final List<String> amostraErros = new ArrayList<>();
+    private final Set<String> avisos = new LinkedHashSet<>(); // cada aviso aparece uma vez por arquivo
+    private volatile String falha; // erro que impediu a leitura do arquivo
+
+    public ResultadoImportacao(String origem, boolean ecoarErros) {
+        this.origem = origem;
+        this.ecoarErros = ecoarErros;
+    }
+
+    // modo interativo: cada erro aparece no console assim que acontece
+    public static ResultadoImportacao console(String origem) {
+        return new ResultadoImportacao(origem, true);
+    }
+
+    // modo em lote: nenhuma saída por linha
+    public static ResultadoImportacao silencioso(String origem) {
+        return new ResultadoImportacao(origem, false);
+    }
+
+    public void linhaLida() {
+        lidas.incrementAndGet();
+    }
+
+    public void aceitar() {
+        aceitas.incrementAndGet();
+    }
+
+    public void rejeitar(String mensagem) {
+        rejeitadas.incrementAndGet();
+        if (ecoarErros) System.out.println(mensagem);
+        synchronized (amostraErros) {
+            if (amostraErros.size() < MAX_AMOSTRA_ERROS) amostraErros.add(mensagem);
+        }
+    }
+
+    // linha aceita, mas com algo a corrigir no arquivo; mensagens repetidas são registradas uma vez só
+    public void avisar(String mensagem) {
+        boolean novo;
+        synchronized (avisos) {
+            novo = avisos.add(mensagem);
+        }
+        if (novo && ecoarErros) System.out.println("Aviso: " + mensagem);
+    }
+
+    // o arquivo não pôde ser lido (inexistente, sem permissão...)
+    public void falhar(String mensagem) {
+        falha = mensagem;
+        if (ecoarErros) System.out.println(mensagem);
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    public long getLidas() {
+        return lidas.get();
+    }
+
+    public long getAceitas() {
+        return aceitas.get();
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas.get();
+    }
+
+    public boolean isFalhou() {
+        return falha != null;
+    }
+
+    public String getFalha() {
+        return falha;
+    }
+
+    public List<String> getAmostraErros() {
+        synchronized (amostraErros) {
+            return Collections.unmodifiableList(new ArrayList<>(amostraErros));
+        }
+    }
+
+    public List<String> getAvisos() {
+        synchronized (avisos) {
+            return List.copyOf(avisos);
+        }
+    }
+
+    // linha chave=valor, fácil de ler por scripts
+    public String resumo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("origem=").append(origem)
+                .append(" lidas=").append(getLidas())
+                .append(" aceitas=").append(getAceitas())
+                .append(" rejeitadas=").append(getRejeitadas());
+        if (falha != null) sb.append(" falha=\"").append(falha.replace('"', '\'')).append('"');
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return resumo();
+    }
+}
@@ -0,0 +1,38 @@
+package data;
+
+import java.util.List;
+
+// Diferença aplicada por AtivoManager.recarregar: preços atualizados no lugar, tickers novos
+// cadastrados e tickers da classe que sumiram do arquivo (continuam no catálogo, só sinalizados).
+// conflitos = tickers do arquivo já cadastrados como outra classe de ativo (ignorados).
+public record ResultadoRecarga(ClasseAtivo classe, ResultadoImportacao leitura, int precosAlterados,
+                               int inalterados, int novos, int conflitos, List<String> removidos) {
+
+    private static final int MAX_REMOVIDOS_NO_RESUMO = 10;
+
+    public String resumo() {
+        return diferenca() + ' ' + leitura.resumo();
+    }
+
+    // só a diferença aplicada, sem os contadores da leitura
+    public String diferenca() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("classe=").append(classe.name().toLowerCase())
+                .append(" alterados=").append(precosAlterados)
+                .append(" inalterados=").append(inalterados)
+                .append(" novos=").append(novos)
+                .append(" removidos=").append(removidos.size());
+        if (conflitos > 0) sb.append(" conflitos=").append(conflitos);
+        if (!removidos.isEmpty()) {
+            sb.append(" foraDoArquivo=").append(String.join(",",
+                    removidos.subList(0, Math.min(removidos.size(), MAX_REMOVIDOS_NO_RESUMO))));
+            if (removidos.size() > MAX_REMOVIDOS_NO_RESUMO) sb.append(",...");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return resumo();
+    }
+}
@@ -0,0 +1,155 @@
+package data;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Gravação dos tipos básicos da fotografia e do diário (big-endian). Com canal, o buffer é
+// descarregado no arquivo quando enche; em memória (emMemoria), o buffer cresce e bytes() devolve o conteúdo.
+final class SaidaBinaria implements AutoCloseable {
+
+    static final byte DECIMAL_NULO = 0;
+    static final byte DECIMAL_LONG = 1;
+    static final byte DECIMAL_BYTES = 2;
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private final FileChannel canal; // null = em memória
+    private ByteBuffer buffer;
+    private long inicioSecao = -1;
+
+    SaidaBinaria(FileChannel canal) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    }
+
+    private SaidaBinaria(int capacidade) {
+        this.canal = null;
+        this.buffer = ByteBuffer.allocate(capacidade);
+    }
+
+    static SaidaBinaria emMemoria(int capacidade) {
+        return new SaidaBinaria(capacidade);
+    }
+
+    // conteúdo gravado (só em memória)
+    byte[] bytes() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    long posicao() throws IOException {
+        return canal == null ? buffer.position() : canal.position() + buffer.position();
+    }
+
+    void garantir(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        if (canal == null) {
+            buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                    .put(buffer.flip());
+        } else {
+            descarregar();
+        }
+    }
+
+    void descarregar() throws IOException {
+        if (canal == null) return;
+        buffer.flip();
+        while (buffer.hasRemaining()) canal.write(buffer);
+        buffer.clear();
+    }
+
+    // descarrega e força o conteúdo para o disco
+    void forcar() throws IOException {
+        descarregar();
+        canal.force(false);
+    }
+
+    // o tamanho é gravado com 0 e corrigido em fimSecao, direto na posição do arquivo
+    void inicioSecao(byte tipo) throws IOException {
+        byte_(tipo);
+        longo(0);
+        inicioSecao = posicao();
+    }
+
+    void fimSecao() throws IOException {
+        descarregar();
+        ByteBuffer tamanho = ByteBuffer.allocate(Long.BYTES).putLong(0, canal.position() - inicioSecao);
+        long onde = inicioSecao - Long.BYTES;
+        while (tamanho.hasRemaining()) onde += canal.write(tamanho, onde);
+    }
+
+    void byte_(byte b) throws IOException {
+        garantir(1);
+        buffer.put(b);
+    }
+
+    void booleano(boolean b) throws IOException {
+        byte_(b ? (byte) 1 : (byte) 0);
+    }
+
+    void curto(short s) throws IOException {
+        garantir(Short.BYTES);
+        buffer.putShort(s);
+    }
+
+    void inteiro(int i) throws IOException {
+        garantir(Integer.BYTES);
+        buffer.putInt(i);
+    }
+
+    void longo(long l) throws IOException {
+        garantir(Long.BYTES);
+        buffer.putLong(l);
+    }
+
+    // tamanho em bytes UTF-8 (-1 = null) e os bytes
+    void texto(String s) throws IOException {
+        if (s == null) {
+            inteiro(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        inteiro(bytes.length);
+        bytes(bytes);
+    }
+
+    // escala + valor sem escala: num long quando cabe, senão os bytes do BigInteger
+    void decimal(BigDecimal d) throws IOException {
+        if (d == null) {
+            byte_(DECIMAL_NULO);
+            return;
+        }
+        BigInteger semEscala = d.unscaledValue();
+        if (semEscala.bitLength() < Long.SIZE) {
+            byte_(DECIMAL_LONG);
+            inteiro(d.scale());
+            longo(semEscala.longValue());
+        } else {
+            byte_(DECIMAL_BYTES);
+            inteiro(d.scale());
+            byte[] bytes = semEscala.toByteArray();
+            inteiro(bytes.length);
+            bytes(bytes);
+        }
+    }
+
+    void bytes(byte[] bytes) throws IOException {
+        if (canal != null && bytes.length > buffer.capacity()) {
+            descarregar();
+            ByteBuffer grande = ByteBuffer.wrap(bytes);
+            while (grande.hasRemaining()) canal.write(grande);
+            return;
+        }
+        garantir(bytes.length);
+        buffer.put(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null) canal.close();
+    }
+}
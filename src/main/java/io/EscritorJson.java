@@ -0,0 +1,206 @@
+package io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Escrita de JSON em fluxo direto para um canal (UTF-8), sem montar o documento em memória.
+// Os buffers de caracteres e de bytes são reaproveitados entre documentos e entre canais
+// (ver redirecionar), então um escritor por thread serve para milhares de relatórios.
+//
+// Indentado: 2 espaços por nível, um membro por linha (formato do relatório do menu).
+// Compacto: sem espaços nem quebras, uma linha por documento (NDJSON).
+// Nomes e textos são escapados (aspas, barra invertida e caracteres de controle).
+public final class EscritorJson implements Closeable {
+
+    private static final int TAMANHO_BUFFER = 16 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean indentado;
+    private final CharBuffer caracteres = CharBuffer.allocate(TAMANHO_BUFFER);
+    // UTF-8 usa no máximo 3 bytes por char (par substituto: 4 bytes para 2 chars)
+    private final ByteBuffer bytes = ByteBuffer.allocate(TAMANHO_BUFFER * 3);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private WritableByteChannel canal;
+    // por nível aberto: ainda não escreveu nenhum membro/elemento
+    private boolean[] vazio = new boolean[8];
+    private int nivel;
+
+    public EscritorJson(WritableByteChannel canal, boolean indentado) {
+        if (canal == null) throw new IllegalArgumentException("Canal não pode ser nulo.");
+        this.canal = canal;
+        this.indentado = indentado;
+    }
+
+    // Descarrega o que está pendente no canal atual e passa a escrever no novo (o anterior não é fechado)
+    public void redirecionar(WritableByteChannel novo) throws IOException {
+        if (novo == null) throw new IllegalArgumentException("Canal não pode ser nulo.");
+        flush();
+        canal = novo;
+        nivel = 0;
+    }
+
+    public EscritorJson inicioObjeto() throws IOException {
+        return abrir(null, '{');
+    }
+
+    public EscritorJson inicioObjeto(String nome) throws IOException {
+        return abrir(nome, '{');
+    }
+
+    public EscritorJson fimObjeto() throws IOException {
+        return fechar('}');
+    }
+
+    public EscritorJson inicioLista(String nome) throws IOException {
+        return abrir(nome, '[');
+    }
+
+    public EscritorJson fimLista() throws IOException {
+        return fechar(']');
+    }
+
+    public EscritorJson campo(String nome, String valor) throws IOException {
+        membro(nome);
+        if (valor == null) escrever("null");
+        else texto(valor);
+        return this;
+    }
+
+    public EscritorJson campo(String nome, BigDecimal valor) throws IOException {
+        membro(nome);
+        escrever(valor == null ? "null" : valor.toString());
+        return this;
+    }
+
+    public EscritorJson campo(String nome, long valor) throws IOException {
+        membro(nome);
+        escrever(Long.toString(valor));
+        return this;
+    }
+
+    // encerra o documento atual com uma quebra de linha (separador do NDJSON)
+    public void fimDocumento() throws IOException {
+        if (nivel != 0) throw new IllegalStateException("Documento JSON com " + nivel + " nível(is) aberto(s).");
+        escrever('\n');
+    }
+
+    // Codifica o que está no buffer de caracteres e grava no canal
+    public void flush() throws IOException {
+        codificar(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        canal.close();
+    }
+
+    private EscritorJson abrir(String nome, char abertura) throws IOException {
+        if (nivel > 0 || nome != null) membro(nome);
+        escrever(abertura);
+        if (++nivel == vazio.length) vazio = Arrays.copyOf(vazio, nivel * 2);
+        vazio[nivel] = true;
+        return this;
+    }
+
+    private EscritorJson fechar(char fechamento) throws IOException {
+        if (nivel == 0) throw new IllegalStateException("Nenhum objeto ou lista aberto.");
+        boolean semMembros = vazio[nivel];
+        nivel--;
+        if (indentado && !semMembros) quebrarLinha();
+        escrever(fechamento);
+        return this;
+    }
+
+    // separador e, dentro de objeto, o nome do membro
+    private void membro(String nome) throws IOException {
+        if (nivel == 0) throw new IllegalStateException("Membro fora de objeto ou lista: " + nome);
+        if (!vazio[nivel]) escrever(',');
+        vazio[nivel] = false;
+        if (indentado) quebrarLinha();
+        if (nome != null) {
+            texto(nome);
+            escrever(':');
+            if (indentado) escrever(' ');
+        }
+    }
+
+    private void quebrarLinha() throws IOException {
+        escrever('\n');
+        for (int i = 0; i < nivel; i++) escrever("  ");
+    }
+
+    private void texto(String s) throws IOException {
+        escrever('"');
+        int inicio = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            escrever(s, inicio, i);
+            inicio = i + 1;
+            switch (c) {
+                case '"' -> escrever("\\\"");
+                case '\\' -> escrever("\\\\");
+                case '\n' -> escrever("\\n");
+                case '\r' -> escrever("\\r");
+                case '\t' -> escrever("\\t");
+                case '\b' -> escrever("\\b");
+                case '\f' -> escrever("\\f");
+                default -> {
+                    escrever("\\u00");
+                    escrever(HEX[c >> 4]);
+                    escrever(HEX[c & 0xF]);
+                }
+            }
+        }
+        escrever(s, inicio, s.length());
+        escrever('"');
+    }
+
+    private void escrever(char c) throws IOException {
+        if (!caracteres.hasRemaining()) codificar(false);
+        caracteres.put(c);
+    }
+
+    private void escrever(String s) throws IOException {
+        escrever(s, 0, s.length());
+    }
+
+    private void escrever(String s, int inicio, int fim) throws IOException {
+        while (inicio < fim) {
+            if (!caracteres.hasRemaining()) codificar(false);
+            int n = Math.min(fim - inicio, caracteres.remaining());
+            caracteres.put(s, inicio, inicio + n);
+            inicio += n;
+        }
+    }
+
+    // Com "tudo" = false um substituto alto no fim do buffer espera o par na próxima passada
+    private void codificar(boolean tudo) throws IOException {
+        caracteres.flip();
+        CoderResult r = encoder.encode(caracteres, bytes, false);
+        if (r.isOverflow()) throw new IllegalStateException("Buffer de bytes menor que o necessário.");
+        if (tudo && caracteres.hasRemaining()) {
+            // substituto alto sem par no fim do documento: vira '?'
+            encoder.encode(caracteres, bytes, true);
+            encoder.flush(bytes);
+            encoder.reset();
+        }
+        caracteres.compact();
+        bytes.flip();
+        while (bytes.hasRemaining()) canal.write(bytes);
+        bytes.clear();
+    }
+}
@@ -7,13 +7,13 @@ import model.investidor.*;
 import utils.InfoUtils;
 import utils.InputUtils;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class Menu {
 
@@ -21,12 +21,14 @@ public class Menu {
     private final InfoUtils infoUtils;
     private final AtivoManager ativoManager;
     private final InvestidorManager investidorManager;
+    private final ImportadorMovimentacoes importadorMovimentacoes;
 
     public Menu(InputUtils inputUtils, InfoUtils infoUtils, AtivoManager ativoManager, InvestidorManager investidorManager) {
         this.inputUtils = inputUtils;
         this.infoUtils = infoUtils;
         this.ativoManager = ativoManager;
         this.investidorManager = investidorManager;
+        this.importadorMovimentacoes = new ImportadorMovimentacoes(ativoManager);
     }
 
     public void exibirMenuPrincipal() {
@@ -58,15 +60,21 @@ public class Menu {
             System.out.println("3 - Editar ativo (apenas preço)");
             System.out.println("4 - Excluir ativo");
             System.out.println("5 - Exibir relatório de ativos");
+            System.out.println("6 - Atualizar preços em lote");
+            System.out.println("7 - Consultar investidores que possuem um ativo");
+            System.out.println("8 - Atualizar cotação do dólar");
             System.out.println("0 - Voltar");
             System.out.print("Escolha uma opção: ");
-            int opcao = inputUtils.lerOpcao(0, 5);
+            int opcao = inputUtils.lerOpcao(0, 8);
             switch (opcao) {
                 case 1 -> cadastrarAtivo();
                 case 2 -> cadastrarAtivoEmLote();
                 case 3 -> editarAtivo();
                 case 4 -> excluirAtivo();
                 case 5 -> relatorioAtivos();
+                case 6 -> atualizarPrecosEmLote();
+                case 7 -> consultarDetentores();
+                case 8 -> atualizarCambio();
                 case 0 -> rodando = false;
             }
         }
@@ -106,15 +114,13 @@ public class Menu {
                 case 4 -> {
                     String consenso = infoUtils.lerTexto("Algoritmo de consenso");
                     BigDecimal quantidadeMax = infoUtils.lerBigDecimalOpcional("Quantidade máxima");
-                    BigDecimal fatorConv = infoUtils.lerBigDecimal("Fator de conversão");
-                    ativo = new Criptomoeda(nome, ticker, preco, restrito, consenso, quantidadeMax, fatorConv);
+                    ativo = new Criptomoeda(nome, ticker, preco, restrito, consenso, quantidadeMax);
                 }
 
                 case 5 -> {
                     String bolsa = infoUtils.lerTexto("Bolsa de negociação");
                     String setor = infoUtils.lerTexto("Setor");
-                    BigDecimal fatorConv = infoUtils.lerBigDecimal("Fator de conversão");
-                    ativo = new Stock(nome, ticker, preco, restrito, bolsa, setor, fatorConv);
+                    ativo = new Stock(nome, ticker, preco, restrito, bolsa, setor);
                 }
 
                 default -> {
@@ -159,18 +165,62 @@ public class Menu {
             System.out.println("Nenhum ativo disponível.");
             return;
         }
-        for (int i = 0; i < lista.size(); i++) {
-            System.out.println((i + 1) + " - " + lista.get(i));
+        lista.forEach(System.out::println);
+        String ticker = infoUtils.lerTicker();
+        if (ativoManager.buscarPorTicker(ticker) == null) {
+            System.out.println("Ativo não encontrado: " + ticker);
+            return;
         }
-        System.out.print("Escolha uma opção: ");
-        int escolha = inputUtils.lerOpcao(1, lista.size());
         BigDecimal novoPreco = infoUtils.lerPreco();
         if (novoPreco == null || novoPreco.compareTo(BigDecimal.ZERO) <= 0) {
             System.out.println("Preço inválido.");
             return;
         }
-        ativoManager.editarAtivo(escolha - 1, novoPreco);
-        System.out.println("Preço atualizado para: R$ " + novoPreco);
+        try {
+            ativoManager.editarAtivo(ticker, novoPreco);
+            System.out.println("Preço atualizado para: R$ " + novoPreco);
+        } catch (IllegalArgumentException e) {
+            // excluído por outra thread entre a busca e a edição
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void atualizarPrecosEmLote() {
+        System.out.println("\n===== ATUALIZAR PREÇOS EM LOTE =====");
+        String caminho = infoUtils.lerTexto("Informe o caminho do CSV (Ticker;Preço)");
+        int alterados = ativoManager.atualizarPrecosDeArquivo(caminho);
+        System.out.println("Preços atualizados: " + alterados);
+    }
+
+    // uma troca na tabela de câmbio reavalia todas as posições em dólar
+    private void atualizarCambio() {
+        TabelaCambio cambio = TabelaCambio.padrao();
+        System.out.println("Cotação atual: R$ " + cambio.taxa(Moeda.USD));
+        BigDecimal taxa = infoUtils.lerBigDecimal("Nova cotação do dólar (R$)");
+        try {
+            cambio.atualizar(Map.of(Moeda.USD, taxa));
+            System.out.println("Cotação do dólar atualizada para R$ " + taxa);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Falha ao atualizar cotação: " + e.getMessage());
+        }
+    }
+
+    private void consultarDetentores() {
+        String ticker = infoUtils.lerTicker();
+        Ativo ativo = ativoManager.buscarPorTicker(ticker);
+        if (ativo == null) {
+            System.out.println("Ativo não encontrado: " + ticker);
+            return;
+        }
+        List<Investidor> detentores = investidorManager.buscarDetentores(ativo);
+        if (detentores.isEmpty()) {
+            System.out.println("Nenhum investidor possui " + ativo.getTicker() + ".");
+            return;
+        }
+        for (Investidor inv : detentores) {
+            System.out.println(inv.getIdentificador() + " - " + inv.getNome()
+                    + " | Quantidade: " + inv.getCarteira().getQuantidade(ativo));
+        }
     }
 
     private void excluirAtivo() {
@@ -179,16 +229,19 @@ public class Menu {
             System.out.println("Nenhum ativo disponível.");
             return;
         }
-        for (int i = 0; i < lista.size(); i++) {
-            System.out.println((i + 1) + " - " + lista.get(i));
+        lista.forEach(System.out::println);
+        String ticker = infoUtils.lerTicker();
+        Ativo alvo = ativoManager.buscarPorTicker(ticker);
+        if (alvo == null) {
+            System.out.println("Ativo não encontrado: " + ticker);
+            return;
+        }
+        // remover do manager e propagar remoção nas carteiras
+        if (!ativoManager.excluirAtivo(alvo)) {
+            System.out.println("Ativo já havia sido excluído: " + alvo.getTicker());
+            return;
         }
-        System.out.print("Escolha uma opção: ");
-        int escolha = inputUtils.lerOpcao(1, lista.size());
-        Ativo alvo = lista.get(escolha - 1);
-        // propagar remoção nas carteiras
         investidorManager.removerAtivoDeTodasCarteiras(alvo);
-        // remover do manager
-        ativoManager.excluirAtivo(escolha - 1);
         System.out.println("Ativo excluído: " + alvo.getTicker());
     }
 
@@ -221,15 +274,17 @@ public class Menu {
             System.out.println("3 - Exibir todos investidores");
             System.out.println("4 - Excluir investidores por lista de CPFs/CNPJs");
             System.out.println("5 - Selecionar investidor por CPF/CNPJ");
+            System.out.println("6 - Importar movimentações de vários investidores (arquivo consolidado)");
             System.out.println("0 - Voltar");
             System.out.print("Escolha uma opção: ");
-            int opcao = inputUtils.lerOpcao(0, 5);
+            int opcao = inputUtils.lerOpcao(0, 6);
             switch (opcao) {
                 case 1 -> cadastrarInvestidor();
                 case 2 -> cadastrarInvestidorEmLote();
                 case 3 -> investidorManager.getInvestidores().forEach(System.out::println);
                 case 4 -> excluirInvestidoresPorLista();
                 case 5 -> selecionarInvestidor();
+                case 6 -> importarMovimentacoesConsolidadas();
                 case 0 -> rodando = false;
             }
         }
@@ -297,8 +352,12 @@ public class Menu {
                     ? PerfilInvestimento.MODERADO
                     : PerfilInvestimento.ARROJADO;
             Investidor inv = new PessoaFisica(nome, cpf, data, telefone, endereco, patrimonio, perfil);
-            investidorManager.adicionarInvestidor(inv);
-            System.out.println("Pessoa Física cadastrada - Nome: " + inv.getNome() + " | CPF: " + inv.getIdentificador());
+            try {
+                investidorManager.adicionarInvestidor(inv);
+                System.out.println("Pessoa Física cadastrada - Nome: " + inv.getNome() + " | CPF: " + inv.getIdentificador());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Falha ao cadastrar investidor: " + e.getMessage());
+            }
         } else {
             String nome = infoUtils.lerNome("Nome Fantasia");
             String cnpj = infoUtils.lerCNPJ();
@@ -308,8 +367,12 @@ public class Menu {
             BigDecimal patrimonio = infoUtils.lerPatrimonio();
             String razaoSocial = infoUtils.lerRazaoSocial();
             Investidor inv = new Institucional(nome, cnpj, data, telefone, endereco, patrimonio, razaoSocial);
-            investidorManager.adicionarInvestidor(inv);
-            System.out.println("Instituição cadastrada: " + inv.getIdentificador());
+            try {
+                investidorManager.adicionarInvestidor(inv);
+                System.out.println("Instituição cadastrada: " + inv.getIdentificador());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Falha ao cadastrar investidor: " + e.getMessage());
+            }
         }
     }
 
@@ -401,51 +464,29 @@ public class Menu {
     }
 
     private void exibirPercentuaisRenda(Investidor inv) {
-        System.out.println("Renda fixa: " + inv.getCarteira().percentualRendaFixa() + "%");
-        System.out.println("Renda variável: " + inv.getCarteira().percentualRendaVariavel() + "%");
+        ComposicaoCarteira composicao = inv.getCarteira().composicao();
+        System.out.println("Renda fixa: " + composicao.percentualRenda(TipoRenda.FIXA) + "%");
+        System.out.println("Renda variável: " + composicao.percentualRenda(TipoRenda.VARIAVEL) + "%");
+        exibirPercentuaisPorTipo(composicao);
     }
 
     private void exibirPercentuaisLocalizacao(Investidor inv) {
-        System.out.println("Nacional: " + inv.getCarteira().percentualNacional() + "%");
-        System.out.println("Internacional: " + inv.getCarteira().percentualInternacional() + "%");
+        ComposicaoCarteira composicao = inv.getCarteira().composicao();
+        System.out.println("Nacional: " + composicao.percentualOrigem(Origem.NACIONAL) + "%");
+        System.out.println("Internacional: " + composicao.percentualOrigem(Origem.INTERNACIONAL) + "%");
+    }
+
+    private void exibirPercentuaisPorTipo(ComposicaoCarteira composicao) {
+        for (Class<? extends Ativo> tipo : composicao.getPorTipoAtivo().keySet()) {
+            System.out.println("  " + tipo.getSimpleName() + ": " + composicao.percentualTipoAtivo(tipo) + "%");
+        }
     }
 
     private void salvarRelatorioInvestidor(Investidor inv) {
         System.out.println("\n===== SALVAR RELATÓRIO DO INVESTIDOR =====");
         String caminho = infoUtils.lerTexto("Informe o caminho do arquivo de saída (ex: C:/temp/relatorio.json)");
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\n");
-        sb.append("  \"identificador\": \"").append(inv.getIdentificador()).append("\",\n");
-        sb.append("  \"nome\": \"").append(inv.getNome()).append("\",\n");
-        sb.append("  \"patrimonio\": ").append(inv.getPatrimonio()).append(",\n");
-        sb.append("  \"carteira\": [\n");
-
-        var mapa = inv.getCarteira().getAtivos(); // Map<Ativo, BigDecimal>
-        int i = 0;
-        for (var entry : mapa.entrySet()) {
-            Ativo ativo = entry.getKey();
-            var qtd = entry.getValue();
-            BigDecimal valorGasto = inv.getCarteira().getValorGastoPorAtivo(ativo);
-            BigDecimal valorAtual = ativo.converterParaReal().multiply(qtd);
-            sb.append("    {\n");
-            sb.append("      \"identificador\": \"").append(ativo.getTicker()).append("\",\n");
-            sb.append("      \"nome\": \"").append(ativo.getNome()).append("\",\n");
-            sb.append("      \"quantidade\": ").append(qtd).append(",\n");
-            sb.append("      \"valorGasto\": ").append(valorGasto).append(",\n");
-            sb.append("      \"valorAtual\": ").append(valorAtual).append("\n");
-            sb.append("    }");
-            i++;
-            if (i < mapa.size()) sb.append(",");
-            sb.append("\n");
-        }
-
-        sb.append("  ],\n");
-        sb.append("  \"valorTotalGasto\": ").append(inv.getCarteira().getValorTotalGasto()).append(",\n");
-        sb.append("  \"valorTotalAtual\": ").append(inv.getCarteira().getValorTotalAtual()).append("\n");
-        sb.append("}\n");
-
-        try (FileWriter fw = new FileWriter(caminho)) {
-            fw.write(sb.toString());
+        try {
+            RelatorioInvestidor.salvar(inv, caminho);
             System.out.println("Relatório salvo em: " + caminho);
         } catch (IOException e) {
             System.out.println("Erro ao salvar relatório: " + e.getMessage());
@@ -509,60 +550,32 @@ public class Menu {
         }
     }
 
-    private void adicionarMovimentacoesDeArquivo(Investidor inv) {
-        String caminho = infoUtils.lerTexto("Informe o caminho do arquivo CSV de movimentações");
+    private void importarMovimentacoesConsolidadas() {
+        String caminho = infoUtils.lerTexto("Informe o caminho do CSV consolidado (Identificador;Tipo;Ticker;Quantidade;Preço)");
         try {
-            List<String[]> linhas = utils.CsvReader.lerCsv(caminho);
-            if (linhas == null || linhas.isEmpty()) {
+            ResultadoImportacao r = importadorMovimentacoes.importarConsolidado(
+                    investidorManager, caminho, ResultadoImportacao.console(caminho));
+            if (r.getLidas() <= 0) {
                 System.out.println("Arquivo vazio ou não encontrado.");
                 return;
             }
+            System.out.println("Movimentações processadas. Sucesso: " + r.getAceitas() + " | Erros: " + r.getRejeitadas());
+        } catch (Exception e) {
+            System.out.println("Erro ao carregar movimentações: " + e.getMessage());
+        }
+    }
 
-            int ok = 0, erro = 0;
-            for (int idx = 1; idx < linhas.size(); idx++) { // começa do 1 para pular cabeçalho
-                String[] cols = linhas.get(idx);
-                try {
-                    String tipo = cols.length > 0 ? cols[0].trim().toUpperCase() : "";
-                    String ticker = cols.length > 1 ? cols[1].trim() : "";
-                    String qtdStr = cols.length > 2 ? cols[2].trim() : "";
-                    String precoStr = cols.length > 3 ? cols[3].trim() : "";
-
-                    if (ticker.isBlank()) throw new IllegalArgumentException("Ticker vazio.");
-                    if (qtdStr.isBlank()) throw new IllegalArgumentException("Quantidade vazia.");
-
-                    BigDecimal quantidade = new BigDecimal(qtdStr.replace(",", "."));
-                    if (quantidade.compareTo(BigDecimal.ZERO) <= 0)
-                        throw new IllegalArgumentException("Quantidade deve ser > 0.");
-
-                    // procurar ativo pelo ticker
-                    Ativo ativoAlvo = ativoManager.getAtivos().stream()
-                            .filter(a -> a.getTicker().equalsIgnoreCase(ticker))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalArgumentException("Ativo não encontrado: " + ticker));
-
-                    BigDecimal precoExec = precoStr.isBlank()
-                            ? ativoAlvo.getPrecoAtual()
-                            : new BigDecimal(precoStr.replace(",", "."));
-
-                    if (precoExec.compareTo(BigDecimal.ZERO) <= 0)
-                        throw new IllegalArgumentException("Preço de execução deve ser > 0.");
-
-                    if ("C".equals(tipo)) {
-                        inv.comprar(ativoAlvo, quantidade, precoExec);
-                    } else if ("V".equals(tipo)) {
-                        inv.vender(ativoAlvo, quantidade);
-                    } else {
-                        throw new IllegalArgumentException("Tipo inválido (use C ou V): " + tipo);
-                    }
-                    ok++;
-                } catch (IllegalArgumentException e) {
-                    erro++;
-                    System.out.println("Linha " + (idx + 1) + " ignorada: " + e.getMessage());
-                }
+    private void adicionarMovimentacoesDeArquivo(Investidor inv) {
+        String caminho = infoUtils.lerTexto("Informe o caminho do arquivo CSV de movimentações");
+        try {
+            ResultadoImportacao r = importadorMovimentacoes.importar(inv, caminho, ResultadoImportacao.console(caminho));
+            if (r.getLidas() <= 0) {
+                System.out.println("Arquivo vazio ou não encontrado.");
+                return;
             }
-            System.out.println("Movimentações processadas. Sucesso: " + ok + " | Erros: " + erro);
+            System.out.println("Movimentações processadas. Sucesso: " + r.getAceitas() + " | Erros: " + r.getRejeitadas());
         } catch (Exception e) {
             System.out.println("Erro ao carregar movimentações: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package io;
+
+import model.ativo.Ativo;
+import model.ativo.TipoRenda;
+import model.carteira.ComposicaoCarteira;
+import model.carteira.FotografiaCarteira;
+import model.investidor.Investidor;
+import model.investidor.Origem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+// Relatório JSON de um investidor e sua carteira, usado pelo menu e pelo modo em lote.
+//
+// O JSON é escrito em fluxo (EscritorJson) direto no arquivo, a partir de uma única fotografia da
+// carteira: linhas, percentuais e totais saem da mesma cópia das posições.
+// Em lote: salvarTodos grava um arquivo por investidor em paralelo (um escritor por partição) e
+// salvarNdjson grava todos num único arquivo, um relatório compacto por linha.
+public final class RelatorioInvestidor {
+
+    private static final StandardOpenOption[] GRAVACAO = {
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+    // investidores por bloco do NDJSON: cada bloco é montado em memória por uma thread e gravado em ordem
+    private static final int INVESTIDORES_POR_BLOCO = 512;
+
+    private RelatorioInvestidor() {
+    }
+
+    public static String gerar(Investidor inv) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (EscritorJson json = new EscritorJson(Channels.newChannel(saida), true)) {
+            escrever(inv, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // não acontece em memória
+        }
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    public static void escrever(Investidor inv, EscritorJson json) throws IOException {
+        FotografiaCarteira fotografia = inv.getCarteira().fotografia();
+        ComposicaoCarteira composicao = fotografia.composicao();
+
+        json.inicioObjeto();
+        json.campo("identificador", inv.getIdentificador());
+        json.campo("nome", inv.getNome());
+        json.campo("patrimonio", inv.getPatrimonio());
+        json.inicioLista("carteira");
+        for (FotografiaCarteira.Linha linha : fotografia.linhas()) {
+            json.inicioObjeto();
+            json.campo("identificador", linha.ativo().getTicker());
+            json.campo("nome", linha.ativo().getNome());
+            json.campo("quantidade", linha.quantidade());
+            json.campo("valorGasto", linha.valorGasto());
+            json.campo("valorAtual", linha.valorAtual());
+            json.fimObjeto();
+        }
+        json.fimLista();
+
+        json.inicioObjeto("percentuais");
+        json.campo("rendaFixa", composicao.percentualRenda(TipoRenda.FIXA));
+        json.campo("rendaVariavel", composicao.percentualRenda(TipoRenda.VARIAVEL));
+        json.campo("nacional", composicao.percentualOrigem(Origem.NACIONAL));
+        json.campo("internacional", composicao.percentualOrigem(Origem.INTERNACIONAL));
+        for (Class<? extends Ativo> tipo : composicao.getPorTipoAtivo().keySet()) {
+            json.campo(tipo.getSimpleName(), composicao.percentualTipoAtivo(tipo));
+        }
+        json.fimObjeto();
+        json.campo("valorTotalGasto", composicao.getValorTotalGasto());
+        json.campo("valorTotalAtual", composicao.getValorTotal());
+        json.fimObjeto();
+        json.fimDocumento();
+    }
+
+    public static void salvar(Investidor inv, String caminho) throws IOException {
+        try (EscritorJson json = new EscritorJson(FileChannel.open(Path.of(caminho), GRAVACAO), true)) {
+            escrever(inv, json);
+        }
+    }
+
+    // Um arquivo <identificador>.json por investidor no diretório, em paralelo. Retorna quantos foram gravados.
+    public static int salvarTodos(Collection<Investidor> investidores, Path diretorio) throws IOException {
+        return salvarTodos(investidores, diretorio, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static int salvarTodos(Collection<Investidor> investidores, Path diretorio, int particoes) throws IOException {
+        if (particoes < 1) throw new IllegalArgumentException("Número de partições deve ser >= 1.");
+        Files.createDirectories(diretorio);
+        List<Investidor> lista = new ArrayList<>(investidores);
+        List<Future<Integer>> gravados = new ArrayList<>(particoes);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < particoes; p++) {
+                List<Investidor> parte = lista.subList(lista.size() * p / particoes, lista.size() * (p + 1) / particoes);
+                gravados.add(executor.submit(() -> salvarParticao(parte, diretorio)));
+            }
+        } // close() espera todas as partições terminarem
+        int total = 0;
+        for (Future<Integer> f : gravados) total += resultado(f);
+        return total;
+    }
+
+    // um escritor (e seus buffers) para a partição inteira; só o canal muda de um arquivo para outro
+    private static int salvarParticao(List<Investidor> parte, Path diretorio) throws IOException {
+        if (parte.isEmpty()) return 0;
+        EscritorJson json = null;
+        for (Investidor inv : parte) {
+            FileChannel canal = FileChannel.open(diretorio.resolve(inv.getIdentificador() + ".json"), GRAVACAO);
+            try (canal) {
+                if (json == null) json = new EscritorJson(canal, true);
+                else json.redirecionar(canal);
+                escrever(inv, json);
+                json.flush();
+            }
+        }
+        return parte.size();
+    }
+
+    // Todos os investidores num único arquivo NDJSON (um relatório compacto por linha, na ordem da
+    // coleção). Os blocos são montados em paralelo e gravados em sequência. Retorna quantos foram gravados.
+    public static int salvarNdjson(Collection<Investidor> investidores, Path arquivo) throws IOException {
+        List<Investidor> lista = new ArrayList<>(investidores);
+        int blocos = (lista.size() + INVESTIDORES_POR_BLOCO - 1) / INVESTIDORES_POR_BLOCO;
+        // rodadas de alguns blocos por thread: limita a memória a poucos blocos montados por vez
+        int porRodada = Math.max(1, Runtime.getRuntime().availableProcessors()) * 2;
+        try (FileChannel canal = FileChannel.open(arquivo, GRAVACAO)) {
+            for (int inicio = 0; inicio < blocos; inicio += porRodada) {
+                List<byte[]> montados;
+                try {
+                    montados = IntStream.range(inicio, Math.min(blocos, inicio + porRodada))
+                            .parallel()
+                            .mapToObj(b -> montarBloco(lista.subList(b * INVESTIDORES_POR_BLOCO,
+                                    Math.min(lista.size(), (b + 1) * INVESTIDORES_POR_BLOCO))))
+                            .toList();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                for (byte[] bloco : montados) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bloco);
+                    while (buffer.hasRemaining()) canal.write(buffer);
+                }
+            }
+        }
+        return lista.size();
+    }
+
+    private static byte[] montarBloco(List<Investidor> bloco) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(bloco.size() * 1024);
+        try (EscritorJson json = new EscritorJson(Channels.newChannel(saida), false)) {
+            for (Investidor inv : bloco) escrever(inv, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private static int resultado(Future<Integer> f) throws IOException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gravação dos relatórios interrompida.", e);
+        }
+    }
+}
@@ -2,18 +2,39 @@ package model.ativo;
 
 import exception.AtivoInvalidoException;
 import model.investidor.Origem;
+import utils.PontoFixo;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Ativo {
     private final String nome;
     private final String ticker;
-    private BigDecimal precoAtual; // não vamos usar double para evitar imprecisão
+    private volatile BigDecimal precoAtual; // não vamos usar double para evitar imprecisão; volatile: lido pelas carteiras em outras threads
     private final boolean restritoQualificado;
     private final TipoRenda tipoRenda; // fixa/variável
     private final Origem origem; // nacional/internacional;
+    private final Moeda moeda; // moeda do preço; a conversão para real usa a tabela de câmbio
+    private final TabelaCambio cambio;
+    // ticker normalizado e hash calculados uma vez: equals/hashCode são chamados em todo acesso aos mapas da carteira
+    private final String chaveTicker;
+    private final int hash;
+    // quem precisa saber de mudanças de preço (ex.: carteiras que possuem o ativo)
+    private final Set<PrecoListener> ouvintes = ConcurrentHashMap.newKeySet();
+    // preço em reais já em unidades de ponto fixo, amarrado ao preço de onde saiu (ver getPrecoEmReaisPontoFixo)
+    private volatile PrecoPontoFixo precoPontoFixo;
+    // já está na tabela de câmbio (entra com o primeiro ouvinte: sem ouvintes, ninguém precisa do aviso)
+    private volatile boolean registradoNoCambio;
 
     public Ativo(String nome, String ticker, BigDecimal precoAtual, boolean restritoQualificado, TipoRenda tipoRenda, Origem origem) {
+        this(nome, ticker, precoAtual, restritoQualificado, tipoRenda, origem, Moeda.BRL, TabelaCambio.padrao());
+    }
+
+    public Ativo(String nome, String ticker, BigDecimal precoAtual, boolean restritoQualificado, TipoRenda tipoRenda,
+                 Origem origem, Moeda moeda, TabelaCambio cambio) {
         if (nome == null || nome.isBlank()) {
             throw new AtivoInvalidoException("Nome do ativo não pode ser nulo ou vazio.");
         }
@@ -34,12 +55,20 @@ public abstract class Ativo {
             throw new AtivoInvalidoException("Origem do ativo não pode ser nula.");
         }
 
+        if (moeda == null || cambio == null) {
+            throw new AtivoInvalidoException("Moeda e tabela de câmbio do ativo não podem ser nulas.");
+        }
+
         this.nome = nome;
         this.ticker = ticker;
         this.precoAtual = precoAtual;
         this.restritoQualificado = restritoQualificado;
         this.tipoRenda = tipoRenda;
         this.origem = origem;
+        this.moeda = moeda;
+        this.cambio = cambio;
+        this.chaveTicker = ticker.trim().toUpperCase();
+        this.hash = 31 * getClass().hashCode() + chaveTicker.hashCode();
     }
 
     public String getNome() {
@@ -50,6 +79,11 @@ public abstract class Ativo {
         return ticker;
     }
 
+    // ticker sem espaços e em maiúsculas (mesma chave usada no equals e no índice do catálogo)
+    public String getChaveTicker() {
+        return chaveTicker;
+    }
+
     public BigDecimal getPrecoAtual() {
         return precoAtual;
     }
@@ -66,20 +100,76 @@ public abstract class Ativo {
         return origem;
     }
 
-    public void atualizarPreco(BigDecimal precoNovo) {
+    public Moeda getMoeda() {
+        return moeda;
+    }
+
+    public TabelaCambio getCambio() {
+        return cambio;
+    }
+
+    // Atualiza o preço e publica o evento para os ouvintes (carteiras que possuem o ativo,
+    // catálogo etc.). Retorna false, sem publicar nada, se o preço não mudou.
+    public boolean atualizarPreco(BigDecimal precoNovo) {
         if (precoNovo == null || precoNovo.compareTo(BigDecimal.ZERO) <= 0) {
             throw new AtivoInvalidoException("Novo preço deve ser maior que zero.");
         }
 
-        this.precoAtual = precoNovo;
+        // só a troca do preço é serializada (vários feeds no mesmo ativo); a leitura do preço
+        // não usa lock e os ouvintes são avisados fora do bloco
+        BigDecimal anterior;
+        synchronized (this) {
+            anterior = this.precoAtual;
+            if (anterior.compareTo(precoNovo) == 0) return false;
+            this.precoAtual = precoNovo;
+        }
+        for (PrecoListener ouvinte : ouvintes) {
+            ouvinte.precoAlterado(this, anterior, precoNovo);
+        }
+        return true;
+    }
+
+    // A cotação da moeda mudou: o preço é o mesmo, mas o valor em reais não. Os ouvintes recebem o
+    // evento como uma mudança de preço (anterior == novo) e recalculam com a cotação vigente.
+    void cambioAlterado() {
+        BigDecimal preco = precoAtual;
+        for (PrecoListener ouvinte : ouvintes) {
+            ouvinte.precoAlterado(this, preco, preco);
+        }
+    }
+
+    // O registro na tabela de câmbio vem antes do ouvinte: uma troca de cotação depois disso avisa
+    // o ouvinte ou acontece antes de ele ler o preço. Fora do construtor, a tabela (compartilhada
+    // entre threads) nunca vê um ativo pela metade.
+    public void adicionarOuvinte(PrecoListener ouvinte) {
+        if (ouvinte == null) throw new IllegalArgumentException("Ouvinte não pode ser nulo.");
+        if (!registradoNoCambio) {
+            synchronized (ouvintes) {
+                if (!registradoNoCambio) {
+                    cambio.registrar(this);
+                    registradoNoCambio = true;
+                }
+            }
+        }
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(PrecoListener ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    // visão somente leitura dos ouvintes (as carteiras detentoras estão aqui)
+    public Collection<PrecoListener> getOuvintes() {
+        return Collections.unmodifiableSet(ouvintes);
     }
 
-    // metodo padrão, nacionais retornam o preço atual
+    // valor na moeda do ativo convertido para real pela cotação vigente (nacionais: o próprio valor)
     public BigDecimal converterValorParaReal(BigDecimal valor) {
         if (valor == null) {
             throw new AtivoInvalidoException("Valor para conversão não pode ser nulo.");
         }
-        return valor; // padrão: nacional
+        if (moeda == Moeda.BRL) return valor;
+        return valor.multiply(cambio.taxa(moeda));
     }
 
     // preço atual convertido para real
@@ -87,6 +177,25 @@ public abstract class Ativo {
         return converterValorParaReal(precoAtual);
     }
 
+    // Preço atual em reais em unidades de PontoFixo.REAL (ou PontoFixo.INVALIDO se tiver mais casas
+    // que a escala). Convertido uma vez por mudança de preço ou de câmbio, não uma vez por carteira
+    // detentora; o cache guarda o preço e a fotografia de câmbio de origem, então nunca devolve a
+    // conversão de um preço ou cotação antigos.
+    public long getPrecoEmReaisPontoFixo() {
+        BigDecimal preco = precoAtual;
+        TabelaCambio.Cotacoes cotacoes = moeda == Moeda.BRL ? null : cambio.getCotacoes();
+        PrecoPontoFixo cache = precoPontoFixo;
+        if (cache == null || cache.preco() != preco || cache.cotacoes() != cotacoes) {
+            BigDecimal emReais = moeda == Moeda.BRL ? preco : preco.multiply(cotacoes.taxa(moeda));
+            cache = new PrecoPontoFixo(preco, cotacoes, PontoFixo.REAL.unidades(emReais));
+            precoPontoFixo = cache;
+        }
+        return cache.unidades();
+    }
+
+    private record PrecoPontoFixo(BigDecimal preco, TabelaCambio.Cotacoes cotacoes, long unidades) {
+    }
+
     @Override
     public String toString() {
         return String.format("%s (%s) - R$ %s", nome, ticker, precoAtual);
@@ -100,18 +209,14 @@ public abstract class Ativo {
         if (getClass() != o.getClass()) return false;
 
         Ativo other = (Ativo) o;
-        String t1 = (this.getTicker() == null) ? "" : this.getTicker().trim().toUpperCase();
-        String t2 = (other.getTicker() == null) ? "" : other.getTicker().trim().toUpperCase();
-        return t1.equals(t2);
+        return hash == other.hash && chaveTicker.equals(other.chaveTicker);
     }
 
     @Override
     public int hashCode() {
-        String t = (this.getTicker() == null) ? "" : this.getTicker().trim().toUpperCase();
-        return 31 * getClass().hashCode() + t.hashCode();
+        return hash;
     }
 
-
 }
 
 
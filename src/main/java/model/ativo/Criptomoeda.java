@@ -8,7 +8,17 @@ import java.math.BigDecimal;
 public class Criptomoeda extends Ativo {
 
     private final String algoritmoConsenso;
-    private final BigDecimal fatorConversao;   // ex: dólar -> real
+    private final BigDecimal quantidadeMaxima; // null = sem limite conhecido
+
+    // cotada em dólar, convertida pela tabela de câmbio padrão
+    public Criptomoeda(String nome,
+                       String ticker,
+                       BigDecimal precoAtual,
+                       boolean restritoQualificados,
+                       String algoritmoConsenso,
+                       BigDecimal quantidadeMaxima) {
+        this(nome, ticker, precoAtual, restritoQualificados, algoritmoConsenso, quantidadeMaxima, Moeda.USD, TabelaCambio.padrao());
+    }
 
     public Criptomoeda(String nome,
                        String ticker,
@@ -16,34 +26,30 @@ public class Criptomoeda extends Ativo {
                        boolean restritoQualificados,
                        String algoritmoConsenso,
                        BigDecimal quantidadeMaxima,
-                       BigDecimal fatorConversao) {
+                       Moeda moeda,
+                       TabelaCambio cambio) {
 
-        super(nome, ticker, precoAtual, restritoQualificados, TipoRenda.VARIAVEL, Origem.INTERNACIONAL);
+        super(nome, ticker, precoAtual, restritoQualificados, TipoRenda.VARIAVEL, Origem.INTERNACIONAL, moeda, cambio);
 
         if (algoritmoConsenso == null || algoritmoConsenso.isBlank()) {
             throw new AtivoInvalidoException("Algoritmo de consenso não pode ser nulo ou vazio.");
         }
 
-        if (fatorConversao == null || fatorConversao.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new AtivoInvalidoException("Fator de conversão deve ser maior que zero.");
-        }
-
         if (quantidadeMaxima != null && quantidadeMaxima.compareTo(BigDecimal.ZERO) < 0) {
             throw new AtivoInvalidoException("Quantidade máxima não pode ser negativa.");
         }
 
         this.algoritmoConsenso = algoritmoConsenso.trim();
-        this.fatorConversao = fatorConversao;
+        this.quantidadeMaxima = quantidadeMaxima;
     }
 
-    @Override
-    public BigDecimal converterValorParaReal(BigDecimal valor) {
-        if (valor == null) {
-            throw new AtivoInvalidoException("Valor para conversão não pode ser nulo.");
-        }
-        return valor.multiply(fatorConversao);
+    public String getAlgoritmoConsenso() {
+        return algoritmoConsenso;
     }
 
+    public BigDecimal getQuantidadeMaxima() {
+        return quantidadeMaxima;
+    }
 
     @Override
     public String toString() {
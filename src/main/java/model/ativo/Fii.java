@@ -45,6 +45,10 @@ public class Fii extends Ativo {
         return ultimoDividendo;
     }
 
+    public BigDecimal getTaxaAdministracao() {
+        return taxaAdministracao;
+    }
+
     // metodo que exibe a taxa concatenada + %
     public String getTaxaAdministracaoFormatada() {
         return taxaAdministracao.toPlainString() + "%";
@@ -0,0 +1,7 @@
+package model.ativo;
+
+// Moeda em que o preço do ativo é cotado; a conversão para real passa pela TabelaCambio
+public enum Moeda {
+    BRL,
+    USD
+}
@@ -0,0 +1,9 @@
+package model.ativo;
+
+import java.math.BigDecimal;
+
+// Notificado sempre que o preço de um ativo muda via Ativo.atualizarPreco, e também quando muda a
+// cotação da moeda do ativo na TabelaCambio (aí precoAnterior == precoNovo: só o valor em reais mudou)
+public interface PrecoListener {
+    void precoAlterado(Ativo ativo, BigDecimal precoAnterior, BigDecimal precoNovo);
+}
@@ -9,7 +9,16 @@ public class Stock extends Ativo {
 
     private final String bolsaNegociacao;
     private final String setor;
-    private final BigDecimal fatorConversao; // ex: dólar -> real
+
+    // cotada em dólar, convertida pela tabela de câmbio padrão
+    public Stock(String nome,
+                 String ticker,
+                 BigDecimal precoAtual,
+                 boolean restritoQualificados,
+                 String bolsaNegociacao,
+                 String setor) {
+        this(nome, ticker, precoAtual, restritoQualificados, bolsaNegociacao, setor, Moeda.USD, TabelaCambio.padrao());
+    }
 
     public Stock(String nome,
                  String ticker,
@@ -17,9 +26,10 @@ public class Stock extends Ativo {
                  boolean restritoQualificados,
                  String bolsaNegociacao,
                  String setor,
-                 BigDecimal fatorConversao) {
+                 Moeda moeda,
+                 TabelaCambio cambio) {
 
-        super(nome, ticker, precoAtual, restritoQualificados, TipoRenda.VARIAVEL, Origem.INTERNACIONAL);
+        super(nome, ticker, precoAtual, restritoQualificados, TipoRenda.VARIAVEL, Origem.INTERNACIONAL, moeda, cambio);
 
         if (bolsaNegociacao == null || bolsaNegociacao.isBlank()) {
             throw new AtivoInvalidoException("Bolsa de negociação não pode ser nula ou vazia.");
@@ -29,23 +39,17 @@ public class Stock extends Ativo {
             throw new AtivoInvalidoException("Setor da Stock não pode ser nulo ou vazio.");
         }
 
-        if (fatorConversao == null || fatorConversao.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new AtivoInvalidoException("Fator de conversão deve ser maior que zero.");
-        }
-
         this.bolsaNegociacao = bolsaNegociacao.trim();
         this.setor = setor.trim();
-        this.fatorConversao = fatorConversao;
     }
 
-    @Override
-    public BigDecimal converterValorParaReal(BigDecimal valor) {
-        if (valor == null) {
-            throw new AtivoInvalidoException("Valor para conversão não pode ser nulo.");
-        }
-        return valor.multiply(fatorConversao);
+    public String getBolsaNegociacao() {
+        return bolsaNegociacao;
     }
 
+    public String getSetor() {
+        return setor;
+    }
 
     @Override
     public String toString() {
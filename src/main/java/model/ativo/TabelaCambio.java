@@ -0,0 +1,159 @@
+package model.ativo;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Cotações em reais das moedas dos ativos, compartilhadas por todos eles (antes cada Stock e
+// Criptomoeda guardava o próprio fator fixo, e mudar o dólar exigia recriar os ativos).
+//
+// A tabela é uma fotografia imutável trocada atomicamente: converter um valor é uma leitura volatile
+// e um acesso a array. Ao mudar a cotação de uma moeda, cada ativo nessa moeda avisa seus ouvintes
+// (como numa mudança de preço), então todas as posições na moeda são reavaliadas numa única chamada.
+public final class TabelaCambio {
+
+    // fator usado até aqui quando o arquivo não trazia um
+    public static final BigDecimal USD_PADRAO = BigDecimal.valueOf(5);
+
+    private static final TabelaCambio PADRAO = new TabelaCambio();
+
+    private final AtomicReference<Cotacoes> cotacoes;
+    // ativos por moeda, para avisar na troca; referência fraca: ativo excluído do catálogo não fica preso aqui.
+    // As referências de ativos já coletados chegam em coletados e saem do conjunto no próximo registro
+    // ou troca de cotação (sem isso, ativos criados e descartados acumulariam entradas vazias).
+    private final Map<Moeda, Set<Registro>> ativosPorMoeda = new EnumMap<>(Moeda.class);
+    private final ReferenceQueue<Ativo> coletados = new ReferenceQueue<>();
+
+    public TabelaCambio() {
+        this(Map.of(Moeda.USD, USD_PADRAO));
+    }
+
+    public TabelaCambio(Map<Moeda, BigDecimal> iniciais) {
+        this.cotacoes = new AtomicReference<>(Cotacoes.INICIAL.com(iniciais));
+        for (Moeda moeda : Moeda.values()) {
+            ativosPorMoeda.put(moeda, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    // tabela usada pelos ativos criados sem uma tabela explícita
+    public static TabelaCambio padrao() {
+        return PADRAO;
+    }
+
+    public BigDecimal taxa(Moeda moeda) {
+        return cotacoes.get().taxa(moeda);
+    }
+
+    // fotografia atual (muda de identidade a cada troca)
+    public Cotacoes getCotacoes() {
+        return cotacoes.get();
+    }
+
+    public void atualizar(Moeda moeda, BigDecimal taxa) {
+        atualizar(Map.of(moeda, taxa));
+    }
+
+    // Troca várias cotações de uma vez (ninguém vê metade da troca) e reavalia os ativos das moedas
+    // que mudaram. Retorna quantos ativos foram avisados.
+    public int atualizar(Map<Moeda, BigDecimal> novas) {
+        descartarColetados();
+        Cotacoes anterior = cotacoes.getAndUpdate(c -> c.com(novas));
+        int avisados = 0;
+        for (Map.Entry<Moeda, BigDecimal> e : novas.entrySet()) {
+            BigDecimal antes = anterior.taxas[e.getKey().ordinal()];
+            if (antes == null || antes.compareTo(e.getValue()) != 0) avisados += avisar(e.getKey());
+        }
+        return avisados;
+    }
+
+    void registrar(Ativo ativo) {
+        if (ativo.getMoeda() == Moeda.BRL) return;
+        descartarColetados();
+        ativosPorMoeda.get(ativo.getMoeda()).add(new Registro(ativo, coletados));
+    }
+
+    private void descartarColetados() {
+        Reference<? extends Ativo> ref;
+        while ((ref = coletados.poll()) != null) {
+            Registro registro = (Registro) ref;
+            ativosPorMoeda.get(registro.moeda).remove(registro);
+        }
+    }
+
+    private int avisar(Moeda moeda) {
+        int avisados = 0;
+        Iterator<Registro> it = ativosPorMoeda.get(moeda).iterator();
+        while (it.hasNext()) {
+            Ativo ativo = it.next().get();
+            if (ativo == null) {
+                it.remove();
+                continue;
+            }
+            ativo.cambioAlterado();
+            avisados++;
+        }
+        return avisados;
+    }
+
+    // Referência fraca que lembra a moeda do ativo, para sair do conjunto certo depois de coletada
+    private static final class Registro extends WeakReference<Ativo> {
+        final Moeda moeda;
+
+        Registro(Ativo ativo, ReferenceQueue<Ativo> fila) {
+            super(ativo, fila);
+            this.moeda = ativo.getMoeda();
+        }
+    }
+
+    // Cotações de uma fotografia, indexadas pelo ordinal da moeda (BRL = 1)
+    public static final class Cotacoes {
+
+        private static final Cotacoes INICIAL = inicial();
+
+        private final BigDecimal[] taxas;
+
+        private Cotacoes(BigDecimal[] taxas) {
+            this.taxas = taxas;
+        }
+
+        private static Cotacoes inicial() {
+            BigDecimal[] taxas = new BigDecimal[Moeda.values().length];
+            taxas[Moeda.BRL.ordinal()] = BigDecimal.ONE;
+            return new Cotacoes(taxas);
+        }
+
+        public BigDecimal taxa(Moeda moeda) {
+            BigDecimal taxa = taxas[moeda.ordinal()];
+            if (taxa == null) throw new IllegalStateException("Sem cotação de câmbio para " + moeda + ".");
+            return taxa;
+        }
+
+        // cotações definidas, sem o real (ex.: para gravar a tabela)
+        public Map<Moeda, BigDecimal> getTaxas() {
+            Map<Moeda, BigDecimal> definidas = new EnumMap<>(Moeda.class);
+            for (Moeda moeda : Moeda.values()) {
+                if (moeda != Moeda.BRL && taxas[moeda.ordinal()] != null) definidas.put(moeda, taxas[moeda.ordinal()]);
+            }
+            return definidas;
+        }
+
+        private Cotacoes com(Map<Moeda, BigDecimal> novas) {
+            BigDecimal[] copia = taxas.clone();
+            for (Map.Entry<Moeda, BigDecimal> e : novas.entrySet()) {
+                if (e.getKey() == Moeda.BRL) throw new IllegalArgumentException("A cotação do real é fixa em 1.");
+                if (e.getValue() == null || e.getValue().compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new IllegalArgumentException("Cotação de " + e.getKey() + " deve ser maior que zero.");
+                }
+                copia[e.getKey().ordinal()] = e.getValue();
+            }
+            return new Cotacoes(copia);
+        }
+    }
+}
@@ -3,19 +3,112 @@ package model.carteira;
 import exception.QuantidadeInsuficienteException;
 import exception.QuantidadeInvalidaException;
 import model.ativo.Ativo;
+import model.ativo.PrecoListener;
 import model.ativo.TipoRenda;
+import model.investidor.Investidor;
 import model.investidor.Origem;
+import utils.PontoFixo;
 
 import java.math.RoundingMode;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.UnaryOperator;
+
+// A carteira assina os ativos em que tem posição (ver alterarPosicao); esse conjunto
+// de ouvintes em cada Ativo é o índice reverso ativo -> carteiras detentoras.
+//
+// Segura para compras, vendas e atualizações de preço concorrentes: cada posição (quantidade, custo
+// e valor atual) é um objeto imutável trocado atomicamente no ConcurrentHashMap, então operações em
+// tickers diferentes não disputam o mesmo lock. Os totais também são imutáveis e trocados por CAS;
+// quem lê valorTotalAtual ou os percentuais pega uma fotografia coerente sem bloquear ninguém.
+//
+// Com ponto fixo (-Dgestaocarteira.pontoFixo=true ou o construtor com pontoFixo) o valor atual das
+// posições e os totais ficam em long (PontoFixo.REAL, arredondado HALF_UP), e uma mudança de preço
+// não aloca BigDecimal. Quantidade e custo continuam em BigDecimal; o custo médio da venda dá o mesmo
+// resultado nos dois modos. Se algum valor não couber num long, a carteira volta para BigDecimal.
+public class Carteira implements PrecoListener {
+
+    private final Investidor titular; // null para carteiras avulsas
+
+    private final boolean pontoFixo;
+
+    private final ConcurrentHashMap<Ativo, Posicao> posicoes = new ConcurrentHashMap<>();
+    // totais mantidos incrementalmente (em reais)
+    private final AtomicReference<Totais> totais;
+    // livro colunar que recebe cada posição alterada (null = carteira fora de livro)
+    private volatile LivroColunar livro;
+    // diário que recebe as mudanças de quantidade e custo (null = sem persistência)
+    private volatile DiarioPosicoes diario;
+
+    public Carteira() {
+        this(null);
+    }
 
-public class Carteira {
+    public Carteira(Investidor titular) {
+        this(titular, PontoFixo.ATIVO);
+    }
 
-    private final Map<Ativo, BigDecimal> ativos = new HashMap<>();
-    private final Map<Ativo, BigDecimal> valorGastoPorAtivo = new HashMap<>();
+    public Carteira(Investidor titular, boolean pontoFixo) {
+        this.titular = titular;
+        this.pontoFixo = pontoFixo;
+        this.totais = new AtomicReference<>(pontoFixo ? TotaisPontoFixo.VAZIO : TotaisDecimais.VAZIO);
+    }
 
+    public Investidor getTitular() {
+        return titular;
+    }
+
+    // Passa a repassar as posições para o livro colunar, começando pelas atuais. Feito na carga
+    // (antes de a carteira ser movimentada por outras threads); cada posição copiada passa pelo
+    // compute do ativo, então uma operação em andamento nunca é sobrescrita pela cópia.
+    public void anexarLivro(LivroColunar livro) {
+        if (livro == null) throw new IllegalArgumentException("Livro não pode ser nulo.");
+        if (this.livro == livro) return;
+        if (this.livro != null) throw new IllegalStateException("Carteira já está anexada a outro livro.");
+        this.livro = livro;
+        for (Ativo ativo : posicoes.keySet()) {
+            posicoes.computeIfPresent(ativo, (a, p) -> {
+                livro.registrar(this, a, p);
+                return p;
+            });
+        }
+    }
+
+    public LivroColunar getLivro() {
+        return livro;
+    }
+
+    // Passa a registrar no diário cada compra, venda ou ajuste de custo; as posições atuais não são
+    // regravadas (quem anexa já registrou o estado da carteira, ex.: InvestidorManager)
+    public void anexarDiario(DiarioPosicoes diario) {
+        if (diario == null) throw new IllegalArgumentException("Diário não pode ser nulo.");
+        if (titular == null) throw new IllegalStateException("Só carteiras de investidor podem ter diário.");
+        this.diario = diario;
+    }
+
+    public void desanexarDiario() {
+        this.diario = null;
+    }
+
+    public DiarioPosicoes getDiario() {
+        return diario;
+    }
+
+    // Carteiras com posição no ativo, sem percorrer investidores
+    public static List<Carteira> detentoras(Ativo ativo) {
+        List<Carteira> carteiras = new ArrayList<>();
+        for (PrecoListener ouvinte : ativo.getOuvintes()) {
+            if (ouvinte instanceof Carteira c) carteiras.add(c);
+        }
+        return carteiras;
+    }
 
     // Adiciona ativos (compra)
     public void adicionarAtivo(Ativo ativo, BigDecimal quantidade, BigDecimal precoExecucao) {
@@ -27,10 +120,14 @@ public class Carteira {
         if (precoExecucao == null || precoExecucao.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Preço de execução deve ser maior que zero.");
         }
-        ativos.merge(ativo, quantidade, BigDecimal::add);
         // custo da compra em REAL: converte o preço de execução e multiplica pela quantidade
         BigDecimal custoCompraEmReal = ativo.converterValorParaReal(precoExecucao).multiply(quantidade);
-        valorGastoPorAtivo.merge(ativo, custoCompraEmReal, BigDecimal::add);
+
+        alterarPosicao(ativo, atual -> {
+            BigDecimal novaQtd = atual == null ? quantidade : atual.quantidade().add(quantidade);
+            BigDecimal novoCusto = atual == null ? custoCompraEmReal : atual.custo().add(custoCompraEmReal);
+            return novaPosicao(ativo, novaQtd, novoCusto);
+        });
     }
 
     public void adicionarAtivo(Ativo ativo, BigDecimal quantidade) {
@@ -41,150 +138,411 @@ public class Carteira {
     public void removerAtivo(Ativo ativo, BigDecimal quantidade) {
         if (ativo == null) throw new IllegalArgumentException("Ativo não pode ser nulo.");
 
-        BigDecimal atual = ativos.getOrDefault(ativo, BigDecimal.ZERO);
-
         if (quantidade == null || quantidade.compareTo(BigDecimal.ZERO) <= 0) {
             throw new QuantidadeInvalidaException("Quantidade inválida para venda.");
         }
-        if (atual.compareTo(quantidade) < 0) {
-            throw new QuantidadeInsuficienteException("Não foi possível vender: quantidade insuficiente.");
-        }
 
-        // custo total da posição atual (em REAL)
-        BigDecimal custoTotal = valorGastoPorAtivo.getOrDefault(ativo, BigDecimal.ZERO);
+        alterarPosicao(ativo, posicao -> {
+            BigDecimal atual = posicao == null ? BigDecimal.ZERO : posicao.quantidade();
+            if (atual.compareTo(quantidade) < 0) {
+                throw new QuantidadeInsuficienteException("Não foi possível vender: quantidade insuficiente.");
+            }
+
+            BigDecimal novaQtd = atual.subtract(quantidade);
+            if (novaQtd.compareTo(BigDecimal.ZERO) == 0) return null; // posição encerrada
 
-        // custo médio = custo total / quantidade atual
-        BigDecimal custoMedio = custoTotal.divide(atual, 10, RoundingMode.HALF_UP);
+            // custo total da posição atual (em REAL)
+            BigDecimal custoTotal = posicao.custo();
 
-        // remove custo proporcional ao vendido
-        BigDecimal custoRemovido = custoMedio.multiply(quantidade);
-        BigDecimal novoCustoTotal = custoTotal.subtract(custoRemovido);
+            // custo médio = custo total / quantidade atual (com ponto fixo a divisão usa long quando
+            // cabe, com o mesmo valor e a mesma escala do BigDecimal)
+            BigDecimal custoMedio = pontoFixo
+                    ? PontoFixo.dividir(custoTotal, atual, 10)
+                    : custoTotal.divide(atual, 10, RoundingMode.HALF_UP);
 
-        BigDecimal novaQtd = atual.subtract(quantidade);
+            // remove custo proporcional ao vendido
+            BigDecimal custoRemovido = custoMedio.multiply(quantidade);
+            BigDecimal novoCustoTotal = custoTotal.subtract(custoRemovido);
 
-        if (novaQtd.compareTo(BigDecimal.ZERO) == 0) {
-            ativos.remove(ativo);
-            valorGastoPorAtivo.remove(ativo);
-        } else {
-            ativos.put(ativo, novaQtd);
             // evita negativo por arredondamento
             if (novoCustoTotal.compareTo(BigDecimal.ZERO) < 0) novoCustoTotal = BigDecimal.ZERO;
 
-            valorGastoPorAtivo.put(ativo, novoCustoTotal);
+            return novaPosicao(ativo, novaQtd, novoCustoTotal);
+        });
+    }
+
+    // Posição com o valor atual calculado pelo preço vigente, no modo desta carteira
+    private Posicao novaPosicao(Ativo ativo, BigDecimal quantidade, BigDecimal custo) {
+        if (!pontoFixo) return Posicao.decimal(quantidade, custo, ativo.converterParaReal().multiply(quantidade));
+        return posicaoPontoFixo(ativo, quantidade, custo, PontoFixo.QUANTIDADE.unidades(quantidade));
+    }
+
+    private static Posicao posicaoPontoFixo(Ativo ativo, BigDecimal quantidade, BigDecimal custo, long qtdUnidades) {
+        long precoUnidades = ativo.getPrecoEmReaisPontoFixo();
+        if (qtdUnidades != PontoFixo.INVALIDO && precoUnidades != PontoFixo.INVALIDO) {
+            try {
+                long valor = PontoFixo.multiplicar(qtdUnidades, PontoFixo.QUANTIDADE.getEscala(),
+                        precoUnidades, PontoFixo.REAL.getEscala(), PontoFixo.REAL.getEscala());
+                return new Posicao(quantidade, custo, null, qtdUnidades, valor);
+            } catch (ArithmeticException e) {
+                // estourou o long: mesmo arredondamento, calculado em BigDecimal
+            }
+        }
+        BigDecimal valor = ativo.converterParaReal().multiply(quantidade)
+                .setScale(PontoFixo.REAL.getEscala(), RoundingMode.HALF_UP);
+        long valorUnidades = PontoFixo.REAL.unidades(valor);
+        return valorUnidades == PontoFixo.INVALIDO
+                ? new Posicao(quantidade, custo, valor, qtdUnidades, PontoFixo.INVALIDO)
+                : new Posicao(quantidade, custo, null, qtdUnidades, valorUnidades);
+    }
+
+    // Troca a posição do ativo de forma atômica (só o ativo em questão fica travado) e aplica a
+    // diferença de valor e custo nos totais. A alteração recebe a posição atual (ou null) e devolve
+    // a nova (null = encerrada); exceções lançadas por ela deixam a carteira como estava.
+    //
+    // Com diário, a mudança é registrada dentro do compute (mesma ordem das trocas) e a espera pelo
+    // disco acontece depois, fora do lock do ativo; se o diário recusar, a posição não muda.
+    private void alterarPosicao(Ativo ativo, UnaryOperator<Posicao> alteracao) {
+        DiarioPosicoes d = diario;
+        long[] registro = d == null ? null : new long[1];
+        // registro e publicação sob a mesma trava: a compactação do diário nunca troca de segmento
+        // entre os dois (a fotografia veria a posição antiga e o segmento com o registro seria apagado)
+        Lock alteracoes = d == null ? null : d.alteracoes();
+        if (alteracoes != null) alteracoes.lock();
+        try {
+            posicoes.compute(ativo, (a, atual) -> {
+                // Assinatura dentro do compute, então abrir e encerrar a mesma posição nunca se cruzam.
+                // Na abertura a carteira assina antes de ler o preço: um preço publicado depois da
+                // leitura sempre gera um evento para ela.
+                if (atual == null) a.adicionarOuvinte(this);
+                Posicao nova;
+                boolean mudou;
+                try {
+                    nova = alteracao.apply(atual);
+                    mudou = mudouRegistro(atual, nova);
+                    if (registro != null && mudou) {
+                        registro[0] = nova == null
+                                ? d.registrar(this, a, null, null)
+                                : d.registrar(this, a, nova.quantidade(), nova.custo());
+                    }
+                } catch (RuntimeException e) {
+                    if (atual == null) a.removerOuvinte(this);
+                    throw e;
+                }
+                if (nova == null) a.removerOuvinte(this);
+
+                // Os totais mudam ainda dentro do compute: as diferenças de um mesmo ativo entram na
+                // ordem em que as posições mudaram, então nenhuma fotografia mostra valor negativo
+                if (atual != nova) totais.updateAndGet(t -> t.somar(a, atual, nova));
+                if (mudou) {
+                    LivroColunar l = livro;
+                    if (l != null) l.registrar(this, a, nova);
+                }
+                return nova;
+            });
+        } finally {
+            if (alteracoes != null) alteracoes.unlock();
         }
+        if (registro != null && registro[0] != 0) d.aguardar(registro[0]);
+    }
+
+    // Quantidade ou custo mudaram (o que vai para o diário e para o livro). Reavaliações por preço
+    // reaproveitam os da posição anterior, então a comparação por referência basta
+    private static boolean mudouRegistro(Posicao atual, Posicao nova) {
+        if (atual == null || nova == null) return atual != nova;
+        return atual.quantidade() != nova.quantidade() || atual.custo() != nova.custo();
+    }
+
+    private static BigDecimal valorDe(Posicao p) {
+        return p == null ? BigDecimal.ZERO : p.valorAtual();
+    }
+
+    private static BigDecimal custoDe(Posicao p) {
+        return p == null ? BigDecimal.ZERO : p.custo();
+    }
+
+    // Preço de um ativo da carteira mudou: só essa posição é reavaliada
+    @Override
+    public void precoAlterado(Ativo ativo, BigDecimal precoAnterior, BigDecimal precoNovo) {
+        // sem checar containsKey antes: uma abertura em andamento ainda não aparece no mapa, e o
+        // compute espera por ela; o valor é recalculado com o preço vigente, não com precoNovo.
+        // Fora de alterarPosicao: quantidade e custo não mudam, então não há nada para o diário nem
+        // para o livro (que acompanha os preços sozinho), e nenhuma das duas travas é tomada
+        posicoes.compute(ativo, (a, atual) -> {
+            if (atual == null) return null;
+            Posicao nova = pontoFixo
+                    ? posicaoPontoFixo(a, atual.quantidade(), atual.custo(), atual.qtdUnidades())
+                    : Posicao.decimal(atual.quantidade(), atual.custo(), a.converterParaReal().multiply(atual.quantidade()));
+            totais.updateAndGet(t -> t.somar(a, atual, nova));
+            return nova;
+        });
     }
 
     // Valor total atual da carteira (em reais)
     public BigDecimal valorTotalAtual() {
-        return ativos.entrySet().stream()
-                .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return totais.get().total();
     }
 
-    // Percentual de renda fixa
-    public BigDecimal percentualRendaFixa() {
-        BigDecimal total = valorTotalAtual();
+    private static BigDecimal percentualDe(BigDecimal parte, BigDecimal total) {
         if (total.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+        return parte.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP);
+    }
 
-        BigDecimal rendaFixa = ativos.entrySet().stream()
-                .filter(e -> e.getKey().getTipoRenda() == TipoRenda.FIXA)
-                .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return rendaFixa.multiply(BigDecimal.valueOf(100)).divide(total, 2, BigDecimal.ROUND_HALF_UP);
+    // Percentual de renda fixa
+    public BigDecimal percentualRendaFixa() {
+        Totais t = totais.get();
+        return percentualDe(t.rendaFixa(), t.total());
     }
 
     // Percentual de renda variável
     public BigDecimal percentualRendaVariavel() {
-        BigDecimal total = valorTotalAtual();
-        if (total.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
-
-        BigDecimal rendaVariavel = ativos.entrySet().stream()
-                .filter(e -> e.getKey().getTipoRenda() == TipoRenda.VARIAVEL)
-                .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return rendaVariavel.multiply(BigDecimal.valueOf(100)).divide(total, 2, BigDecimal.ROUND_HALF_UP);
+        Totais t = totais.get();
+        return percentualDe(t.rendaVariavel(), t.total());
     }
 
     // Percentual de ativos nacionais
     public BigDecimal percentualNacional() {
-        BigDecimal total = valorTotalAtual();
-        if (total.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
-
-        BigDecimal nacional = ativos.entrySet().stream()
-                .filter(e -> e.getKey().getOrigem() == Origem.NACIONAL)
-                .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return nacional.multiply(BigDecimal.valueOf(100)).divide(total, 2, BigDecimal.ROUND_HALF_UP);
+        Totais t = totais.get();
+        return percentualDe(t.nacional(), t.total());
     }
 
     // Percentual de ativos internacionais
     public BigDecimal percentualInternacional() {
-        BigDecimal total = valorTotalAtual();
-        if (total.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+        Totais t = totais.get();
+        return percentualDe(t.internacional(), t.total());
+    }
 
-        BigDecimal internacional = ativos.entrySet().stream()
-                .filter(e -> e.getKey().getOrigem() == Origem.INTERNACIONAL)
-                .map(e -> e.getKey().converterParaReal().multiply(e.getValue()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Todas as quebras (renda, origem e tipo de ativo) numa única passada
+    public ComposicaoCarteira composicao() {
+        return ComposicaoCarteira.calcular(posicoes, totais.get().gasto());
+    }
 
-        return internacional.multiply(BigDecimal.valueOf(100)).divide(total, 2, BigDecimal.ROUND_HALF_UP);
+    // Quantidade, custo e valor de cada posição (cada linha lida atomicamente), sem calcular a composição
+    public List<FotografiaCarteira.Linha> linhas() {
+        List<FotografiaCarteira.Linha> linhas = new ArrayList<>(posicoes.size());
+        posicoes.forEach((ativo, p) -> linhas.add(new FotografiaCarteira.Linha(ativo, p.quantidade(), p.custo(), p.valorAtual())));
+        return linhas;
     }
 
+    // Posições e composição de uma mesma cópia das posições (uma leitura por carteira)
+    public FotografiaCarteira fotografia() {
+        return FotografiaCarteira.de(posicoes);
+    }
+
+    // fotografia somente leitura das quantidades: compras e vendas passam por adicionarAtivo/removerAtivo
     public Map<Ativo, BigDecimal> getAtivos() {
-        return ativos;
+        Map<Ativo, BigDecimal> quantidades = new HashMap<>();
+        posicoes.forEach((ativo, posicao) -> quantidades.put(ativo, posicao.quantidade()));
+        return Collections.unmodifiableMap(quantidades);
+    }
+
+    // quantidade de um ativo específico (ou ZERO), sem copiar a carteira
+    public BigDecimal getQuantidade(Ativo ativo) {
+        Posicao p = posicoes.get(ativo);
+        return p == null ? BigDecimal.ZERO : p.quantidade();
     }
 
     public BigDecimal getValorTotalAtual() {
         return valorTotalAtual();
     }
 
-    // retorna o valor gasto total (soma de valorGastoPorAtivo)
+    // retorna o valor gasto total (soma dos custos das posições)
     public java.math.BigDecimal getValorTotalGasto() {
-        return valorGastoPorAtivo.values().stream()
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+        return totais.get().gasto();
     }
 
     // retorna o valor gasto para um ativo específico (ou ZERO)
     public java.math.BigDecimal getValorGastoPorAtivo(Ativo ativo) {
-        return valorGastoPorAtivo.getOrDefault(ativo, java.math.BigDecimal.ZERO);
+        return custoDe(posicoes.get(ativo));
+    }
+
+    // retorna o valor atual (em reais) de um ativo específico (ou ZERO)
+    public BigDecimal getValorAtualPorAtivo(Ativo ativo) {
+        return valorDe(posicoes.get(ativo));
     }
 
     public void exibirCarteiraDetalhada() {
-        if (ativos.isEmpty()) {
+        if (posicoes.isEmpty()) {
             System.out.println("Carteira vazia.");
             return;
         }
         System.out.printf("%-12s %-10s %-18s %-18s%n", "IDENTIFICADOR", "QUANT", "VALOR GASTO (R$)", "VALOR ATUAL (R$)");
-        for (Map.Entry<Ativo, BigDecimal> entry : ativos.entrySet()) {
+        for (Map.Entry<Ativo, Posicao> entry : posicoes.entrySet()) {
             Ativo ativo = entry.getKey();
-            BigDecimal qtd = entry.getValue();
-            BigDecimal valorGasto = getValorGastoPorAtivo(ativo);
-            BigDecimal valorAtual = ativo.converterParaReal().multiply(qtd);
+            Posicao posicao = entry.getValue();
             System.out.printf("%-12s %-10s %-18s %-18s%n",
                     ativo.getTicker(),
-                    qtd,
-                    valorGasto,
-                    valorAtual);
+                    posicao.quantidade(),
+                    posicao.custo(),
+                    posicao.valorAtual());
         }
     }
 
+    // Redefine o custo de uma posição existente
     public void definirCustoPosicao(Ativo ativo, java.math.BigDecimal custoEmReal) {
         if (ativo == null) throw new IllegalArgumentException("Ativo não pode ser nulo.");
         if (custoEmReal == null || custoEmReal.compareTo(java.math.BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Custo inválido.");
         }
-        valorGastoPorAtivo.put(ativo, custoEmReal);
+        alterarPosicao(ativo, atual -> {
+            if (atual == null) throw new IllegalArgumentException("Ativo não está na carteira: " + ativo.getTicker());
+            return atual.comCusto(custoEmReal);
+        });
+    }
+
+    // Move todas as posições (quantidade e custo) de outra carteira para esta; a origem fica vazia
+    public void importarPosicoes(Carteira origem) {
+        if (origem == null || origem == this) return;
+        for (Map.Entry<Ativo, Posicao> entry : origem.posicoes.entrySet()) {
+            Ativo ativo = entry.getKey();
+            Posicao vinda = entry.getValue();
+            alterarPosicao(ativo, atual -> {
+                BigDecimal qtd = atual == null ? vinda.quantidade() : atual.quantidade().add(vinda.quantidade());
+                BigDecimal custo = atual == null ? vinda.custo() : atual.custo().add(vinda.custo());
+                return novaPosicao(ativo, qtd, custo);
+            });
+        }
+        origem.limpar();
+    }
+
+    // Recoloca uma posição gravada (ex.: fotografia binária), com o custo já em reais e sem
+    // regras de compra; o valor atual é recalculado pelo preço vigente
+    public void restaurarPosicao(Ativo ativo, BigDecimal quantidade, BigDecimal custoEmReal) {
+        if (ativo == null) throw new IllegalArgumentException("Ativo não pode ser nulo.");
+        if (quantidade == null || quantidade.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new QuantidadeInvalidaException("Quantidade da posição deve ser maior que zero.");
+        }
+        if (custoEmReal == null || custoEmReal.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Custo inválido.");
+        }
+        alterarPosicao(ativo, atual -> novaPosicao(ativo, quantidade, custoEmReal));
+    }
+
+    // Esvazia a carteira e deixa de acompanhar os preços dos ativos
+    public void limpar() {
+        for (Ativo ativo : posicoes.keySet()) {
+            alterarPosicao(ativo, atual -> null);
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Carteira:\n");
-        ativos.forEach((ativo, qtd) -> sb.append(ativo).append(" - Qtd: ").append(qtd).append("\n"));
+        posicoes.forEach((ativo, posicao) -> sb.append(ativo).append(" - Qtd: ").append(posicao.quantidade()).append("\n"));
         sb.append("Valor total atual: R$ ").append(valorTotalAtual());
         return sb.toString();
     }
 
-}
\ No newline at end of file
+    // Fotografia imutável dos totais; cada alteração gera uma nova instância trocada por CAS
+    // (somar não tem efeito colateral, pode ser repetida pelo updateAndGet)
+    private sealed interface Totais permits TotaisDecimais, TotaisPontoFixo {
+        BigDecimal total();
+
+        BigDecimal rendaFixa();
+
+        BigDecimal rendaVariavel();
+
+        BigDecimal nacional();
+
+        BigDecimal internacional();
+
+        BigDecimal gasto();
+
+        Totais somar(Ativo ativo, Posicao antes, Posicao depois);
+    }
+
+    private record TotaisDecimais(BigDecimal total,
+                                  BigDecimal rendaFixa,
+                                  BigDecimal rendaVariavel,
+                                  BigDecimal nacional,
+                                  BigDecimal internacional,
+                                  BigDecimal gasto) implements Totais {
+
+        static final TotaisDecimais VAZIO = new TotaisDecimais(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        @Override
+        public Totais somar(Ativo ativo, Posicao antes, Posicao depois) {
+            BigDecimal deltaValor = valorDe(depois).subtract(valorDe(antes));
+            BigDecimal deltaCusto = custoDe(depois).subtract(custoDe(antes));
+            if (deltaValor.signum() == 0 && deltaCusto.signum() == 0) return this;
+            boolean fixa = ativo.getTipoRenda() == TipoRenda.FIXA;
+            boolean nacionalAtivo = ativo.getOrigem() == Origem.NACIONAL;
+            return new TotaisDecimais(
+                    total.add(deltaValor),
+                    fixa ? rendaFixa.add(deltaValor) : rendaFixa,
+                    fixa ? rendaVariavel : rendaVariavel.add(deltaValor),
+                    nacionalAtivo ? nacional.add(deltaValor) : nacional,
+                    nacionalAtivo ? internacional : internacional.add(deltaValor),
+                    gasto.add(deltaCusto));
+        }
+    }
+
+    // Mesmos totais em unidades de PontoFixo.REAL; o gasto continua em BigDecimal (vem do custo)
+    private record TotaisPontoFixo(long totalUnidades,
+                                   long rendaFixaUnidades,
+                                   long rendaVariavelUnidades,
+                                   long nacionalUnidades,
+                                   long internacionalUnidades,
+                                   BigDecimal gasto) implements Totais {
+
+        static final TotaisPontoFixo VAZIO = new TotaisPontoFixo(0, 0, 0, 0, 0, BigDecimal.ZERO);
+
+        @Override
+        public Totais somar(Ativo ativo, Posicao antes, Posicao depois) {
+            if ((antes != null && !antes.emUnidades()) || (depois != null && !depois.emUnidades())) {
+                return paraDecimais().somar(ativo, antes, depois);
+            }
+            BigDecimal deltaCusto = custoDe(depois).subtract(custoDe(antes));
+            try {
+                long deltaValor = PontoFixo.subtrair(unidadesDe(depois), unidadesDe(antes));
+                if (deltaValor == 0 && deltaCusto.signum() == 0) return this;
+                boolean fixa = ativo.getTipoRenda() == TipoRenda.FIXA;
+                boolean nacionalAtivo = ativo.getOrigem() == Origem.NACIONAL;
+                return new TotaisPontoFixo(
+                        PontoFixo.somar(totalUnidades, deltaValor),
+                        fixa ? PontoFixo.somar(rendaFixaUnidades, deltaValor) : rendaFixaUnidades,
+                        fixa ? rendaVariavelUnidades : PontoFixo.somar(rendaVariavelUnidades, deltaValor),
+                        nacionalAtivo ? PontoFixo.somar(nacionalUnidades, deltaValor) : nacionalUnidades,
+                        nacionalAtivo ? internacionalUnidades : PontoFixo.somar(internacionalUnidades, deltaValor),
+                        deltaCusto.signum() == 0 ? gasto : gasto.add(deltaCusto));
+            } catch (ArithmeticException e) {
+                // estouro: a carteira segue em BigDecimal daqui em diante
+                return paraDecimais().somar(ativo, antes, depois);
+            }
+        }
+
+        private TotaisDecimais paraDecimais() {
+            return new TotaisDecimais(total(), rendaFixa(), rendaVariavel(), nacional(), internacional(), gasto);
+        }
+
+        private static long unidadesDe(Posicao p) {
+            return p == null ? 0 : p.valorUnidades();
+        }
+
+        @Override
+        public BigDecimal total() {
+            return PontoFixo.REAL.decimal(totalUnidades);
+        }
+
+        @Override
+        public BigDecimal rendaFixa() {
+            return PontoFixo.REAL.decimal(rendaFixaUnidades);
+        }
+
+        @Override
+        public BigDecimal rendaVariavel() {
+            return PontoFixo.REAL.decimal(rendaVariavelUnidades);
+        }
+
+        @Override
+        public BigDecimal nacional() {
+            return PontoFixo.REAL.decimal(nacionalUnidades);
+        }
+
+        @Override
+        public BigDecimal internacional() {
+            return PontoFixo.REAL.decimal(internacionalUnidades);
+        }
+    }
+}
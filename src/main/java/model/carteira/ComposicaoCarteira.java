@@ -0,0 +1,113 @@
+package model.carteira;
+
+import model.ativo.Acao;
+import model.ativo.Ativo;
+import model.ativo.Criptomoeda;
+import model.ativo.Fii;
+import model.ativo.Stock;
+import model.ativo.Tesouro;
+import model.ativo.TipoRenda;
+import model.investidor.Origem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fotografia imutável da composição de uma carteira (valores em reais), calculada numa única
+// passada pelas posições. Menu, relatório e demais consumidores leem daqui em vez de chamar
+// cada percentual separadamente.
+public final class ComposicaoCarteira {
+
+    // ordem de exibição dos tipos concretos de ativo
+    public static final List<Class<? extends Ativo>> TIPOS_ATIVO =
+            List.of(Acao.class, Fii.class, Tesouro.class, Stock.class, Criptomoeda.class);
+
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    private final BigDecimal valorTotal;
+    private final BigDecimal valorTotalGasto;
+    private final Map<TipoRenda, BigDecimal> porRenda;
+    private final Map<Origem, BigDecimal> porOrigem;
+    private final Map<Class<? extends Ativo>, BigDecimal> porTipoAtivo;
+
+    ComposicaoCarteira(BigDecimal valorTotal,
+                       BigDecimal valorTotalGasto,
+                       EnumMap<TipoRenda, BigDecimal> porRenda,
+                       EnumMap<Origem, BigDecimal> porOrigem,
+                       LinkedHashMap<Class<? extends Ativo>, BigDecimal> porTipoAtivo) {
+        this.valorTotal = valorTotal;
+        this.valorTotalGasto = valorTotalGasto;
+        this.porRenda = Collections.unmodifiableMap(porRenda);
+        this.porOrigem = Collections.unmodifiableMap(porOrigem);
+        this.porTipoAtivo = Collections.unmodifiableMap(porTipoAtivo);
+    }
+
+    // Acumula as posições numa única passada
+    static ComposicaoCarteira calcular(Map<Ativo, Posicao> posicoes, BigDecimal valorTotalGasto) {
+        EnumMap<TipoRenda, BigDecimal> porRenda = new EnumMap<>(TipoRenda.class);
+        for (TipoRenda t : TipoRenda.values()) porRenda.put(t, BigDecimal.ZERO);
+        EnumMap<Origem, BigDecimal> porOrigem = new EnumMap<>(Origem.class);
+        for (Origem o : Origem.values()) porOrigem.put(o, BigDecimal.ZERO);
+        LinkedHashMap<Class<? extends Ativo>, BigDecimal> porTipo = new LinkedHashMap<>();
+        for (Class<? extends Ativo> t : TIPOS_ATIVO) porTipo.put(t, BigDecimal.ZERO);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Ativo, Posicao> e : posicoes.entrySet()) {
+            Ativo ativo = e.getKey();
+            BigDecimal valor = e.getValue().valorAtual();
+            total = total.add(valor);
+            porRenda.merge(ativo.getTipoRenda(), valor, BigDecimal::add);
+            porOrigem.merge(ativo.getOrigem(), valor, BigDecimal::add);
+            porTipo.merge(ativo.getClass(), valor, BigDecimal::add);
+        }
+        return new ComposicaoCarteira(total, valorTotalGasto, porRenda, porOrigem, porTipo);
+    }
+
+    public BigDecimal getValorTotal() {
+        return valorTotal;
+    }
+
+    public BigDecimal getValorTotalGasto() {
+        return valorTotalGasto;
+    }
+
+    public Map<TipoRenda, BigDecimal> getPorRenda() {
+        return porRenda;
+    }
+
+    public Map<Origem, BigDecimal> getPorOrigem() {
+        return porOrigem;
+    }
+
+    public Map<Class<? extends Ativo>, BigDecimal> getPorTipoAtivo() {
+        return porTipoAtivo;
+    }
+
+    // mesma regra dos percentuais da Carteira: 2 casas, HALF_UP, zero se a carteira estiver vazia
+    private BigDecimal percentual(BigDecimal parte) {
+        if (parte == null || valorTotal.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+        return parte.multiply(CEM).divide(valorTotal, 2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal percentualRenda(TipoRenda tipo) {
+        return percentual(porRenda.get(tipo));
+    }
+
+    public BigDecimal percentualOrigem(Origem origem) {
+        return percentual(porOrigem.get(origem));
+    }
+
+    public BigDecimal percentualTipoAtivo(Class<? extends Ativo> tipo) {
+        return percentual(porTipoAtivo.get(tipo));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Composição: total R$ %s | renda %s | origem %s | tipos %s",
+                valorTotal, porRenda, porOrigem, porTipoAtivo);
+    }
+}
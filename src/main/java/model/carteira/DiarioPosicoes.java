@@ -0,0 +1,22 @@
+package model.carteira;
+
+import model.ativo.Ativo;
+
+import java.math.BigDecimal;
+import java.util.concurrent.locks.Lock;
+
+// Destino durável das mudanças de quantidade e custo das posições (ex.: data.DiarioMovimentacoes).
+// A carteira chama registrar dentro da troca atômica da posição, então as mudanças de um mesmo
+// ativo chegam na ordem em que aconteceram; aguardar é chamado depois, já fora da troca.
+public interface DiarioPosicoes {
+
+    // Trava mantida pela carteira do registrar até a posição nova estar publicada; quem precisa de
+    // um ponto em que todo registro enfileirado já esteja visível nas carteiras pega o lado exclusivo
+    Lock alteracoes();
+
+    // Só enfileira (não espera o disco); quantidade null = posição encerrada. Devolve o número do registro.
+    long registrar(Carteira carteira, Ativo ativo, BigDecimal quantidade, BigDecimal custo);
+
+    // Bloqueia até o registro estar gravado em disco; lança exceção se a gravação falhou
+    void aguardar(long registro);
+}
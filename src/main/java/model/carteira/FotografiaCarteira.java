@@ -0,0 +1,30 @@
+package model.carteira;
+
+import model.ativo.Ativo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Posições e composição de uma carteira tiradas de uma única cópia do mapa: linhas, totais e
+// percentuais batem entre si mesmo com preços mudando durante a leitura (ex.: relatório JSON).
+public record FotografiaCarteira(List<Linha> linhas, ComposicaoCarteira composicao) {
+
+    public record Linha(Ativo ativo, BigDecimal quantidade, BigDecimal valorGasto, BigDecimal valorAtual) {
+    }
+
+    static FotografiaCarteira de(Map<Ativo, Posicao> posicoes) {
+        Map<Ativo, Posicao> copia = new HashMap<>(posicoes);
+        List<Linha> linhas = new ArrayList<>(copia.size());
+        BigDecimal gasto = BigDecimal.ZERO;
+        for (Map.Entry<Ativo, Posicao> e : copia.entrySet()) {
+            Posicao p = e.getValue();
+            linhas.add(new Linha(e.getKey(), p.quantidade(), p.custo(), p.valorAtual()));
+            gasto = gasto.add(p.custo());
+        }
+        return new FotografiaCarteira(Collections.unmodifiableList(linhas), ComposicaoCarteira.calcular(copia, gasto));
+    }
+}
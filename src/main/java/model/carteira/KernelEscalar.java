@@ -0,0 +1,17 @@
+package model.carteira;
+
+// Núcleo de valorização linha a linha, sem dependência do módulo vetorial (sempre disponível)
+public class KernelEscalar implements KernelValoracao {
+
+    @Override
+    public void valorarLinhas(int linhas, int[] ativoDaLinha, long[] quantidade, long[] precoReais, long[] valores) {
+        for (int i = 0; i < linhas; i++) {
+            valores[i] = KernelValoracao.valorLinha(quantidade[i], precoReais[ativoDaLinha[i]]);
+        }
+    }
+
+    @Override
+    public String nome() {
+        return "escalar";
+    }
+}
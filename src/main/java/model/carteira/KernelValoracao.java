@@ -0,0 +1,42 @@
+package model.carteira;
+
+import utils.PontoFixo;
+
+// Núcleo da valorização do LivroColunar: valor de cada linha (quantidade x preço em reais do seu
+// ativo), em unidades de ponto fixo. A agregação por carteira e as quebras (renda fixa/variável,
+// nacional/internacional) ficam no livro; o núcleo só trabalha com arrays primitivos.
+//
+// padrao() usa o núcleo vetorial (jdk.incubator.vector, compilado pelos perfis "vetor" e "jmh" e
+// executado com --add-modules jdk.incubator.vector) quando ele existe no classpath e o módulo foi
+// carregado; senão, ou com -Dgestaocarteira.vetorial=false, usa o escalar. Os dois dão o mesmo resultado.
+public interface KernelValoracao {
+
+    // valores[i] = quantidade[i] x precoReais[ativoDaLinha[i]], arredondado HALF_UP para
+    // PontoFixo.REAL; PontoFixo.INVALIDO quando um dos dois não tem representação ou o produto estoura
+    void valorarLinhas(int linhas, int[] ativoDaLinha, long[] quantidade, long[] precoReais, long[] valores);
+
+    String nome();
+
+    static KernelValoracao padrao() {
+        if (!"false".equalsIgnoreCase(System.getProperty("gestaocarteira.vetorial"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (KernelValoracao) Class.forName("model.carteira.KernelVetorial").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // build sem o perfil vetorial: segue no escalar
+            }
+        }
+        return new KernelEscalar();
+    }
+
+    // Valor de uma linha, usado pelo núcleo escalar e pelas sobras do vetorial
+    static long valorLinha(long qtd, long precoReais) {
+        if (qtd == PontoFixo.INVALIDO || precoReais == PontoFixo.INVALIDO) return PontoFixo.INVALIDO;
+        try {
+            int escalaReal = PontoFixo.REAL.getEscala();
+            return PontoFixo.multiplicar(qtd, PontoFixo.QUANTIDADE.getEscala(), precoReais, escalaReal, escalaReal);
+        } catch (ArithmeticException e) {
+            return PontoFixo.INVALIDO;
+        }
+    }
+}
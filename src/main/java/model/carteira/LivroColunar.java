@@ -0,0 +1,471 @@
+package model.carteira;
+
+import model.ativo.Ativo;
+import model.ativo.PrecoListener;
+import model.ativo.TipoRenda;
+import model.investidor.Origem;
+import utils.PontoFixo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Livro de posições em colunas (struct-of-arrays) para valorizar todas as carteiras de uma vez.
+//
+// Cada posição é uma linha em arrays primitivos (carteira, ativo, quantidade e custo), e o preço em
+// reais de cada ativo fica num array denso indexado pelo id do ativo. Valorizar o livro inteiro vira
+// um laço sobre esses arrays (KernelValoracao, escalar ou vetorial), sem percorrer os mapas das
+// carteiras nem criar BigDecimal por posição. Valores em unidades de ponto fixo (PontoFixo.QUANTIDADE
+// e PontoFixo.REAL), com as mesmas contas da Carteira em ponto fixo: o preço em reais é o exato do
+// Ativo (getPrecoEmReaisPontoFixo) e, quando ele não cabe na escala ou a soma estoura o long, o
+// valor sai do BigDecimal, como lá.
+//
+// As carteiras continuam sendo a fonte da verdade: uma carteira anexada (Carteira.anexarLivro)
+// repassa cada posição alterada para cá, e o livro assina os ativos para acompanhar os preços.
+//
+// Trocar quantidade e custo de uma linha que já existe só toma a trava compartilhada: cada linha
+// é escrita por uma carteira só (dentro do compute da posição), então carteiras diferentes não se
+// esperam. Criar ou remover linhas, carteiras e ativos, trocar preços e valorizar tomam a exclusiva.
+public class LivroColunar implements PrecoListener {
+
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    // ---- ativos (id denso) ----
+    private final Map<Ativo, Integer> idsAtivo = new HashMap<>();
+    private Ativo[] ativos = new Ativo[CAPACIDADE_INICIAL];
+    private long[] precoReais = new long[CAPACIDADE_INICIAL]; // INVALIDO = calcular em BigDecimal
+    private boolean[] rendaFixa = new boolean[CAPACIDADE_INICIAL];
+    private boolean[] nacional = new boolean[CAPACIDADE_INICIAL];
+    private int totalAtivos;
+
+    // ---- carteiras (id denso) ----
+    // A carteira que fica sem linhas (investidor removido ou trocado) sai do livro e o id volta para
+    // idsLivres, então o livro não segura carteiras descartadas.
+    private final Map<Carteira, Integer> idsCarteira = new HashMap<>();
+    private Carteira[] carteiras = new Carteira[CAPACIDADE_INICIAL];
+    private int[] linhasDaCarteira = new int[CAPACIDADE_INICIAL]; // carteira sem linhas fica fora dos resultados
+    private int totalCarteiras; // ids já usados (inclui os livres)
+    private int[] idsLivres = new int[CAPACIDADE_INICIAL];
+    private int totalLivres;
+
+    // ---- posições: uma linha por (carteira, ativo) ----
+    private int[] carteiraDaLinha = new int[CAPACIDADE_INICIAL];
+    private int[] ativoDaLinha = new int[CAPACIDADE_INICIAL];
+    private long[] quantidade = new long[CAPACIDADE_INICIAL]; // INVALIDO = quantidade só na Carteira
+    private long[] custo = new long[CAPACIDADE_INICIAL];
+    private long[] valores = new long[CAPACIDADE_INICIAL]; // saída do núcleo, reaproveitada
+    private int linhas;
+    private final Map<Long, Integer> linhaPorChave = new HashMap<>();
+
+    private final KernelValoracao kernel;
+
+    private final ReentrantReadWriteLock estrutura = new ReentrantReadWriteLock();
+    private final Lock compartilhada = estrutura.readLock();
+    private final Lock exclusiva = estrutura.writeLock();
+
+    public LivroColunar() {
+        this(KernelValoracao.padrao());
+    }
+
+    public LivroColunar(KernelValoracao kernel) {
+        if (kernel == null) throw new IllegalArgumentException("Núcleo de valorização não pode ser nulo.");
+        this.kernel = kernel;
+    }
+
+    public KernelValoracao getKernel() {
+        return kernel;
+    }
+
+    // Chamado pela Carteira (dentro do compute da posição): grava a posição nova ou remove a linha
+    void registrar(Carteira carteira, Ativo ativo, Posicao posicao) {
+        if (posicao == null) {
+            exclusiva.lock();
+            try {
+                Integer c = idsCarteira.get(carteira);
+                Integer a = idsAtivo.get(ativo);
+                if (c != null && a != null) removerLinha(chave(c, a));
+            } finally {
+                exclusiva.unlock();
+            }
+            return;
+        }
+        long qtd = posicao.qtdUnidades() != PontoFixo.INVALIDO
+                ? posicao.qtdUnidades()
+                : PontoFixo.QUANTIDADE.unidades(posicao.quantidade());
+        long cst = PontoFixo.REAL.unidadesArredondadas(posicao.custo());
+        // linha existente: só as suas colunas mudam
+        compartilhada.lock();
+        try {
+            Integer i = linhaExistente(carteira, ativo);
+            if (i != null) {
+                quantidade[i] = qtd;
+                custo[i] = cst;
+                return;
+            }
+        } finally {
+            compartilhada.unlock();
+        }
+        exclusiva.lock();
+        try {
+            int c = idCarteira(carteira);
+            int a = idAtivo(ativo);
+            long k = chave(c, a);
+            Integer i = linhaPorChave.get(k);
+            if (i == null) {
+                garantirLinhas(linhas + 1);
+                i = linhas++;
+                carteiraDaLinha[i] = c;
+                ativoDaLinha[i] = a;
+                linhaPorChave.put(k, i);
+                linhasDaCarteira[c]++;
+            }
+            quantidade[i] = qtd;
+            custo[i] = cst;
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    // Preço (ou câmbio) de um ativo do livro mudou: só a sua entrada nos arrays de preço é recalculada
+    @Override
+    public void precoAlterado(Ativo ativo, BigDecimal precoAnterior, BigDecimal precoNovo) {
+        // exclusiva: dois eventos do mesmo ativo não podem gravar fora de ordem
+        exclusiva.lock();
+        try {
+            Integer a = idsAtivo.get(ativo);
+            if (a != null) atualizarPreco(a);
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    // Valor atual de cada carteira com posição no livro (em reais), numa passada pelas colunas
+    public Map<Carteira, BigDecimal> valorarCarteiras() {
+        exclusiva.lock();
+        try {
+            Agregado agregado = agregar();
+            Map<Carteira, BigDecimal> valores = new LinkedHashMap<>();
+            for (int c = 0; c < totalCarteiras; c++) {
+                if (linhasDaCarteira[c] > 0) valores.put(carteiras[c], agregado.total(c));
+            }
+            return valores;
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    // Valor e quebras (renda fixa/variável, nacional/internacional) de cada carteira com posição,
+    // na mesma passada
+    public Map<Carteira, ValorCarteira> composicaoCarteiras() {
+        exclusiva.lock();
+        try {
+            Agregado agregado = agregar();
+            Map<Carteira, ValorCarteira> valores = new LinkedHashMap<>();
+            for (int c = 0; c < totalCarteiras; c++) {
+                if (linhasDaCarteira[c] > 0) {
+                    BigDecimal total = agregado.total(c);
+                    BigDecimal rendaFixa = agregado.rendaFixa(c);
+                    BigDecimal nacional = agregado.nacional(c);
+                    valores.put(carteiras[c], new ValorCarteira(total, rendaFixa, total.subtract(rendaFixa),
+                            nacional, total.subtract(nacional)));
+                }
+            }
+            return valores;
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    // Valor atual de todas as carteiras do livro somadas (em reais)
+    public BigDecimal valorTotal() {
+        exclusiva.lock();
+        try {
+            return agregar().totalGeral();
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    // Custo total de todas as posições do livro (em reais, arredondado por posição)
+    public BigDecimal custoTotal() {
+        exclusiva.lock();
+        try {
+            return somarCustos();
+        } finally {
+            exclusiva.unlock();
+        }
+    }
+
+    private BigDecimal somarCustos() {
+        try {
+            long total = 0;
+            for (int i = 0; i < linhas; i++) {
+                if (custo[i] == PontoFixo.INVALIDO) throw new ArithmeticException("Custo da posição excede o long.");
+                total = Math.addExact(total, custo[i]);
+            }
+            return PontoFixo.REAL.decimal(total);
+        } catch (ArithmeticException e) {
+            BigDecimal total = PontoFixo.REAL.decimal(0);
+            for (int i = 0; i < linhas; i++) total = total.add(custoDecimal(i));
+            return total;
+        }
+    }
+
+    // custo da linha na escala do real; fora do long, vem da própria carteira
+    private BigDecimal custoDecimal(int linha) {
+        if (custo[linha] != PontoFixo.INVALIDO) return PontoFixo.REAL.decimal(custo[linha]);
+        Ativo ativo = ativos[ativoDaLinha[linha]];
+        return carteiras[carteiraDaLinha[linha]].getValorGastoPorAtivo(ativo)
+                .setScale(PontoFixo.REAL.getEscala(), RoundingMode.HALF_UP);
+    }
+
+    public int getLinhas() {
+        compartilhada.lock();
+        try {
+            return linhas;
+        } finally {
+            compartilhada.unlock();
+        }
+    }
+
+    public int getTotalAtivos() {
+        compartilhada.lock();
+        try {
+            return totalAtivos;
+        } finally {
+            compartilhada.unlock();
+        }
+    }
+
+    public int getTotalCarteiras() {
+        compartilhada.lock();
+        try {
+            return totalCarteiras;
+        } finally {
+            compartilhada.unlock();
+        }
+    }
+
+    // O núcleo calcula o valor de cada linha; aqui os valores são somados por carteira e por quebra.
+    // Linhas que o núcleo não consegue valorar em long vão pelo BigDecimal; se um valor ou uma soma
+    // não couber no long, a passada inteira é refeita em BigDecimal (como a Carteira faz com os totais).
+    private Agregado agregar() {
+        kernel.valorarLinhas(linhas, ativoDaLinha, quantidade, precoReais, valores);
+        Agregado agregado = new Agregado(totalCarteiras);
+        try {
+            for (int i = 0; i < linhas; i++) {
+                long v = valores[i];
+                if (v == PontoFixo.INVALIDO) {
+                    v = PontoFixo.REAL.unidades(valorDecimal(i));
+                    if (v == PontoFixo.INVALIDO) throw new ArithmeticException("Valor da posição excede o long.");
+                }
+                int c = carteiraDaLinha[i];
+                int a = ativoDaLinha[i];
+                agregado.total[c] = Math.addExact(agregado.total[c], v);
+                if (rendaFixa[a]) agregado.rendaFixa[c] = Math.addExact(agregado.rendaFixa[c], v);
+                if (nacional[a]) agregado.nacional[c] = Math.addExact(agregado.nacional[c], v);
+            }
+        } catch (ArithmeticException e) {
+            agregado.somarEmDecimal(this);
+        }
+        return agregado;
+    }
+
+    // mesma conta da Carteira quando não dá para usar o long: preço exato em reais x quantidade,
+    // arredondado para a escala do real
+    private BigDecimal valorDecimal(int linha) {
+        if (valores[linha] != PontoFixo.INVALIDO) return PontoFixo.REAL.decimal(valores[linha]);
+        Ativo ativo = ativos[ativoDaLinha[linha]];
+        BigDecimal qtd = quantidade[linha] != PontoFixo.INVALIDO
+                ? PontoFixo.QUANTIDADE.decimal(quantidade[linha])
+                : carteiras[carteiraDaLinha[linha]].getQuantidade(ativo);
+        return ativo.converterParaReal().multiply(qtd).setScale(PontoFixo.REAL.getEscala(), RoundingMode.HALF_UP);
+    }
+
+    private Integer linhaExistente(Carteira carteira, Ativo ativo) {
+        Integer c = idsCarteira.get(carteira);
+        Integer a = idsAtivo.get(ativo);
+        return c == null || a == null ? null : linhaPorChave.get(chave(c, a));
+    }
+
+    private int idCarteira(Carteira carteira) {
+        Integer id = idsCarteira.get(carteira);
+        if (id != null) return id;
+        int c;
+        if (totalLivres > 0) {
+            c = idsLivres[--totalLivres];
+        } else {
+            if (totalCarteiras == carteiras.length) {
+                carteiras = Arrays.copyOf(carteiras, totalCarteiras * 2);
+                linhasDaCarteira = Arrays.copyOf(linhasDaCarteira, totalCarteiras * 2);
+            }
+            c = totalCarteiras++;
+        }
+        carteiras[c] = carteira;
+        idsCarteira.put(carteira, c);
+        return c;
+    }
+
+    // carteira sem nenhuma linha: sai do livro e o id pode ser reaproveitado
+    private void liberarCarteira(int c) {
+        idsCarteira.remove(carteiras[c]);
+        carteiras[c] = null;
+        if (totalLivres == idsLivres.length) idsLivres = Arrays.copyOf(idsLivres, totalLivres * 2);
+        idsLivres[totalLivres++] = c;
+    }
+
+    private int idAtivo(Ativo ativo) {
+        Integer id = idsAtivo.get(ativo);
+        if (id != null) return id;
+        if (totalAtivos == ativos.length) {
+            int capacidade = totalAtivos * 2;
+            ativos = Arrays.copyOf(ativos, capacidade);
+            precoReais = Arrays.copyOf(precoReais, capacidade);
+            rendaFixa = Arrays.copyOf(rendaFixa, capacidade);
+            nacional = Arrays.copyOf(nacional, capacidade);
+        }
+        int a = totalAtivos++;
+        ativos[a] = ativo;
+        rendaFixa[a] = ativo.getTipoRenda() == TipoRenda.FIXA;
+        nacional[a] = ativo.getOrigem() == Origem.NACIONAL;
+        idsAtivo.put(ativo, a);
+        // assina antes de ler o preço: uma mudança depois da leitura sempre chega em precoAlterado
+        ativo.adicionarOuvinte(this);
+        atualizarPreco(a);
+        return a;
+    }
+
+    // também chamado na troca de câmbio (o preço fica igual, a cotação muda). Preço x cotação exato,
+    // o mesmo da Carteira; com mais casas que a escala fica INVALIDO e as linhas vão pelo BigDecimal.
+    private void atualizarPreco(int a) {
+        precoReais[a] = ativos[a].getPrecoEmReaisPontoFixo();
+    }
+
+    // remove trocando pela última linha (as colunas continuam sem buracos)
+    private void removerLinha(long k) {
+        Integer linha = linhaPorChave.remove(k);
+        if (linha == null) return;
+        int c = carteiraDaLinha[linha];
+        if (--linhasDaCarteira[c] == 0) liberarCarteira(c);
+        int ultima = --linhas;
+        if (linha != ultima) {
+            carteiraDaLinha[linha] = carteiraDaLinha[ultima];
+            ativoDaLinha[linha] = ativoDaLinha[ultima];
+            quantidade[linha] = quantidade[ultima];
+            custo[linha] = custo[ultima];
+            linhaPorChave.put(chave(carteiraDaLinha[linha], ativoDaLinha[linha]), linha);
+        }
+    }
+
+    private void garantirLinhas(int minimo) {
+        if (minimo <= carteiraDaLinha.length) return;
+        int capacidade = Math.max(minimo, carteiraDaLinha.length * 2);
+        carteiraDaLinha = Arrays.copyOf(carteiraDaLinha, capacidade);
+        ativoDaLinha = Arrays.copyOf(ativoDaLinha, capacidade);
+        quantidade = Arrays.copyOf(quantidade, capacidade);
+        custo = Arrays.copyOf(custo, capacidade);
+        valores = Arrays.copyOf(valores, capacidade);
+    }
+
+    private static long chave(int carteira, int ativo) {
+        return ((long) carteira << 32) | (ativo & 0xFFFFFFFFL);
+    }
+
+    // totais de uma passada, em unidades de PontoFixo.REAL, indexados pelo id da carteira
+    // (renda variável = total - renda fixa; internacional = total - nacional). Se algo estourou o
+    // long, os mesmos totais ficam nos arrays em BigDecimal.
+    private static final class Agregado {
+        final long[] total;
+        final long[] rendaFixa;
+        final long[] nacional;
+        private BigDecimal[] totalDecimal;
+        private BigDecimal[] rendaFixaDecimal;
+        private BigDecimal[] nacionalDecimal;
+
+        Agregado(int carteiras) {
+            total = new long[carteiras];
+            rendaFixa = new long[carteiras];
+            nacional = new long[carteiras];
+        }
+
+        void somarEmDecimal(LivroColunar livro) {
+            int n = total.length;
+            totalDecimal = new BigDecimal[n];
+            rendaFixaDecimal = new BigDecimal[n];
+            nacionalDecimal = new BigDecimal[n];
+            BigDecimal zero = PontoFixo.REAL.decimal(0); // mesma escala do caminho em long
+            Arrays.fill(totalDecimal, zero);
+            Arrays.fill(rendaFixaDecimal, zero);
+            Arrays.fill(nacionalDecimal, zero);
+            for (int i = 0; i < livro.linhas; i++) {
+                BigDecimal v = livro.valorDecimal(i);
+                int c = livro.carteiraDaLinha[i];
+                int a = livro.ativoDaLinha[i];
+                totalDecimal[c] = totalDecimal[c].add(v);
+                if (livro.rendaFixa[a]) rendaFixaDecimal[c] = rendaFixaDecimal[c].add(v);
+                if (livro.nacional[a]) nacionalDecimal[c] = nacionalDecimal[c].add(v);
+            }
+        }
+
+        BigDecimal total(int c) {
+            return totalDecimal != null ? totalDecimal[c] : PontoFixo.REAL.decimal(total[c]);
+        }
+
+        BigDecimal rendaFixa(int c) {
+            return rendaFixaDecimal != null ? rendaFixaDecimal[c] : PontoFixo.REAL.decimal(rendaFixa[c]);
+        }
+
+        BigDecimal nacional(int c) {
+            return nacionalDecimal != null ? nacionalDecimal[c] : PontoFixo.REAL.decimal(nacional[c]);
+        }
+
+        BigDecimal totalGeral() {
+            if (totalDecimal == null) {
+                try {
+                    long soma = 0;
+                    for (long v : total) soma = Math.addExact(soma, v);
+                    return PontoFixo.REAL.decimal(soma);
+                } catch (ArithmeticException e) {
+                    // a soma das carteiras estourou: segue em BigDecimal
+                }
+            }
+            BigDecimal soma = PontoFixo.REAL.decimal(0);
+            for (int c = 0; c < total.length; c++) soma = soma.add(total(c));
+            return soma;
+        }
+    }
+
+    // Valor e quebras de uma carteira, com os percentuais calculados como na Carteira
+    public record ValorCarteira(BigDecimal total,
+                                BigDecimal rendaFixa,
+                                BigDecimal rendaVariavel,
+                                BigDecimal nacional,
+                                BigDecimal internacional) {
+
+        public BigDecimal percentualRendaFixa() {
+            return percentualDe(rendaFixa);
+        }
+
+        public BigDecimal percentualRendaVariavel() {
+            return percentualDe(rendaVariavel);
+        }
+
+        public BigDecimal percentualNacional() {
+            return percentualDe(nacional);
+        }
+
+        public BigDecimal percentualInternacional() {
+            return percentualDe(internacional);
+        }
+
+        private BigDecimal percentualDe(BigDecimal parte) {
+            if (total.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+            return parte.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package model.carteira;
+
+import utils.PontoFixo;
+
+import java.math.BigDecimal;
+
+// Posição imutável de um ativo na carteira: quantidade, custo e valor atual (em reais) andam juntos,
+// então uma troca no mapa da Carteira atualiza os três de uma vez.
+//
+// Com ponto fixo (PontoFixo.ATIVO) o valor atual fica em unidades de PontoFixo.REAL (valorUnidades)
+// e valorDecimal é null; se o valor não couber num long, fica em valorDecimal e valorUnidades é
+// PontoFixo.INVALIDO. qtdUnidades guarda a quantidade em PontoFixo.QUANTIDADE (ou INVALIDO).
+record Posicao(BigDecimal quantidade, BigDecimal custo, BigDecimal valorDecimal, long qtdUnidades, long valorUnidades) {
+
+    static Posicao decimal(BigDecimal quantidade, BigDecimal custo, BigDecimal valorAtual) {
+        return new Posicao(quantidade, custo, valorAtual, PontoFixo.INVALIDO, PontoFixo.INVALIDO);
+    }
+
+    // valor atual em reais, nos dois modos
+    BigDecimal valorAtual() {
+        return valorDecimal != null ? valorDecimal : PontoFixo.REAL.decimal(valorUnidades);
+    }
+
+    boolean emUnidades() {
+        return valorDecimal == null;
+    }
+
+    Posicao comCusto(BigDecimal novoCusto) {
+        return new Posicao(quantidade, novoCusto, valorDecimal, qtdUnidades, valorUnidades);
+    }
+}
@@ -30,6 +30,30 @@ public class Endereco {
         this.estado = estado;
     }
 
+    public String getRua() {
+        return rua;
+    }
+
+    public String getNumero() {
+        return numero;
+    }
+
+    public String getBairro() {
+        return bairro;
+    }
+
+    public String getCep() {
+        return cep;
+    }
+
+    public String getCidade() {
+        return cidade;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
     @Override
     public String toString() {
         return String.format("%s, %s - %s, %s - %s/%s", rua, numero, bairro, cep, cidade, estado);
@@ -34,7 +34,7 @@ public abstract class Investidor {
         this.telefone = telefone;
         this.endereco = endereco;
         this.patrimonio = patrimonio;
-        this.carteira = new Carteira();
+        this.carteira = new Carteira(this);
     }
 
     public String getNome() {
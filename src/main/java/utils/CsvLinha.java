@@ -0,0 +1,153 @@
+package utils;
+
+import java.util.Arrays;
+
+// Linha de CSV reutilizável: os campos ficam num único buffer de chars e são
+// expostos por posição, sem criar um String por campo até que alguém peça.
+public class CsvLinha {
+
+    private char[] buffer = new char[256];
+    private int tamanhoBuffer;
+    private int[] inicios = new int[16];
+    private int[] fins = new int[16];
+    private int campos;
+    private long numero;
+    private final Visao visao = new Visao();
+
+    // ---- montagem (usada pelo CsvReader) ----
+
+    void reiniciar(long numeroLinha) {
+        tamanhoBuffer = 0;
+        campos = 0;
+        numero = numeroLinha;
+        iniciarCampo();
+    }
+
+    void iniciarCampo() {
+        if (campos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fins = Arrays.copyOf(fins, campos * 2);
+        }
+        inicios[campos] = tamanhoBuffer;
+        fins[campos] = tamanhoBuffer;
+        campos++;
+    }
+
+    void adicionar(char c) {
+        if (tamanhoBuffer == buffer.length) {
+            buffer = Arrays.copyOf(buffer, tamanhoBuffer * 2);
+        }
+        buffer[tamanhoBuffer++] = c;
+        fins[campos - 1] = tamanhoBuffer;
+    }
+
+    // linha sem nenhum caractere visível (ignorada pelo leitor)
+    boolean isEmBranco() {
+        for (int i = 0; i < tamanhoBuffer; i++) {
+            if (!Character.isWhitespace(buffer[i])) return false;
+        }
+        return true;
+    }
+
+    // ---- leitura ----
+
+    // número da linha no arquivo (1 = cabeçalho)
+    public long getNumero() {
+        return numero;
+    }
+
+    public int tamanho() {
+        return campos;
+    }
+
+    private int inicioAparado(int idx) {
+        int i = inicios[idx];
+        int f = fins[idx];
+        while (i < f && Character.isWhitespace(buffer[i])) i++;
+        return i;
+    }
+
+    private int fimAparado(int idx) {
+        int i = inicios[idx];
+        int f = fins[idx];
+        while (f > i && Character.isWhitespace(buffer[f - 1])) f--;
+        return f;
+    }
+
+    // campo aparado; "" se o índice não existir (mesma regra do antigo safeGet)
+    public String get(int idx) {
+        if (idx < 0 || idx >= campos) return "";
+        int i = inicioAparado(idx);
+        int f = fimAparado(idx);
+        return i >= f ? "" : new String(buffer, i, f - i);
+    }
+
+    public boolean isVazio(int idx) {
+        if (idx < 0 || idx >= campos) return true;
+        return inicioAparado(idx) >= fimAparado(idx);
+    }
+
+    // visão do campo aparado sobre o buffer da linha. A visão é uma só por linha e é reapontada a
+    // cada chamada: só vale até o próximo campo() ou a próxima linha (quem precisa guardar usa get)
+    public CharSequence campo(int idx) {
+        if (idx < 0 || idx >= campos) return "";
+        int i = inicioAparado(idx);
+        visao.inicio = i;
+        visao.fim = Math.max(i, fimAparado(idx));
+        return visao;
+    }
+
+    // acesso direto ao buffer para parsers que trabalham com chars (ex.: números)
+    public char[] getBuffer() {
+        return buffer;
+    }
+
+    public int getInicio(int idx) {
+        return (idx < 0 || idx >= campos) ? 0 : inicioAparado(idx);
+    }
+
+    public int getFim(int idx) {
+        return (idx < 0 || idx >= campos) ? 0 : fimAparado(idx);
+    }
+
+    // cópia dos campos brutos, para quem precisa guardar a linha
+    public String[] toArray() {
+        String[] out = new String[campos];
+        for (int i = 0; i < campos; i++) {
+            out[i] = new String(buffer, inicios[i], fins[i] - inicios[i]);
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", toArray());
+    }
+
+    // lê sempre o buffer atual da linha (ele pode ter sido realocado ao crescer)
+    private final class Visao implements CharSequence {
+        private int inicio;
+        private int fim;
+
+        @Override
+        public int length() {
+            return fim - inicio;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= fim - inicio) throw new IndexOutOfBoundsException(index);
+            return buffer[inicio + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(buffer, inicio + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, inicio, fim - inicio);
+        }
+    }
+}
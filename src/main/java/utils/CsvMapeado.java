@@ -0,0 +1,239 @@
+package utils;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Leitura de CSV grande via arquivo mapeado em memória (NIO): o arquivo é dividido em blocos
+// terminados em '\n', cada bloco é decodificado e interpretado numa tarefa do fork-join pool
+// e os resultados são concatenados na ordem do arquivo.
+// Limitação: quebras de linha dentro de campos entre aspas não são suportadas neste modo,
+// pois a divisão em blocos é feita pelos bytes '\n'. Pelo mesmo motivo, com charsets em que o
+// byte '\n' pode aparecer dentro de um caractere (UTF-16 etc.) o arquivo é lido em sequência.
+public class CsvMapeado {
+
+    // blocos menores que isso não compensam o custo de uma tarefa
+    private static final long TAMANHO_MINIMO_BLOCO = 1L << 20;
+    // janela usada para procurar o fim de linha a partir de um ponto de corte
+    private static final int JANELA_BUSCA = 64 * 1024;
+
+    private final CsvReader config;
+    private final ForkJoinPool pool;
+
+    public CsvMapeado(CsvReader config) {
+        this(config, ForkJoinPool.commonPool());
+    }
+
+    public CsvMapeado(CsvReader config, ForkJoinPool pool) {
+        if (config == null) throw new IllegalArgumentException("Configuração do CSV não pode ser nula.");
+        if (pool == null) throw new IllegalArgumentException("Pool não pode ser nulo.");
+        this.config = config;
+        this.pool = pool;
+    }
+
+    // Mapeia cada linha com a função informada (chamada em paralelo, deve ser thread-safe).
+    // Linhas mapeadas para null são descartadas. A lista segue a ordem das linhas no arquivo.
+    public <T> List<T> ler(Path caminho, Function<CsvLinha, T> mapeador) throws IOException {
+        if (!podeDividir(config.getCharset())) return lerSequencial(caminho, mapeador);
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            long[] limites = dividir(canal);
+            if (limites.length < 2) return new ArrayList<>();
+            long[] primeirasLinhas = primeirasLinhas(canal, limites);
+            try {
+                return pool.invoke(new TarefaBlocos<>(canal, limites, primeirasLinhas, 0, limites.length - 1, mapeador));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Cortar nos bytes '\n' só é seguro se esse byte nunca fizer parte de outro caractere:
+    // UTF-8 e charsets de um byte por caractere compatíveis com ASCII (ISO-8859-1, windows-1252...)
+    static boolean podeDividir(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) return true;
+        if (!charset.canEncode()) return false;
+        return charset.newEncoder().maxBytesPerChar() == 1
+                && Arrays.equals("\n\r".getBytes(charset), new byte[]{'\n', '\r'});
+    }
+
+    private <T> List<T> lerSequencial(Path caminho, Function<CsvLinha, T> mapeador) throws IOException {
+        List<T> resultado = new ArrayList<>();
+        config.ler(caminho, linha -> {
+            T item = mapeador.apply(linha);
+            if (item != null) resultado.add(item);
+        });
+        return resultado;
+    }
+
+    // Versão tolerante, no mesmo padrão de CsvReader.processar: mensagem e lista vazia em caso de erro
+    public <T> List<T> processar(String caminhoArquivo, Function<CsvLinha, T> mapeador) {
+        return processar(caminhoArquivo, mapeador, System.out::println);
+    }
+
+    public <T> List<T> processar(String caminhoArquivo, Function<CsvLinha, T> mapeador, Consumer<String> aoFalhar) {
+        if (caminhoArquivo == null || caminhoArquivo.isBlank()) {
+            aoFalhar.accept("Caminho do arquivo CSV vazio.");
+            return new ArrayList<>();
+        }
+        try {
+            return ler(Path.of(caminhoArquivo), mapeador);
+        } catch (IOException e) {
+            aoFalhar.accept("Não foi possível ler o CSV: " + caminhoArquivo + " (" + e.getMessage() + ")");
+            return new ArrayList<>();
+        }
+    }
+
+    // Calcula os pontos de corte: cada bloco começa logo após um '\n' (ou no início do arquivo)
+    private long[] dividir(FileChannel canal) throws IOException {
+        long tamanho = canal.size();
+        if (tamanho == 0) return new long[0];
+
+        int partes = pool.getParallelism() * 4;
+        long alvo = Math.max(TAMANHO_MINIMO_BLOCO, tamanho / partes);
+        // cada bloco precisa caber num único MappedByteBuffer
+        alvo = Math.min(alvo, Integer.MAX_VALUE - JANELA_BUSCA);
+
+        List<Long> cortes = new ArrayList<>();
+        cortes.add(0L);
+        long pos = alvo;
+        while (pos < tamanho) {
+            long corte = proximoFimDeLinha(canal, pos, tamanho);
+            if (corte >= tamanho) break;
+            cortes.add(corte);
+            pos = corte + alvo;
+        }
+        cortes.add(tamanho);
+
+        long[] limites = new long[cortes.size()];
+        for (int i = 0; i < limites.length; i++) limites[i] = cortes.get(i);
+        return limites;
+    }
+
+    // posição logo após o primeiro '\n' em [pos, tamanho); tamanho se não houver
+    private static long proximoFimDeLinha(FileChannel canal, long pos, long tamanho) throws IOException {
+        while (pos < tamanho) {
+            int janela = (int) Math.min(JANELA_BUSCA, tamanho - pos);
+            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, pos, janela);
+            for (int i = 0; i < janela; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += janela;
+        }
+        return tamanho;
+    }
+
+    // Número (no arquivo) da primeira linha de cada bloco, para as mensagens de erro apontarem a
+    // linha certa. Os fins de linha de cada bloco são contados em paralelo, com a mesma regra do
+    // CsvReader ("\n", "\r\n" ou "\r" sozinho), e acumulados em ordem.
+    private long[] primeirasLinhas(FileChannel canal, long[] limites) {
+        List<Callable<Long>> contagens = new ArrayList<>(limites.length - 1);
+        for (int b = 0; b < limites.length - 1; b++) {
+            long inicio = limites[b];
+            long fim = limites[b + 1];
+            contagens.add(() -> contarFinsDeLinha(canal, inicio, fim));
+        }
+        long[] primeiras = new long[limites.length - 1];
+        long numero = 1;
+        List<Future<Long>> feitas = pool.invokeAll(contagens);
+        for (int b = 0; b < primeiras.length; b++) {
+            primeiras[b] = numero;
+            try {
+                numero += feitas.get(b).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Leitura do CSV interrompida.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw new UncheckedIOException(io);
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return primeiras;
+    }
+
+    private static long contarFinsDeLinha(FileChannel canal, long inicio, long fim) throws IOException {
+        MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+        long fins = 0;
+        int n = bytes.limit();
+        for (int i = 0; i < n; i++) {
+            byte b = bytes.get(i);
+            if (b == '\n' || (b == '\r' && (i + 1 == n || bytes.get(i + 1) != '\n'))) fins++;
+        }
+        return fins;
+    }
+
+    private <T> List<T> lerBloco(FileChannel canal, long inicio, long fim, long primeiraLinha,
+                                 Function<CsvLinha, T> mapeador) {
+        List<T> resultado = new ArrayList<>();
+        try {
+            MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+            // podeDividir garante que o byte '\n' não aparece dentro de um caractere, então o corte é seguro
+            CharBuffer chars = config.getCharset().newDecoder().decode(bytes);
+            // só o primeiro bloco começa na linha 1, então só nele o cabeçalho é pulado
+            config.ler(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()),
+                    linha -> {
+                        T item = mapeador.apply(linha);
+                        if (item != null) resultado.add(item);
+                    }, primeiraLinha);
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException("Bloco com caracteres inválidos para " + config.getCharset(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return resultado;
+    }
+
+    // as tarefas nunca são serializadas (RecursiveTask é Serializable só por herança)
+    @SuppressWarnings("serial")
+    private class TarefaBlocos<T> extends RecursiveTask<List<T>> {
+        private final FileChannel canal;
+        private final long[] limites;
+        private final long[] primeirasLinhas;
+        private final int de;
+        private final int ate; // exclusivo
+        private final Function<CsvLinha, T> mapeador;
+
+        TarefaBlocos(FileChannel canal, long[] limites, long[] primeirasLinhas, int de, int ate,
+                     Function<CsvLinha, T> mapeador) {
+            this.canal = canal;
+            this.limites = limites;
+            this.primeirasLinhas = primeirasLinhas;
+            this.de = de;
+            this.ate = ate;
+            this.mapeador = mapeador;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (ate - de == 1) {
+                return lerBloco(canal, limites[de], limites[de + 1], primeirasLinhas[de], mapeador);
+            }
+            int meio = (de + ate) >>> 1;
+            TarefaBlocos<T> esquerda = new TarefaBlocos<>(canal, limites, primeirasLinhas, de, meio, mapeador);
+            TarefaBlocos<T> direita = new TarefaBlocos<>(canal, limites, primeirasLinhas, meio, ate, mapeador);
+            esquerda.fork();
+            List<T> resultadoDireita = direita.compute();
+            List<T> resultado = esquerda.join();
+            // concatena na ordem do arquivo: blocos da esquerda primeiro
+            resultado.addAll(resultadoDireita);
+            return resultado;
+        }
+    }
+}
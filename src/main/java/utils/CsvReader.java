@@ -1,39 +1,180 @@
 package utils;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+// Leitor de CSV em streaming: entrega cada linha ao consumidor numa única CsvLinha
+// reaproveitada, então a memória usada não depende do tamanho do arquivo.
+// Suporta campos entre aspas (com "" como aspas literal e quebras de linha dentro das aspas).
 public class CsvReader {
 
-    public static List<String[]> lerCsv(String caminhoArquivo) {
-        List<String[]> linhas = new ArrayList<>();
+    public static final char DELIMITADOR_PADRAO = ';';
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    private final char delimitador;
+    private final Charset charset;
+    private final boolean ignorarCabecalho;
+
+    public CsvReader() {
+        this(DELIMITADOR_PADRAO, StandardCharsets.UTF_8, true);
+    }
+
+    public CsvReader(char delimitador, Charset charset, boolean ignorarCabecalho) {
+        if (delimitador == '"' || delimitador == '\n' || delimitador == '\r') {
+            throw new IllegalArgumentException("Delimitador inválido: " + delimitador);
+        }
+        if (charset == null) throw new IllegalArgumentException("Charset não pode ser nulo.");
+        this.delimitador = delimitador;
+        this.charset = charset;
+        this.ignorarCabecalho = ignorarCabecalho;
+    }
+
+    public char getDelimitador() {
+        return delimitador;
+    }
 
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isIgnorarCabecalho() {
+        return ignorarCabecalho;
+    }
+
+    // Lê o arquivo e entrega as linhas ao consumidor. Retorna a quantidade de linhas entregues.
+    public long ler(Path caminho, Consumer<CsvLinha> consumidor) throws IOException {
+        try (Reader reader = Files.newBufferedReader(caminho, charset)) {
+            return ler(reader, consumidor);
+        }
+    }
+
+    // Versão tolerante usada pelos loaders: mensagem no console e -1 se o arquivo não puder ser lido
+    public long processar(String caminhoArquivo, Consumer<CsvLinha> consumidor) {
+        return processar(caminhoArquivo, consumidor, System.out::println);
+    }
+
+    // Mesma leitura tolerante, mas a mensagem de erro vai para quem chamou (ex.: modo em lote)
+    public long processar(String caminhoArquivo, Consumer<CsvLinha> consumidor, Consumer<String> aoFalhar) {
         if (caminhoArquivo == null || caminhoArquivo.isBlank()) {
-            System.out.println("Caminho do arquivo CSV vazio.");
-            return linhas;
+            aoFalhar.accept("Caminho do arquivo CSV vazio.");
+            return -1;
+        }
+        try {
+            return ler(Path.of(caminhoArquivo), consumidor);
+        } catch (IOException e) {
+            aoFalhar.accept("Não foi possível ler o CSV: " + caminhoArquivo + " (" + e.getMessage() + ")");
+            return -1;
         }
+    }
+
+    public long ler(Reader reader, Consumer<CsvLinha> consumidor) throws IOException {
+        return ler(reader, consumidor, 1);
+    }
+
+    // primeiraLinha: número da primeira linha do reader no arquivo (blocos do CsvMapeado começam no meio).
+    // Só no começo do arquivo: um BOM inicial é descartado e o cabeçalho é o primeiro registro não vazio
+    // (linhas em branco antes dele não o transformam em dado).
+    long ler(Reader reader, Consumer<CsvLinha> consumidor, long primeiraLinha) throws IOException {
+        char[] buf = new char[TAMANHO_BUFFER];
+        CsvLinha linha = new CsvLinha();
+        long numeroLinha = primeiraLinha;
+        long entregues = 0;
+        boolean inicioArquivo = primeiraLinha == 1;
+        boolean cabecalhoPendente = ignorarCabecalho && inicioArquivo;
+
+        boolean entreAspas = false;
+        boolean aspasPendente = false; // vimos '"' dentro das aspas; decide no próximo char
+        boolean inicioCampo = true;
+        boolean linhaAberta = false;
+        boolean crPendente = false;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(caminhoArquivo))) {
-            String linha;
-            boolean primeiraLinha = true;
+        linha.reiniciar(numeroLinha);
 
-            while ((linha = br.readLine()) != null) {
-                if (primeiraLinha) { // ignora cabeçalho
-                    primeiraLinha = false;
+        int n;
+        while ((n = reader.read(buf)) != -1) {
+            int inicio = 0;
+            if (inicioArquivo && n > 0) {
+                inicioArquivo = false;
+                if (buf[0] == BOM) inicio = 1;
+            }
+            for (int i = inicio; i < n; i++) {
+                char c = buf[i];
+
+                if (crPendente) {
+                    crPendente = false;
+                    if (c == '\n') continue; // "\r\n" já tratado como fim de linha
+                }
+
+                if (aspasPendente) {
+                    aspasPendente = false;
+                    if (c == '"') {
+                        linha.adicionar('"');
+                        continue;
+                    }
+                    entreAspas = false; // aspas de fechamento; c segue o fluxo normal
+                }
+
+                if (entreAspas) {
+                    if (c == '"') {
+                        aspasPendente = true;
+                    } else {
+                        linha.adicionar(c);
+                        if (c == '\n') numeroLinha++;
+                    }
                     continue;
                 }
-                if (linha.isBlank()) continue;
 
-                String[] campos = linha.split(";");
-                linhas.add(campos);
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r') crPendente = true;
+                    if (linhaAberta && !linha.isEmBranco()) {
+                        if (cabecalhoPendente) {
+                            cabecalhoPendente = false;
+                        } else {
+                            consumidor.accept(linha);
+                            entregues++;
+                        }
+                    }
+                    numeroLinha++;
+                    linha.reiniciar(numeroLinha);
+                    inicioCampo = true;
+                    linhaAberta = false;
+                    continue;
+                }
+
+                linhaAberta = true;
+                if (c == delimitador) {
+                    linha.iniciarCampo();
+                    inicioCampo = true;
+                } else if (c == '"' && inicioCampo) {
+                    entreAspas = true;
+                    inicioCampo = false;
+                } else {
+                    linha.adicionar(c);
+                    if (!Character.isWhitespace(c)) inicioCampo = false;
+                }
             }
-        } catch (IOException e) {
-            System.out.println("Não foi possível ler o CSV: " + caminhoArquivo + " (" + e.getMessage() + ")");
         }
+        if ((linhaAberta || entreAspas) && !linha.isEmBranco() && !cabecalhoPendente) {
+            consumidor.accept(linha);
+            entregues++;
+        }
+        return entregues;
+    }
 
+    // Lê o CSV inteiro em memória (pula o cabeçalho). Mantido para quem precisa da lista;
+    // os loaders usam a API em streaming.
+    public static List<String[]> lerCsv(String caminhoArquivo) {
+        List<String[]> linhas = new ArrayList<>();
+        new CsvReader().processar(caminhoArquivo, l -> linhas.add(l.toArray()));
         return linhas;
     }
 }
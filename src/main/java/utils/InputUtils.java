@@ -49,9 +49,8 @@ public class InputUtils {
                 continue;
             }
 
-            s = s.trim().replace(",", ".");
             try {
-                BigDecimal v = new BigDecimal(s);
+                BigDecimal v = ParserDecimal.parse(s);
                 if (v.compareTo(BigDecimal.ZERO) <= 0) {
                     System.out.println("Digite um valor maior que zero.");
                     continue;
@@ -0,0 +1,175 @@
+package utils;
+
+import java.math.BigDecimal;
+
+// Parser único de números decimais para todos os loaders (ativos, investidores, movimentações).
+// Aceita o formato brasileiro ("1.234,56", "14,38") e o formato com ponto decimal ("92601.00"),
+// acumulando os dígitos direto num long (valor sem escala) + escala, sem Strings intermediárias.
+// Só recorre ao construtor de BigDecimal quando o número não cabe num long.
+//
+// Quem conhece o formato da coluna informa o separador decimal (parse(s, ',') para os catálogos em
+// reais com vírgula, parse(s, '.') para os cotados com ponto); o outro separador é de milhar.
+// Sem essa informação (parse(s)), o separador decimal é deduzido:
+//  - se aparecem '.' e ',', o último dos dois é o decimal e o outro é separador de milhar;
+//  - se aparece só um tipo, ele é decimal quando ocorre uma única vez ("0,4", "92601.00")
+//    e separador de milhar quando se repete ("1.234.567");
+//  - um único '.' seguido de exatamente 3 dígitos, com parte inteira de 1 a 3 dígitos ("1.000"),
+//    é rejeitado como ambíguo: pode ser milhar no formato brasileiro ou decimal.
+// Em qualquer caso os grupos de milhar têm 3 dígitos e o primeiro não começa com zero
+// ("1.234.567"); "1.23" ou "0.125" lidos como milhar são inválidos.
+public final class ParserDecimal {
+
+    // 10^18 ainda cabe num long; com 18 dígitos nunca há overflow
+    private static final int MAX_DIGITOS_LONG = 18;
+
+    // separador decimal deduzido da própria entrada
+    private static final char DEDUZIR = 0;
+
+    private ParserDecimal() {
+    }
+
+    public static BigDecimal parse(CharSequence s) {
+        if (s == null) throw new NumberFormatException("Número nulo.");
+        return parse(s, 0, s.length(), DEDUZIR);
+    }
+
+    // decimal: ',' ou '.'; o outro separador só é aceito como milhar
+    public static BigDecimal parse(CharSequence s, char decimal) {
+        if (s == null) throw new NumberFormatException("Número nulo.");
+        return parse(s, 0, s.length(), separadorInformado(decimal));
+    }
+
+    // Vazio ou "-" viram null (campos opcionais dos CSVs)
+    public static BigDecimal parseOpcional(CharSequence s) {
+        return parseOpcional(s, DEDUZIR);
+    }
+
+    public static BigDecimal parseOpcional(CharSequence s, char decimal) {
+        if (s == null) return null;
+        int inicio = 0;
+        int fim = s.length();
+        while (inicio < fim && Character.isWhitespace(s.charAt(inicio))) inicio++;
+        while (fim > inicio && Character.isWhitespace(s.charAt(fim - 1))) fim--;
+        if (inicio == fim) return null;
+        if (fim - inicio == 1 && s.charAt(inicio) == '-') return null;
+        return parse(s, inicio, fim, decimal == DEDUZIR ? DEDUZIR : separadorInformado(decimal));
+    }
+
+    public static BigDecimal parse(CharSequence s, int inicio, int fim) {
+        return parse(s, inicio, fim, DEDUZIR);
+    }
+
+    private static char separadorInformado(char decimal) {
+        if (decimal != ',' && decimal != '.') throw new IllegalArgumentException("Separador decimal inválido: " + decimal);
+        return decimal;
+    }
+
+    private static BigDecimal parse(CharSequence s, int inicio, int fim, char decimalInformado) {
+        while (inicio < fim && Character.isWhitespace(s.charAt(inicio))) inicio++;
+        while (fim > inicio && Character.isWhitespace(s.charAt(fim - 1))) fim--;
+        if (inicio >= fim) throw invalido(s, inicio, fim);
+
+        boolean negativo = false;
+        char primeiro = s.charAt(inicio);
+        if (primeiro == '-' || primeiro == '+') {
+            negativo = primeiro == '-';
+            inicio++;
+            if (inicio == fim) throw invalido(s, inicio - 1, fim);
+        }
+
+        char decimal = decimalInformado == DEDUZIR ? separadorDecimal(s, inicio, fim) : decimalInformado;
+
+        long valor = 0;
+        int digitos = 0;     // dígitos significativos acumulados (zeros à esquerda não contam)
+        int escala = 0;
+        boolean viuDigito = false;
+        boolean naParteDecimal = false;
+        boolean viuMilhar = false;
+        int digitosNoGrupo = 0; // dígitos da parte inteira desde o último separador de milhar
+
+        // a validação percorre a entrada inteira mesmo quando o número não cabe num long,
+        // para o caminho lento aceitar exatamente o mesmo formato
+        for (int i = inicio; i < fim; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                viuDigito = true;
+                if (naParteDecimal) escala++;
+                else digitosNoGrupo++;
+                if (valor == 0 && c == '0') continue;
+                if (++digitos > MAX_DIGITOS_LONG) continue;
+                valor = valor * 10 + (c - '0');
+            } else if (c == decimal) {
+                if (naParteDecimal || (viuMilhar && digitosNoGrupo != 3)) throw invalido(s, inicio, fim);
+                naParteDecimal = true;
+            } else if (c == '.' || c == ',') {
+                // separador de milhar: só antes da parte decimal, entre grupos de 3 dígitos
+                if (naParteDecimal) throw invalido(s, inicio, fim);
+                if (viuMilhar ? digitosNoGrupo != 3
+                        : (digitosNoGrupo == 0 || digitosNoGrupo > 3 || s.charAt(inicio) == '0')) {
+                    throw invalido(s, inicio, fim);
+                }
+                viuMilhar = true;
+                digitosNoGrupo = 0;
+            } else {
+                throw invalido(s, inicio, fim);
+            }
+        }
+        if (!viuDigito) throw invalido(s, inicio, fim);
+        if (!naParteDecimal && viuMilhar && digitosNoGrupo != 3) throw invalido(s, inicio, fim);
+        if (digitos > MAX_DIGITOS_LONG) return parseGrande(s, inicio, fim, decimal, negativo);
+
+        return BigDecimal.valueOf(negativo ? -valor : valor, escala);
+    }
+
+    // Decide qual caractere é o separador decimal; 0 quando não há parte decimal
+    private static char separadorDecimal(CharSequence s, int inicio, int fim) {
+        int pontos = 0, virgulas = 0;
+        int ultimoPonto = -1, ultimaVirgula = -1;
+        for (int i = inicio; i < fim; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                pontos++;
+                ultimoPonto = i;
+            } else if (c == ',') {
+                virgulas++;
+                ultimaVirgula = i;
+            }
+        }
+        if (pontos > 0 && virgulas > 0) {
+            char decimal = ultimaVirgula > ultimoPonto ? ',' : '.';
+            int ocorrencias = decimal == ',' ? virgulas : pontos;
+            if (ocorrencias > 1) throw invalido(s, inicio, fim);
+            return decimal;
+        }
+        if (virgulas == 1) return ',';
+        if (pontos == 1) {
+            int inteiros = ultimoPonto - inicio;
+            if (fim - ultimoPonto - 1 == 3 && inteiros >= 1 && inteiros <= 3 && s.charAt(inicio) != '0') {
+                throw new NumberFormatException("Número ambíguo: '" + s.subSequence(inicio, fim)
+                        + "' (use vírgula para decimais ou escreva sem o ponto de milhar)");
+            }
+            return '.';
+        }
+        return 0;
+    }
+
+    // Caminho lento: mais de 18 dígitos significativos; a entrada já foi validada por parse
+    private static BigDecimal parseGrande(CharSequence s, int inicio, int fim, char decimal, boolean negativo) {
+        char[] normalizado = new char[fim - inicio + 1];
+        int n = 0;
+        if (negativo) normalizado[n++] = '-';
+        for (int i = inicio; i < fim; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                normalizado[n++] = c;
+            } else if (c == decimal) {
+                normalizado[n++] = '.';
+            }
+        }
+        return new BigDecimal(normalizado, 0, n);
+    }
+
+    private static NumberFormatException invalido(CharSequence s, int inicio, int fim) {
+        return new NumberFormatException("Número inválido: '" + s.subSequence(inicio, Math.max(inicio, fim)) + "'");
+    }
+}
@@ -0,0 +1,150 @@
+package utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Aritmética de ponto fixo em long: um valor é guardado em "unidades" de uma escala fixa
+// (ex.: escala 4 -> 1 unidade = R$ 0,0001). Evita alocar um BigDecimal por operação no caminho
+// de valorização. Todo estouro é detectado (Math.*Exact) e vira ArithmeticException, para quem
+// chama cair no BigDecimal. Arredondamento sempre HALF_UP, como no resto do sistema.
+//
+// Ligado por -Dgestaocarteira.pontoFixo=true; escalas por -Dgestaocarteira.escala.quantidade
+// (padrão 8) e -Dgestaocarteira.escala.real (padrão 4).
+public final class PontoFixo {
+
+    // marcador de "não representável nesta escala": quem recebe usa o caminho em BigDecimal
+    public static final long INVALIDO = Long.MIN_VALUE;
+
+    public static final boolean ATIVO = Boolean.getBoolean("gestaocarteira.pontoFixo");
+    public static final PontoFixo QUANTIDADE = new PontoFixo(Integer.getInteger("gestaocarteira.escala.quantidade", 8));
+    public static final PontoFixo REAL = new PontoFixo(Integer.getInteger("gestaocarteira.escala.real", 4));
+
+    private static final int MAX_ESCALA = 18;
+    private static final long[] POTENCIAS = new long[MAX_ESCALA + 1];
+
+    static {
+        POTENCIAS[0] = 1;
+        for (int i = 1; i <= MAX_ESCALA; i++) POTENCIAS[i] = POTENCIAS[i - 1] * 10;
+    }
+
+    private final int escala;
+
+    public PontoFixo(int escala) {
+        if (escala < 0 || escala > MAX_ESCALA) {
+            throw new IllegalArgumentException("Escala de ponto fixo deve estar entre 0 e " + MAX_ESCALA + ": " + escala);
+        }
+        this.escala = escala;
+    }
+
+    public int getEscala() {
+        return escala;
+    }
+
+    // Valor exato nesta escala; INVALIDO se tiver mais casas decimais ou não couber num long
+    public long unidades(BigDecimal valor) {
+        try {
+            long u = valor.setScale(escala, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            return u == INVALIDO ? INVALIDO : u;
+        } catch (ArithmeticException e) {
+            return INVALIDO;
+        }
+    }
+
+    // Arredonda (HALF_UP) para esta escala; INVALIDO se não couber num long
+    public long unidadesArredondadas(BigDecimal valor) {
+        try {
+            long u = valor.setScale(escala, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            return u == INVALIDO ? INVALIDO : u;
+        } catch (ArithmeticException e) {
+            return INVALIDO;
+        }
+    }
+
+    public BigDecimal decimal(long unidades) {
+        if (unidades == INVALIDO) throw new ArithmeticException("Valor de ponto fixo inválido.");
+        return BigDecimal.valueOf(unidades, escala);
+    }
+
+    // a (escala ea) x b (escala eb), arredondado para a escala destino
+    public static long multiplicar(long a, int ea, long b, int eb, int destino) {
+        return reescalar(Math.multiplyExact(verificar(a), verificar(b)), ea + eb, destino);
+    }
+
+    // dividendo (escala ed) / divisor (escala ev) com "escala" casas, HALF_UP: mesmo valor e mesma
+    // escala de BigDecimal.valueOf(dividendo, ed).divide(BigDecimal.valueOf(divisor, ev), escala, HALF_UP)
+    public static long dividir(long dividendo, int ed, long divisor, int ev, int escala) {
+        verificar(dividendo);
+        verificar(divisor);
+        if (divisor == 0) throw new ArithmeticException("Divisão por zero.");
+        // (dividendo / 10^ed) / (divisor / 10^ev) * 10^escala = dividendo * 10^(ev - ed + escala) / divisor
+        int expoente = ev - ed + escala;
+        long numerador = dividendo;
+        long denominador = divisor;
+        if (expoente >= 0) {
+            numerador = Math.multiplyExact(numerador, potencia(expoente));
+        } else {
+            denominador = Math.multiplyExact(denominador, potencia(-expoente));
+        }
+        return dividirHalfUp(numerador, denominador);
+    }
+
+    // Mesmo resultado (valor e escala) de dividendo.divide(divisor, escala, HALF_UP); usa long quando
+    // os dois cabem e cai no BigDecimal quando não cabem
+    public static BigDecimal dividir(BigDecimal dividendo, BigDecimal divisor, int escala) {
+        long d = unidadesNaEscalaPropria(dividendo);
+        long v = unidadesNaEscalaPropria(divisor);
+        if (d != INVALIDO && v != INVALIDO && v != 0) {
+            try {
+                return BigDecimal.valueOf(dividir(d, dividendo.scale(), v, divisor.scale(), escala), escala);
+            } catch (ArithmeticException e) {
+                // estourou: segue pelo BigDecimal
+            }
+        }
+        return dividendo.divide(divisor, escala, RoundingMode.HALF_UP);
+    }
+
+    public static long somar(long a, long b) {
+        return Math.addExact(verificar(a), verificar(b));
+    }
+
+    public static long subtrair(long a, long b) {
+        return Math.subtractExact(verificar(a), verificar(b));
+    }
+
+    // Muda a escala de um valor em unidades, arredondando HALF_UP quando perde casas
+    public static long reescalar(long valor, int de, int para) {
+        verificar(valor);
+        if (para >= de) return Math.multiplyExact(valor, potencia(para - de));
+        return dividirHalfUp(valor, potencia(de - para));
+    }
+
+    private static long unidadesNaEscalaPropria(BigDecimal valor) {
+        if (valor.scale() < 0 || valor.scale() > MAX_ESCALA || valor.precision() > MAX_ESCALA) return INVALIDO;
+        return valor.unscaledValue().longValue();
+    }
+
+    // arredonda a divisão inteira para o vizinho mais próximo; empate afasta do zero (HALF_UP)
+    private static long dividirHalfUp(long numerador, long denominador) {
+        verificar(numerador);
+        verificar(denominador);
+        long q = numerador / denominador;
+        long r = numerador % denominador;
+        if (r != 0) {
+            long absR = Math.abs(r);
+            long absD = Math.abs(denominador);
+            if (absR >= absD - absR) q += ((numerador ^ denominador) < 0) ? -1 : 1;
+        }
+        return q;
+    }
+
+    private static long potencia(int expoente) {
+        if (expoente > MAX_ESCALA) throw new ArithmeticException("Escala fora do alcance do ponto fixo: " + expoente);
+        return POTENCIAS[expoente];
+    }
+
+    // Long.MIN_VALUE é o marcador INVALIDO (e não tem valor absoluto em long)
+    private static long verificar(long valor) {
+        if (valor == INVALIDO) throw new ArithmeticException("Valor de ponto fixo inválido.");
+        return valor;
+    }
+}
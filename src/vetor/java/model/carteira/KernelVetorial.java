@@ -0,0 +1,84 @@
+package model.carteira;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import utils.PontoFixo;
+
+// Núcleo de valorização com a Vector API (jdk.incubator.vector): várias linhas por instrução.
+// Compilado só pelos perfis "vetor" e "jmh" (src/vetor/java) e carregado por KernelValoracao.padrao().
+//
+// Por bloco de linhas: lê as quantidades, busca (gather) o preço em reais de cada ativo, multiplica e
+// volta para a escala de PontoFixo.REAL arredondando HALF_UP. A Vector API não tem divisão de long
+// acelerada, então o quociente por 10^escala sai de uma estimativa em double corrigida pelo resto
+// exato em long (a estimativa erra no máximo 1 para cada lado). Blocos com quantidade ou preço
+// inválido, ou com produto perto do limite do long, vão pelo caminho escalar: o resultado é sempre
+// igual ao do KernelEscalar.
+public class KernelVetorial implements KernelValoracao {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = VectorSpecies.of(double.class, LONGS.vectorShape());
+    // folga para o produto mais a metade do divisor continuar dentro do long
+    private static final double LIMITE_PRODUTO = 9.0e18;
+    // abaixo disso o quociente é grande demais para a estimativa em double errar só por 1
+    private static final int ESCALA_MINIMA = 4;
+
+    private final long divisor;
+    private final long metade;
+    private final double inverso;
+    private final boolean vetorizavel;
+
+    public KernelVetorial() {
+        int escala = PontoFixo.QUANTIDADE.getEscala();
+        this.vetorizavel = escala >= ESCALA_MINIMA;
+        this.divisor = (long) Math.pow(10, escala);
+        this.metade = divisor / 2;
+        this.inverso = 1.0 / divisor;
+    }
+
+    @Override
+    public void valorarLinhas(int linhas, int[] ativoDaLinha, long[] quantidade, long[] precoReais, long[] valores) {
+        int i = 0;
+        if (vetorizavel) {
+            int limite = LONGS.loopBound(linhas);
+            for (; i < limite; i += LONGS.length()) {
+                LongVector q = LongVector.fromArray(LONGS, quantidade, i);
+                LongVector p = LongVector.fromArray(LONGS, precoReais, 0, ativoDaLinha, i);
+
+                // INVALIDO é Long.MIN_VALUE: "não negativo" já o exclui
+                VectorMask<Long> ok = q.compare(VectorOperators.GE, 0L).and(p.compare(VectorOperators.GE, 0L));
+                DoubleVector produtoEstimado = ((DoubleVector) q.convert(VectorOperators.L2D, 0))
+                        .mul((DoubleVector) p.convert(VectorOperators.L2D, 0));
+                ok = ok.and(produtoEstimado.compare(VectorOperators.LT, LIMITE_PRODUTO).cast(LONGS));
+                if (!ok.allTrue()) {
+                    escalar(i, i + LONGS.length(), ativoDaLinha, quantidade, precoReais, valores);
+                    continue;
+                }
+
+                LongVector x = q.mul(p).add(metade);
+                LongVector quociente = (LongVector) ((DoubleVector) x.convert(VectorOperators.L2D, 0))
+                        .mul(inverso)
+                        .convert(VectorOperators.D2L, 0);
+                LongVector resto = x.sub(quociente.mul(divisor));
+                quociente = quociente
+                        .add(1L, resto.compare(VectorOperators.GE, divisor))
+                        .sub(1L, resto.compare(VectorOperators.LT, 0L));
+                quociente.intoArray(valores, i);
+            }
+        }
+        escalar(i, linhas, ativoDaLinha, quantidade, precoReais, valores);
+    }
+
+    private static void escalar(int inicio, int fim, int[] ativoDaLinha, long[] quantidade, long[] precoReais, long[] valores) {
+        for (int i = inicio; i < fim; i++) {
+            valores[i] = KernelValoracao.valorLinha(quantidade[i], precoReais[ativoDaLinha[i]]);
+        }
+    }
+
+    @Override
+    public String nome() {
+        return "vetorial (" + LONGS + ")";
+    }
+}